@@ -0,0 +1,28 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.BorrowAggregate;
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.dto.ReturnBorrowAggregate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static BorrowAggregate borrowAggregate(int itemCount) {
+        LocalDate startDate = LocalDate.of(2024, 4, 1);
+        return new BorrowAggregate(UUID.randomUUID(), UUID.randomUUID(), startDate, startDate.plusWeeks(2),
+                Stream.generate(() -> new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID())).limit(itemCount).toList());
+    }
+
+    static ReturnBorrowAggregate returnAggregate(BorrowAggregate borrow) {
+        LocalDate returnDate = borrow.endDate().plusDays(3);
+        return new ReturnBorrowAggregate(borrow.borrowUuid(), borrow.memberCardUuid(), borrow.startDate().toString(), borrow.endDate().toString(),
+                returnDate.toString(), true, 2, new BigDecimal("1000"), borrow.items());
+    }
+}
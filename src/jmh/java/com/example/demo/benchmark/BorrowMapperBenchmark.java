@@ -0,0 +1,41 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.BorrowAggregate;
+import com.example.demo.dto.BorrowCreatedSummaryDTO;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.model.BorrowItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 貸出の集約からエンティティとレスポンスを組み立てるコストを冊数ごとに計測します。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BorrowMapperBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private final BorrowMapper borrowMapper = new BorrowMapper();
+
+    private BorrowAggregate aggregate;
+
+    @Setup
+    public void setUp() {
+        aggregate = BenchmarkFixtures.borrowAggregate(itemCount);
+    }
+
+    @Benchmark
+    public List<BorrowItem> toItems() {
+        return borrowMapper.toItems(aggregate);
+    }
+
+    @Benchmark
+    public BorrowCreatedSummaryDTO toSummaryDTO() {
+        return borrowMapper.toSummaryDTO(aggregate);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.util.DateCalculationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 返却時の延滞日数計算のコストを延滞期間ごとに計測します。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DateCalculationBenchmark {
+
+    @Param({"0", "7", "30", "365", "3650"})
+    private int daysLate;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        LocalDate dueDate = LocalDate.of(2024, 4, 1);
+        startDate = dueDate.plusDays(1);
+        endDate = dueDate.plusDays(daysLate);
+    }
+
+    @Benchmark
+    public long calculateWorkingDays() {
+        return DateCalculationUtil.calculateWorkingDays(startDate, endDate);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.BorrowAggregate;
+import com.example.demo.dto.BorrowCreatedEvent;
+import com.example.demo.dto.ReturnBorrowAggregate;
+import com.example.demo.dto.ReturnCreatedEvent;
+import com.example.demo.factory.BorrowEventFactory;
+import com.example.demo.factory.ReturnBorrowEventFactory;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.model.BorrowItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 貸出・返却イベントの生成コストを冊数ごとに計測します。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class EventFactoryBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private final BorrowEventFactory borrowEventFactory = new BorrowEventFactory(new BorrowMapper());
+
+    private final ReturnBorrowEventFactory returnBorrowEventFactory = new ReturnBorrowEventFactory(new ReturnMapper());
+
+    private final UUID eventId = UUID.randomUUID();
+
+    private BorrowAggregate borrowAggregate;
+
+    private ReturnBorrowAggregate returnAggregate;
+
+    private List<BorrowItem> entities;
+
+    @Setup
+    public void setUp() {
+        borrowAggregate = BenchmarkFixtures.borrowAggregate(itemCount);
+        returnAggregate = BenchmarkFixtures.returnAggregate(borrowAggregate);
+        entities = new BorrowMapper().toItems(borrowAggregate);
+    }
+
+    @Benchmark
+    public BorrowCreatedEvent createBorrowEvent() {
+        return borrowEventFactory.create(borrowAggregate, entities, eventId);
+    }
+
+    @Benchmark
+    public ReturnCreatedEvent createReturnEvent() {
+        return returnBorrowEventFactory.create(returnAggregate, entities, eventId);
+    }
+}
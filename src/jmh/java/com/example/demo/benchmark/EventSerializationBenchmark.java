@@ -0,0 +1,104 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.BorrowAggregate;
+import com.example.demo.dto.BorrowCreatedEvent;
+import com.example.demo.dto.ReturnCreatedEvent;
+import com.example.demo.event.EventType;
+import com.example.demo.event.codec.BinaryEventCodec;
+import com.example.demo.factory.BorrowEventFactory;
+import com.example.demo.factory.ReturnBorrowEventFactory;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.model.BorrowItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka の JsonSerializer と同じ設定の ObjectMapper と {@link BinaryEventCodec} で、貸出・返却イベントの変換コストを比較します。
+ * 各エンコーディングの一件あたりのサイズは Setup で出力します。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class EventSerializationBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    private BorrowCreatedEvent borrowCreatedEvent;
+
+    private ReturnCreatedEvent returnCreatedEvent;
+
+    private byte[] borrowJson;
+
+    private byte[] returnJson;
+
+    private byte[] borrowBinary;
+
+    private byte[] returnBinary;
+
+    @Setup
+    public void setUp() throws IOException {
+        BorrowMapper borrowMapper = new BorrowMapper();
+        BorrowAggregate aggregate = BenchmarkFixtures.borrowAggregate(itemCount);
+        List<BorrowItem> entities = borrowMapper.toItems(aggregate);
+        borrowCreatedEvent = new BorrowEventFactory(borrowMapper).create(aggregate, entities, UUID.randomUUID());
+        returnCreatedEvent = new ReturnBorrowEventFactory(new ReturnMapper()).create(BenchmarkFixtures.returnAggregate(aggregate), entities, UUID.randomUUID());
+        borrowJson = objectMapper.writeValueAsBytes(borrowCreatedEvent);
+        returnJson = objectMapper.writeValueAsBytes(returnCreatedEvent);
+        borrowBinary = BinaryEventCodec.encode(borrowCreatedEvent);
+        returnBinary = BinaryEventCodec.encode(returnCreatedEvent);
+        // JSON の値に加えて、JsonSerializer は完全修飾クラス名の __TypeId__ ヘッダーを付けます。
+        System.out.printf("%n# size (items=%d): borrow json=%d B + type header %d B, binary=%d B + 1 B; return json=%d B + type header %d B, binary=%d B + 1 B%n",
+                itemCount, borrowJson.length, BorrowCreatedEvent.class.getName().length(), borrowBinary.length,
+                returnJson.length, ReturnCreatedEvent.class.getName().length(), returnBinary.length);
+    }
+
+    @Benchmark
+    public byte[] serializeBorrowCreatedEvent() throws IOException {
+        return objectMapper.writeValueAsBytes(borrowCreatedEvent);
+    }
+
+    @Benchmark
+    public byte[] serializeReturnCreatedEvent() throws IOException {
+        return objectMapper.writeValueAsBytes(returnCreatedEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeBinaryBorrowCreatedEvent() {
+        return BinaryEventCodec.encode(borrowCreatedEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeBinaryReturnCreatedEvent() {
+        return BinaryEventCodec.encode(returnCreatedEvent);
+    }
+
+    @Benchmark
+    public BorrowCreatedEvent deserializeBorrowCreatedEvent() throws IOException {
+        return objectMapper.readValue(borrowJson, BorrowCreatedEvent.class);
+    }
+
+    @Benchmark
+    public ReturnCreatedEvent deserializeReturnCreatedEvent() throws IOException {
+        return objectMapper.readValue(returnJson, ReturnCreatedEvent.class);
+    }
+
+    @Benchmark
+    public Object decodeBinaryBorrowCreatedEvent() {
+        return BinaryEventCodec.decode(EventType.BORROW_CREATED, borrowBinary);
+    }
+
+    @Benchmark
+    public Object decodeBinaryReturnCreatedEvent() {
+        return BinaryEventCodec.decode(EventType.RETURN_BORROW_CREATED, returnBinary);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * アプリケーションを起動して {@code POST /books} に高い同時実行数で負荷をかけ、
+ * {@code borrow.threads.mode} の platform (Tomcat の 200 スレッド) と virtual のスループットと p99 を比較します。
+ * 同時実行数は {@code @Threads} で、DB の往復時間は JDBC の実行とコミットの前に {@code dbLatencyMs} だけ待つことで模擬します。
+ * JWT の署名検証と Kafka への配信はどちらのモードでも同じコストのため、ここでは除いています。
+ * 仮想スレッドではすべてのリクエストがコネクションを待つため、待ちをエラーではなく p99 に表すようコネクションの取得の待ちを長くしています。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+@Warmup(time = 5)
+@Measurement(time = 10)
+@State(Scope.Benchmark)
+public class ExecutionModeLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String threadMode;
+
+    @Param({"20", "400"})
+    private int poolSize;
+
+    @Param({"20"})
+    private long dbLatencyMs;
+
+    private EmbeddedPostgres embeddedPostgres;
+
+    private ConfigurableApplicationContext context;
+
+    private int port;
+
+    private String booksPath;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        // 会員の集計の記録などは PostgreSQL 専用の SQL のため、テストと同じ組み込みの PostgreSQL に Flyway でスキーマを作ります。
+        embeddedPostgres = EmbeddedPostgres.builder().setServerConfig("max_connections", "500").start();
+        Map<String, String> properties = Map.ofEntries(
+                Map.entry("server.port", "0"),
+                Map.entry("borrow.threads.mode", threadMode),
+                Map.entry("spring.datasource.url", embeddedPostgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true"),
+                Map.entry("spring.datasource.driver-class-name", "org.postgresql.Driver"),
+                Map.entry("spring.datasource.username", "postgres"),
+                Map.entry("spring.datasource.password", "postgres"),
+                Map.entry("spring.datasource.hikari.maximum-pool-size", String.valueOf(poolSize)),
+                Map.entry("spring.datasource.hikari.connection-timeout", String.valueOf(TimeUnit.MINUTES.toMillis(10))),
+                Map.entry("spring.jpa.database-platform", "org.hibernate.dialect.PostgreSQLDialect"),
+                Map.entry("spring.jpa.hibernate.ddl-auto", "none"),
+                Map.entry("spring.flyway.enabled", "true"),
+                Map.entry("spring.kafka.bootstrap-servers", "localhost:9092"),
+                Map.entry("borrow.events.delivery", "outbox"),
+                Map.entry("borrow.outbox.poll-interval-ms", "3600000"),
+                Map.entry("spring.jpa.open-in-view", "false"),
+                Map.entry("logging.level.root", "WARN"));
+        // テストクラスパスの application.properties (H2) より優先させるため、コマンドライン引数として渡します。
+        context = new SpringApplicationBuilder(LoadTestApplication.class)
+                .initializers(ctx -> {
+                    GenericApplicationContext applicationContext = (GenericApplicationContext) ctx;
+                    // トークンの値をそのまま会員証 UUID として扱います。
+                    applicationContext.registerBean(JwtDecoder.class, () -> token -> Jwt.withTokenValue(token).header("alg", "none").claim("member_card_uuid", token).issuedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(600)).build());
+                    applicationContext.registerBean(KafkaAdmin.class, () -> {
+                        KafkaAdmin kafkaAdmin = new KafkaAdmin(Map.of());
+                        kafkaAdmin.setAutoCreate(false);
+                        return kafkaAdmin;
+                    });
+                    applicationContext.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                        @Override
+                        public Object postProcessAfterInitialization(Object bean, String beanName) {
+                            return bean instanceof DataSource dataSource ? withLatency(dataSource, DataSource.class, dbLatencyMs) : bean;
+                        }
+                    });
+                })
+                .run(properties.entrySet().stream().map(entry -> "--" + entry.getKey() + "=" + entry.getValue()).toArray(String[]::new));
+        port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        booksPath = context.getEnvironment().getProperty("server.servlet.context-path", "") + "/books";
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        embeddedPostgres.close();
+    }
+
+    @Benchmark
+    public int borrowBooks() throws IOException {
+        String memberCardUuid = UUID.randomUUID().toString();
+        String body = "{\"data\":[{\"book_uuid\":\"" + UUID.randomUUID() + "\",\"chapter_uuid\":\"" + UUID.randomUUID() + "\"},{\"book_uuid\":\"" + UUID.randomUUID() + "\",\"chapter_uuid\":\"" + UUID.randomUUID() + "\"}]}";
+        byte[] request = ("POST " + booksPath + " HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Connection: close\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Authorization: Bearer " + memberCardUuid + "\r\n"
+                + "X-User-UUID: " + memberCardUuid + "\r\n"
+                + "Content-Length: " + body.length() + "\r\n\r\n" + body).getBytes(StandardCharsets.US_ASCII);
+        // 要求を一度に書き込み、Nagle と遅延 ACK による待ちがサーバーの処理時間に混ざらないようにします。
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            socket.getOutputStream().write(request);
+            byte[] response = socket.getInputStream().readAllBytes();
+            int status = Integer.parseInt(new String(response, 9, 3, StandardCharsets.US_ASCII));
+            if (status != 200) {
+                throw new IllegalStateException("Unexpected status " + status);
+            }
+            return status;
+        }
+    }
+
+    /**
+     * {@link DemoApplication} と同じ構成ですが、テストクラスパス上のテスト用コントローラーとベンチマーク、リアクティブ版は読み込みません。
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EnableScheduling
+    @AutoConfigurationPackage(basePackageClasses = DemoApplication.class)
+    @ComponentScan(basePackageClasses = DemoApplication.class, excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.example\\.demo\\.(DemoApplication|reactive\\..*|unit\\..*|benchmark\\..*)"))
+    static class LoadTestApplication {
+    }
+
+    /**
+     * DataSource から得たコネクションと文をプロキシで包み、SQL の実行とコミットの前に latencyMs だけ待ちます。
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T withLatency(Object target, Class<T> type, long latencyMs) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute") || name.equals("commit")) {
+                Thread.sleep(latencyMs);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection && name.equals("getConnection")) {
+                return withLatency(connection, Connection.class, latencyMs);
+            }
+            if (result instanceof Statement && method.getReturnType().isInterface() && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return withLatency(result, method.getReturnType(), latencyMs);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
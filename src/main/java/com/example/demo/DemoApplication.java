@@ -2,10 +2,24 @@ package com.example.demo;
 
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
+/**
+ * リアクティブ版 (reactive プロファイルでビルドされる com.example.demo.reactive) は
+ * ReactiveBorrowApplication で起動するため、このアプリケーションのコンポーネントスキャンからは除きます。
+ */
 @SpringBootApplication
+@ComponentScan(excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.example\\.demo\\.reactive\\..*")})
+@EnableScheduling
 public class DemoApplication {
 
     public static void main(String[] args) {
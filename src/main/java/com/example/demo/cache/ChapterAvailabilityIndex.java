@@ -0,0 +1,195 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.BookChapterReference;
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.exception.ChapterAlreadyLentException;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.MemberSummaryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 貸出中の本のチャプター {@code (bookUuid, chapterUuid)} をプロセス内で保持し、貸出できるチャプターは問い合わせなしで確保します。
+ * 起動時に未返却の貸出の明細から作成し、以後は貸出・返却と {@code borrow.chapter-index.refresh-interval-ms} ごとの再読み込みで更新します。
+ * 貸出ではチャプターをすぐに確保して並行した貸出から守り、トランザクションがロールバックされた場合は確保を戻します。返却による解放はコミット後に行います。
+ * 索引はインスタンスごとのため、他のインスタンスやリアクティブ版で返却されたチャプターが貸出中のまま残ることがあります。
+ * そのため索引で貸出中と判断したチャプターは、断る前に未返却の貸出の明細を問い合わせて確かめ、返却済みであれば索引から外して確保します。
+ * 他のインスタンスの貸出は次の再読み込みまで索引に反映されません。
+ * 明細の問い合わせには会員の集計から求めた未返却の貸出の開始日の下限を渡し、それより前の月のパーティションは読みません。
+ * 貸出中のチャプターの数は {@code borrow.lent.chapters} メトリクスとして公開されます。
+ */
+@Component
+@Slf4j
+public class ChapterAvailabilityIndex {
+
+    static final String LENT_CHAPTERS_METRIC = "borrow.lent.chapters";
+
+    private final BorrowItemRepository borrowItemRepository;
+
+    private final MemberSummaryRepository memberSummaryRepository;
+
+    /**
+     * 起動時に読み込んだ貸出のチャプターの持ち主です。
+     */
+    private static final Object LOADED = new Object();
+
+    /**
+     * 貸出中のチャプターと、それを確保した {@link Reservation}（起動時に読み込んだものは {@link #LOADED}）です。
+     * 取り消しは自分が確保したチャプターだけを外すため、取り消しの後に他の貸出が確保したチャプターを外すことはありません。
+     */
+    private final Map<BookChapterReference, Object> lentChapters = new ConcurrentHashMap<>();
+
+    public ChapterAvailabilityIndex(BorrowItemRepository borrowItemRepository, MemberSummaryRepository memberSummaryRepository, MeterRegistry meterRegistry) {
+        this.borrowItemRepository = borrowItemRepository;
+        this.memberSummaryRepository = memberSummaryRepository;
+        Gauge.builder(LENT_CHAPTERS_METRIC, lentChapters, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * 未返却の貸出の明細を一回の問い合わせで読み込み、索引を作り直します。
+     */
+    @PostConstruct
+    public void load() {
+        List<BookChapterReference> activeChapters = borrowItemRepository.findActiveChapters(activeLoansFrom());
+        lentChapters.clear();
+        activeChapters.forEach(reference -> lentChapters.put(reference, LOADED));
+        log.info("Loaded {} lent chapters into the availability index", lentChapters.size());
+    }
+
+    /**
+     * 未返却の貸出の明細を読み込み、索引にないチャプターを加えます。他のインスタンスの貸出を取り込むために定期的に実行します。
+     * 処理中の貸出の確保を消さないよう、既にあるチャプターはそのままにします。返却済みのチャプターは確保するときに確かめて外します。
+     */
+    @Scheduled(fixedDelayString = "${borrow.chapter-index.refresh-interval-ms:60000}", initialDelayString = "${borrow.chapter-index.refresh-interval-ms:60000}")
+    public void refresh() {
+        int before = lentChapters.size();
+        borrowItemRepository.findActiveChapters(activeLoansFrom()).forEach(reference -> lentChapters.putIfAbsent(reference, LOADED));
+        log.debug("Refreshed the availability index with {} chapters lent elsewhere", lentChapters.size() - before);
+    }
+
+    /**
+     * 貸出する本のチャプターをまとめて確保します。一冊でも貸出中であれば、このリクエストで確保した分を戻して断ります。
+     * 同じチャプターがリクエストに二度含まれる場合も貸出中として断ります。
+     * 索引で貸出中のチャプターは、処理中の貸出が確保したものでなければ未返却の貸出の明細を問い合わせて確かめます。
+     *
+     * @return 確保したチャプター。トランザクションを続けたまま貸出をやめる場合は {@link Reservation#cancel()} で戻します
+     * @throws ChapterAlreadyLentException 貸出中のチャプターが含まれる場合
+     */
+    public Reservation reserve(List<LoanItemDetails> items) {
+        Reservation reservation = new Reservation(items.size());
+        for (LoanItemDetails item : items) {
+            BookChapterReference reference = toReference(item);
+            if (!claim(reference, reservation)) {
+                reservation.cancel();
+                throw new ChapterAlreadyLentException("本のチャプターはすでに貸し出されています。");
+            }
+            reservation.chapters.add(reference);
+        }
+        afterCompletion(reservation);
+        return reservation;
+    }
+
+    /**
+     * 返却の確定後、貸出の明細のチャプターを貸出できる状態に戻します。
+     */
+    public void release(List<BorrowItem> items) {
+        afterCommit(() -> items.forEach(item -> lentChapters.remove(new BookChapterReference(item.getBookUuid(), item.getChapterUuid()))));
+    }
+
+    /**
+     * チャプターを確保します。索引の持ち主がコミット済みの貸出か起動時に読み込んだ貸出で、未返却の貸出の明細にもうなければ、持ち主を置き換えて確保します。
+     */
+    private boolean claim(BookChapterReference reference, Reservation reservation) {
+        Object owner = lentChapters.putIfAbsent(reference, reservation);
+        if (owner == null) {
+            return true;
+        }
+        if (owner instanceof Reservation pending && !pending.committed
+                || borrowItemRepository.existsActiveChapter(reference.book_uuid(), reference.chapter_uuid(), activeLoansFrom())) {
+            return false;
+        }
+        log.debug("Dropping stale lent chapter {} from the availability index", reference);
+        return lentChapters.replace(reference, owner, reservation) || claim(reference, reservation);
+    }
+
+    /**
+     * 未返却の貸出の開始日の下限です。未返却の貸出がなければ、今日より前の月のパーティションは読みません。
+     */
+    private LocalDate activeLoansFrom() {
+        return memberSummaryRepository.findActiveLoansFrom().orElse(LocalDate.now());
+    }
+
+    /**
+     * 一つの貸出で確保したチャプターです。
+     */
+    public final class Reservation {
+
+        private final List<BookChapterReference> chapters;
+
+        /**
+         * 貸出がコミットされたかどうかです。コミット前の確保は未返却の貸出の明細に現れないため、問い合わせで確かめずに貸出中として扱います。
+         */
+        private volatile boolean committed;
+
+        private Reservation(int size) {
+            this.chapters = new ArrayList<>(size);
+        }
+
+        /**
+         * 確保したチャプターを貸出できる状態に戻します。その間に他の持ち主に移ったチャプターはそのままです。
+         */
+        public void cancel() {
+            chapters.forEach(reference -> lentChapters.remove(reference, this));
+        }
+    }
+
+    private static BookChapterReference toReference(LoanItemDetails item) {
+        return new BookChapterReference(item.book_uuid(), item.chapter_uuid());
+    }
+
+    /**
+     * 貸出がコミットされたら確保を確定し、ロールバックされたら確保を戻します。トランザクションの外では直ちに確定します。
+     */
+    private void afterCompletion(Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reservation.committed = true;
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    reservation.committed = true;
+                } else {
+                    reservation.cancel();
+                }
+            }
+        });
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
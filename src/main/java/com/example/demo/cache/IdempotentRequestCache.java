@@ -0,0 +1,89 @@
+package com.example.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} ヘッダー付きの貸出・返却の結果を会員証 UUID とキーごとにプロセス内で保持し、再送に同じ結果を返します。
+ * 最初のリクエストの処理中に届いた再送は、処理を実行せずにその完了を待ちます。
+ * 失敗した結果は保持しないため、失敗後の再送は改めて処理されます。
+ * 同じキーを別のリクエストに使った場合は 422 を返します。
+ */
+@Component
+public class IdempotentRequestCache {
+
+    static final String CACHE_NAME = "idempotentRequest";
+
+    private final Cache<RequestKey, Execution> cache;
+
+    public IdempotentRequestCache(MeterRegistry meterRegistry,
+                                  @Value("${borrow.idempotency.maximum-size:100000}") long maximumSize,
+                                  @Value("${borrow.idempotency.expire-after-write-seconds:86400}") long expireAfterWriteSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * {@code idempotencyKey} が null の場合は {@code operation} をそのまま実行します。
+     *
+     * @param request 同じキーの再送が同じリクエストかを比べるための値。{@code equals} で比較します
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(UUID memberCardUuid, String idempotencyKey, Object request, Supplier<T> operation) {
+        if (idempotencyKey == null) {
+            return operation.get();
+        }
+        RequestKey key = new RequestKey(memberCardUuid, idempotencyKey);
+        Execution started = new Execution(request, new CompletableFuture<>());
+        Execution execution = cache.get(key, k -> started);
+        if (execution == started) {
+            return run(key, started, operation);
+        }
+        if (!execution.request().equals(request)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+        }
+        return (T) await(execution.response());
+    }
+
+    private <T> T run(RequestKey key, Execution execution, Supplier<T> operation) {
+        try {
+            T result = operation.get();
+            execution.response().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            cache.asMap().remove(key, execution);
+            execution.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private record RequestKey(UUID memberCardUuid, String idempotencyKey) {
+    }
+
+    private record Execution(Object request, CompletableFuture<Object> response) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.cache;
+
+import com.example.demo.dto.MemberEligibility;
+import com.example.demo.dto.MemberLoanState;
+import com.example.demo.repository.MemberSummaryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 貸出前のチェックに使う会員の貸出状況を会員証 UUID ごとにプロセス内でキャッシュします。
+ * ミスした場合だけ {@code member_summary} を主キーで読み込みます。
+ * 貸出・返却による状態の変化はコミット後にキャッシュへ書き込むため、ロールバックされた変更は反映されません。
+ * ヒット・ミス・追い出しの件数は {@code cache.*} メトリクスとして Prometheus に公開されます。
+ */
+@Component
+public class MemberLoanStateCache {
+
+    static final String CACHE_NAME = "memberLoanState";
+
+    private final MemberSummaryRepository memberSummaryRepository;
+
+    private final Cache<UUID, MemberLoanState> cache;
+
+    public MemberLoanStateCache(MemberSummaryRepository memberSummaryRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${borrow.member-cache.maximum-size:100000}") long maximumSize,
+                                @Value("${borrow.member-cache.expire-after-write-seconds:60}") long expireAfterWriteSeconds) {
+        this.memberSummaryRepository = memberSummaryRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public MemberEligibility get(UUID memberCardUuid) {
+        return cache.get(memberCardUuid, this::load);
+    }
+
+    /**
+     * 複数の会員の貸出状況を返します。キャッシュにない会員だけを一回の問い合わせでまとめて読み込みます。
+     */
+    public Map<UUID, MemberLoanState> getAll(Collection<UUID> memberCardUuids) {
+        return cache.getAll(memberCardUuids, this::loadAll);
+    }
+
+    /**
+     * 貸出の確定後、会員を「未返却の貸出あり・最終貸出日 = borrowDate」の状態にします。
+     */
+    public void recordBorrow(UUID memberCardUuid, LocalDate borrowDate) {
+        afterCommit(() -> cache.put(memberCardUuid, MemberLoanState.borrowed(borrowDate)));
+    }
+
+    /**
+     * 一括貸出の確定後、各会員を {@link #recordBorrow(UUID, LocalDate)} と同じ状態にします。
+     */
+    public void recordBorrows(Collection<UUID> memberCardUuids, LocalDate borrowDate) {
+        afterCommit(() -> memberCardUuids.forEach(memberCardUuid -> cache.put(memberCardUuid, MemberLoanState.borrowed(borrowDate))));
+    }
+
+    /**
+     * 返却の確定後、キャッシュ済みの会員を未返却の貸出なしの状態にします。
+     * 会員が一度に持てる未返却の貸出は一件だけなので、返却後に残る貸出はありません。
+     */
+    public void recordReturn(UUID memberCardUuid) {
+        afterCommit(() -> cache.asMap().computeIfPresent(memberCardUuid, (key, state) -> state.returned()));
+    }
+
+    /**
+     * 一括返却の確定後、各会員を {@link #recordReturn(UUID)} と同じ状態にします。
+     */
+    public void recordReturns(Collection<UUID> memberCardUuids) {
+        afterCommit(() -> memberCardUuids.forEach(memberCardUuid -> cache.asMap().computeIfPresent(memberCardUuid, (key, state) -> state.returned())));
+    }
+
+    private MemberLoanState load(UUID memberCardUuid) {
+        return memberSummaryRepository.findById(memberCardUuid).map(MemberLoanState::from).orElse(MemberLoanState.NONE);
+    }
+
+    private Map<UUID, MemberLoanState> loadAll(Iterable<? extends UUID> memberCardUuids) {
+        Map<UUID, MemberLoanState> states = new HashMap<>();
+        memberCardUuids.forEach(memberCardUuid -> states.put(memberCardUuid, MemberLoanState.NONE));
+        memberSummaryRepository.findAllById(List.copyOf(states.keySet())).forEach(summary -> states.put(summary.getMemberCardUuid(), MemberLoanState.from(summary)));
+        return states;
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
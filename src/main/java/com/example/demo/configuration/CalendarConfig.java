@@ -0,0 +1,31 @@
+package com.example.demo.configuration;
+
+import com.example.demo.util.WorkingDayCalendar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Configuration
+public class CalendarConfig {
+
+    /**
+     * 延滞日数の計算に使う図書館の営業日カレンダーです。
+     * 定休日は曜日で、休館日は {@code 2024-01-01} のような日付か {@code 2024-12-29..2025-01-03} のような期間で指定します。
+     */
+    @Bean
+    public WorkingDayCalendar workingDayCalendar(@Value("${borrow.calendar.closed-days:MONDAY,SUNDAY}") Set<DayOfWeek> closedDays,
+                                                 @Value("${borrow.calendar.holidays:}") List<String> holidays) {
+        return new WorkingDayCalendar(closedDays, holidays.stream().map(String::trim).flatMap(CalendarConfig::toDates).toList());
+    }
+
+    private static Stream<LocalDate> toDates(String entry) {
+        String[] bounds = entry.split("\\.\\.");
+        return LocalDate.parse(bounds[0]).datesUntil(LocalDate.parse(bounds[bounds.length - 1]).plusDays(1));
+    }
+}
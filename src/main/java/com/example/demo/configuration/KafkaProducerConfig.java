@@ -1,5 +1,6 @@
 package com.example.demo.configuration;
 
+import com.example.demo.event.codec.BinaryEventSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.UUIDSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,12 +21,31 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    /**
+     * json (既定) は型ヘッダー付きの JSON、binary は {@link BinaryEventSerializer} によるバージョン付きバイナリで値を書き込みます。
+     */
+    @Value("${borrow.events.encoding:json}")
+    private String encoding;
+
+    /**
+     * プロデューサーの設定です。{@code spring.kafka.producer.*} は使わず、ここで組み立てた設定だけが servlet 版とリアクティブ版の送信に使われます。
+     * 冪等なプロデューサー（acks=all・enable.idempotence・接続あたり最大 5 件の未確認リクエスト）として、失敗した送信を同じ順序のまま再送します。
+     * 再送は delivery.timeout.ms の 120 秒以内に限られ、それを過ぎた送信は失敗として返ります。
+     */
     public Map<String, Object> producerConfigs() {
         Map<String, Object> props = new HashMap<>();
-        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, true);
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, UUIDSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120_000);
+        if ("binary".equals(encoding)) {
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BinaryEventSerializer.class);
+        } else {
+            props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, true);
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        }
         return props;
     }
 
@@ -1,6 +1,8 @@
 package com.example.demo.configuration;
 
+import com.example.demo.event.EventType;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -8,14 +10,24 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaTopicBuilder {
 
+    private final int partitions;
+
+    /**
+     * レコードは会員証 UUID をキーに分散されるため、パーティション数がコンシューマーの最大並列数になります。
+     * 既存のトピックでは増やすことしかできず、増やした時点でキーとパーティションの対応が変わります。
+     */
+    public KafkaTopicBuilder(@Value("${borrow.events.topic.partitions:12}") int partitions) {
+        this.partitions = partitions;
+    }
+
     @Bean
     public NewTopic borrowTopic() {
-        return TopicBuilder.name("library.borrow.v1").build();
+        return TopicBuilder.name(EventType.BORROW_CREATED.getTopic()).partitions(partitions).build();
     }
 
     @Bean
     public NewTopic returnTopic() {
-        return TopicBuilder.name("library.return.v1").build();
+        return TopicBuilder.name(EventType.RETURN_BORROW_CREATED.getTopic()).partitions(partitions).build();
     }
 
 }
@@ -1,17 +1,26 @@
 package com.example.demo.configuration;
 
+import com.example.demo.cache.CachingJwtDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.config.annotation.web.configurers.oauth2.server.resource.OAuth2ResourceServerConfigurer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * 署名検証は Spring Boot が {@code public-key-location} から作る {@link JwtDecoder} に任せ、その結果を {@link CachingJwtDecoder} でキャッシュします。
+     */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        http.csrf().disable().authorizeHttpRequests(auth -> auth.antMatchers("/api/membercard/**").authenticated()).httpBasic().disable().formLogin().disable().oauth2ResourceServer(OAuth2ResourceServerConfigurer::jwt);
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder, MeterRegistry meterRegistry,
+                                                   @Value("${borrow.jwt-cache.maximum-size:10000}") long maximumSize,
+                                                   @Value("${borrow.jwt-cache.max-ttl-seconds:300}") long maxTtlSeconds) throws Exception {
+        JwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder, meterRegistry, maximumSize, maxTtlSeconds);
+        http.csrf().disable().authorizeHttpRequests(auth -> auth.antMatchers("/api/membercard/**").authenticated()).httpBasic().disable().formLogin().disable().oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.decoder(cachingJwtDecoder)));
         return http.build();
     }
 }
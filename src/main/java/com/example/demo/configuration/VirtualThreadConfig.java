@@ -0,0 +1,25 @@
+package com.example.demo.configuration;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * {@code borrow.threads.mode=virtual} のとき、Tomcat のリクエスト処理をリクエストごとの仮想スレッドで実行します。
+ * {@link com.example.demo.service.LoanService} の JDBC や Kafka プロデューサーの待ちもリクエストのスレッドで行われるため、
+ * 待っている間はキャリアスレッドを手放し、同時に処理できるリクエスト数が Tomcat のスレッド数 (server.tomcat.threads.max) に縛られません。
+ * 同時に DB を使えるリクエスト数は引き続きコネクションプールの大きさ (spring.datasource.hikari.maximum-pool-size) で決まります。
+ */
+@Configuration
+@ConditionalOnProperty(name = "borrow.threads.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtual-", 0).factory()));
+    }
+}
@@ -1,10 +1,20 @@
 package com.example.demo.controller;
 
+import com.example.demo.cache.IdempotentRequestCache;
 import com.example.demo.dto.BookPayload;
 import com.example.demo.dto.BorrowCreatedSummaryDTO;
+import com.example.demo.dto.BulkBorrowPayload;
+import com.example.demo.dto.BulkBorrowSummaryDTO;
+import com.example.demo.dto.BulkReturnPayload;
+import com.example.demo.dto.BulkReturnSummaryDTO;
+import com.example.demo.dto.LoanHistoryPageDTO;
+import com.example.demo.dto.MemberBorrowRequest;
 import com.example.demo.dto.ReturnBorrowCreatedSummaryDTO;
+import com.example.demo.service.BulkLoanService;
+import com.example.demo.service.LoanHistoryService;
 import com.example.demo.service.LoanService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +25,9 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Validated
@@ -22,27 +35,104 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BorrowController {
 
+    /**
+     * 一括貸出・一括返却はキオスクや職員の端末から呼ばれるため、会員本人ではなくこのスコープを持つトークンに限ります。
+     */
+    public static final String BULK_BORROW_SCOPE = "borrow:bulk";
+
     private final LoanService loanService;
 
+    private final BulkLoanService bulkLoanService;
+
+    private final IdempotentRequestCache idempotentRequestCache;
+
+    private final LoanHistoryService loanHistoryService;
+
+    @Value("${borrow.bulk.max-members:100}")
+    private int maxBulkMembers;
+
+    @Value("${borrow.bulk.max-returns:500}")
+    private int maxBulkReturns;
+
+    @Value("${borrow.history.max-limit:100}")
+    private int maxHistoryLimit;
+
     @PreAuthorize("isAuthenticated()")
     @PostMapping(path = "/books", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<BorrowCreatedSummaryDTO> postBorrowBooks(@RequestBody BookPayload booksArrayJson, @AuthenticationPrincipal Jwt jwt, @RequestHeader("X-User-UUID") UUID memberCardUUID) {
+    public ResponseEntity<BorrowCreatedSummaryDTO> postBorrowBooks(@RequestBody BookPayload booksArrayJson, @AuthenticationPrincipal Jwt jwt, @RequestHeader("X-User-UUID") UUID memberCardUUID,
+                                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         String jwtMemberCard = jwt.getClaimAsString("member_card_uuid");
         if (!jwtMemberCard.equals(memberCardUUID.toString())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "memberCard UUID mismatch");
         }
-        BorrowCreatedSummaryDTO result = loanService.borrowBooks(memberCardUUID, booksArrayJson);
+        BorrowCreatedSummaryDTO result = idempotentRequestCache.execute(memberCardUUID, idempotencyKey, List.of("books", booksArrayJson), () -> loanService.borrowBooks(memberCardUUID, booksArrayJson));
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping(path = "/books/bulk", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkBorrowSummaryDTO> postBulkBorrowBooks(@RequestBody BulkBorrowPayload bulkBorrowPayload, @AuthenticationPrincipal Jwt jwt) {
+        requireBulkScope(jwt);
+        if (bulkBorrowPayload.data() == null || bulkBorrowPayload.data().isEmpty() || bulkBorrowPayload.data().size() > maxBulkMembers) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bulk borrow must contain 1 to " + maxBulkMembers + " members");
+        }
+        requireValidBulkEntries(bulkBorrowPayload.data());
+        BulkBorrowSummaryDTO result = bulkLoanService.borrowBooks(bulkBorrowPayload);
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @PostMapping(path = "/return/bulk", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkReturnSummaryDTO> postBulkReturnBooks(@RequestBody BulkReturnPayload bulkReturnPayload, @AuthenticationPrincipal Jwt jwt) {
+        requireBulkScope(jwt);
+        if (bulkReturnPayload.borrowUuids() == null || bulkReturnPayload.borrowUuids().isEmpty() || bulkReturnPayload.borrowUuids().size() > maxBulkReturns) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bulk return must contain 1 to " + maxBulkReturns + " loans");
+        }
+        BulkReturnSummaryDTO result = bulkLoanService.returnBorrowBooks(bulkReturnPayload);
         return ResponseEntity.status(HttpStatus.OK).body(result);
     }
 
     @PreAuthorize("isAuthenticated()")
     @PostMapping(path = "/{borrowUUID}/return", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> returnBorrowBooks(@RequestHeader("X-User-UUID") UUID memberCardUUID, @PathVariable UUID borrowUUID, @RequestBody BookPayload booksArrayJson, @AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<?> returnBorrowBooks(@RequestHeader("X-User-UUID") UUID memberCardUUID, @PathVariable UUID borrowUUID, @RequestBody BookPayload booksArrayJson, @AuthenticationPrincipal Jwt jwt,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        String jwtMemberCard = jwt.getClaimAsString("member_card_uuid");
+        if (!jwtMemberCard.equals(memberCardUUID.toString())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "memberCard UUID mismatch");
+        }
+        ReturnBorrowCreatedSummaryDTO result = idempotentRequestCache.execute(memberCardUUID, idempotencyKey, List.of("return", borrowUUID, booksArrayJson), () -> loanService.returnBorrowBooks(memberCardUUID, borrowUUID, booksArrayJson));
+        return ResponseEntity.status(HttpStatus.OK).body(result);
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping(path = "/loans", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<LoanHistoryPageDTO> getLoanHistory(@RequestHeader("X-User-UUID") UUID memberCardUUID, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit, @AuthenticationPrincipal Jwt jwt) {
         String jwtMemberCard = jwt.getClaimAsString("member_card_uuid");
         if (!jwtMemberCard.equals(memberCardUUID.toString())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "memberCard UUID mismatch");
         }
-        ReturnBorrowCreatedSummaryDTO result = loanService.returnBorrowBooks(memberCardUUID, borrowUUID, booksArrayJson);
+        if (limit < 1 || limit > maxHistoryLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be 1 to " + maxHistoryLimit);
+        }
+        LoanHistoryPageDTO result = loanHistoryService.getLoanHistory(memberCardUUID, cursor, limit);
         return ResponseEntity.status(HttpStatus.OK).body(result);
     }
+
+    /**
+     * 一括貸出の会員ごとのリクエストに会員カードと一冊以上の本があることを確かめます。欠けたリクエストは会員ごとに断らず、一括貸出全体を 400 で断ります。
+     */
+    private static void requireValidBulkEntries(List<MemberBorrowRequest> requests) {
+        for (MemberBorrowRequest request : requests) {
+            if (request == null || request.memberCardUuid() == null || request.books() == null || request.books().isEmpty() || request.books().stream().anyMatch(Objects::isNull)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "each bulk borrow entry must have a member card uuid and at least one book");
+            }
+        }
+    }
+
+    private static void requireBulkScope(Jwt jwt) {
+        String scope = jwt.getClaimAsString("scope");
+        if (scope == null || !Arrays.asList(scope.split(" ")).contains(BULK_BORROW_SCOPE)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "bulk borrow scope required");
+        }
+    }
 }
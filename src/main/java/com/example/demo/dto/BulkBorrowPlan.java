@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 一括貸出のチェックを終えた後の内容です。
+ * borrows には貸出できる会員の分だけが入り、results にはリクエストの順で全会員の結果が入ります。
+ */
+public record BulkBorrowPlan(
+        List<PlannedBorrow> borrows,
+
+        List<BulkBorrowResultDTO> results
+) {
+
+    public List<Borrow> headers() {
+        return borrows.stream().map(PlannedBorrow::header).toList();
+    }
+
+    public List<BorrowItem> items() {
+        return borrows.stream().flatMap(borrow -> borrow.items().stream()).toList();
+    }
+
+    public List<UUID> memberCardUuids() {
+        return borrows.stream().map(borrow -> borrow.aggregate().memberCardUuid()).toList();
+    }
+
+    public record PlannedBorrow(BorrowAggregate aggregate, Borrow header, List<BorrowItem> items) {
+    }
+}
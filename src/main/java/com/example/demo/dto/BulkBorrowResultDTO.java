@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import java.util.UUID;
+
+/**
+ * 一括貸出での会員一人分の結果です。貸出できた場合は borrow に、断られた場合は reason に内容が入ります。
+ */
+public record BulkBorrowResultDTO(
+        UUID memberCardUuid,
+
+        BulkBorrowStatus status,
+
+        String reason,
+
+        BorrowCreatedSummaryDTO borrow
+) {
+
+    public static BulkBorrowResultDTO borrowed(BorrowCreatedSummaryDTO borrow) {
+        return new BulkBorrowResultDTO(borrow.memberCardUuid(), BulkBorrowStatus.BORROWED, null, borrow);
+    }
+
+    public static BulkBorrowResultDTO rejected(UUID memberCardUuid, String reason) {
+        return new BulkBorrowResultDTO(memberCardUuid, BulkBorrowStatus.REJECTED, reason, null);
+    }
+}
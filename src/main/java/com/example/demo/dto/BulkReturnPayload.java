@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BulkReturnPayload(
+        List<UUID> borrowUuids
+) {
+}
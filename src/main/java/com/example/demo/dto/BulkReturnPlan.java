@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.BorrowItem;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 一括返却で返却できる貸出と、リクエストの順での貸出ごとの結果です。
+ */
+public record BulkReturnPlan(
+        List<PlannedReturn> returns,
+
+        List<BulkReturnResultDTO> results
+) {
+
+    public List<UUID> memberCardUuids() {
+        return returns.stream().map(planned -> planned.aggregate().memberCardUuid()).distinct().toList();
+    }
+
+    public List<BorrowItem> items() {
+        return returns.stream().flatMap(planned -> planned.items().stream()).toList();
+    }
+
+    public record PlannedReturn(ReturnBorrowAggregate aggregate, List<BorrowItem> items) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import java.util.UUID;
+
+/**
+ * 一括返却での貸出一件分の結果です。返却できた場合は returned に、できなかった場合は reason に内容が入ります。
+ */
+public record BulkReturnResultDTO(
+        UUID borrowUuid,
+
+        BulkReturnStatus status,
+
+        String reason,
+
+        ReturnBorrowCreatedSummaryDTO returned
+) {
+
+    public static BulkReturnResultDTO returned(ReturnBorrowCreatedSummaryDTO returned) {
+        return new BulkReturnResultDTO(returned.borrowUuid(), BulkReturnStatus.RETURNED, null, returned);
+    }
+
+    public static BulkReturnResultDTO notFound(UUID borrowUuid, String reason) {
+        return new BulkReturnResultDTO(borrowUuid, BulkReturnStatus.NOT_FOUND, reason, null);
+    }
+}
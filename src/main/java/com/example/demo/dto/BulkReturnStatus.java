@@ -0,0 +1,6 @@
+package com.example.demo.dto;
+
+public enum BulkReturnStatus {
+    RETURNED,
+    NOT_FOUND
+}
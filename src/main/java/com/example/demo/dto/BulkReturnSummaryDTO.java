@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public record BulkReturnSummaryDTO(
+        List<BulkReturnResultDTO> results
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 貸出履歴の次のページの開始位置です。前のページの最後の行の貸出の {@code (borrow_start_date, id)} と明細の id を持ちます。
+ */
+public record LoanHistoryCursor(
+        LocalDate borrowStartDate,
+
+        int borrowId,
+
+        int id
+) {
+}
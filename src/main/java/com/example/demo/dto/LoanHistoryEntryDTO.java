@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record LoanHistoryEntryDTO(
+        UUID borrow_uuid,
+
+        String borrowStartDate,
+
+        String borrowEndDate,
+
+        String borrowReturnDate,
+
+        List<LoanItemDetails> books
+) {
+}
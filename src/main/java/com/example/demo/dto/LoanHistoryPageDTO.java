@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor 次のページを取得するための {@code cursor}。最後のページでは null
+ */
+public record LoanHistoryPageDTO(
+        List<LoanHistoryEntryDTO> loans,
+
+        String nextCursor
+) {
+}
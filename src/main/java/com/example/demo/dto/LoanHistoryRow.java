@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * 貸出履歴の一行分のプロジェクションです。エンティティを読み込まずに、履歴の表示に必要な列だけを取得します。
+ */
+public interface LoanHistoryRow {
+
+    int getId();
+
+    int getBorrowId();
+
+    UUID getBorrowUuid();
+
+    UUID getBookUuid();
+
+    UUID getChapterUuid();
+
+    LocalDate getBorrowStartDate();
+
+    LocalDate getBorrowEndDate();
+
+    LocalDate getBorrowReturnDate();
+}
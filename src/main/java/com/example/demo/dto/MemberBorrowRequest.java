@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record MemberBorrowRequest(
+        UUID memberCardUuid,
+
+        List<LoanItemDetails> books
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 貸出前のチェックに必要な会員の貸出状況です。
+ */
+public interface MemberEligibility {
+
+    boolean getHasActiveLoan();
+
+    boolean getHasHistory();
+
+    LocalDate getLastBorrowDate();
+}
@@ -0,0 +1,50 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.MemberSummary;
+
+import java.time.LocalDate;
+
+/**
+ * キャッシュに保持する会員の貸出状況です。
+ * エンティティは永続化コンテキストに紐づくため、値をコピーして不変のレコードとして保持します。
+ */
+public record MemberLoanState(
+        boolean hasActiveLoan,
+
+        boolean hasHistory,
+
+        LocalDate lastBorrowDate
+) implements MemberEligibility {
+
+    /**
+     * 貸出履歴のない会員の状態です。
+     */
+    public static final MemberLoanState NONE = new MemberLoanState(false, false, null);
+
+    public static MemberLoanState from(MemberSummary summary) {
+        return new MemberLoanState(summary.getActiveLoanCount() > 0, true, summary.getLastBorrowDate());
+    }
+
+    public static MemberLoanState borrowed(LocalDate borrowDate) {
+        return new MemberLoanState(true, true, borrowDate);
+    }
+
+    public MemberLoanState returned() {
+        return new MemberLoanState(false, hasHistory, lastBorrowDate);
+    }
+
+    @Override
+    public boolean getHasActiveLoan() {
+        return hasActiveLoan;
+    }
+
+    @Override
+    public boolean getHasHistory() {
+        return hasHistory;
+    }
+
+    @Override
+    public LocalDate getLastBorrowDate() {
+        return lastBorrowDate;
+    }
+}
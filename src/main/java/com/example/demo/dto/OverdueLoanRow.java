@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * 延滞金の計上対象の貸出一件分のプロジェクションです。
+ * {@code accruedThrough} は前回計上した日で、初めて計上する貸出では null です。
+ */
+public interface OverdueLoanRow {
+
+    UUID getBorrowUuid();
+
+    UUID getMemberCardUuid();
+
+    LocalDate getBorrowEndDate();
+
+    LocalDate getAccruedThrough();
+}
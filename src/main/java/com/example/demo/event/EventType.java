@@ -0,0 +1,43 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.BorrowCreatedEvent;
+import com.example.demo.dto.ReturnCreatedEvent;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+@Getter
+@RequiredArgsConstructor
+public enum EventType {
+
+    BORROW_CREATED("library.borrow.v1", BorrowCreatedEvent.class, (byte) 1),
+
+    RETURN_BORROW_CREATED("library.return.v1", ReturnCreatedEvent.class, (byte) 2);
+
+    private final String topic;
+
+    private final Class<?> payloadType;
+
+    /**
+     * バイナリエンコーディングで型を示す ID です。一度割り当てた値は変更・再利用しません。
+     */
+    private final byte typeId;
+
+    public static EventType fromTypeId(byte typeId) {
+        return find(eventType -> eventType.typeId == typeId, typeId);
+    }
+
+    public static EventType fromTopic(String topic) {
+        return find(eventType -> eventType.topic.equals(topic), topic);
+    }
+
+    public static EventType fromPayloadType(Class<?> payloadType) {
+        return find(eventType -> eventType.payloadType.equals(payloadType), payloadType.getName());
+    }
+
+    private static EventType find(Predicate<EventType> matcher, Object key) {
+        return Arrays.stream(values()).filter(matcher).findFirst().orElseThrow(() -> new IllegalArgumentException("Unknown event type " + key));
+    }
+}
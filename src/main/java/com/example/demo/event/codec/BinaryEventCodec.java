@@ -0,0 +1,119 @@
+package com.example.demo.event.codec;
+
+import com.example.demo.dto.*;
+import com.example.demo.event.EventType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * 貸出・返却イベントのバージョン付きバイナリエンコーディングです。
+ * <p>
+ * 本文は先頭のバージョン番号に続けて、レコードの宣言順にフィールドを並べます。スキーマ変更のルールは次のとおりです。
+ * <ul>
+ *     <li>フィールドは末尾にのみ追加し、追加のたびにバージョンを上げます。既存フィールドの削除・並べ替え・型変更はしません。</li>
+ *     <li>デコーダーは知っているフィールドだけを読み、残りのバイトは無視します。古いコンシューマーも新しいイベントを読めます。</li>
+ *     <li>互換性のない変更は新しい型 ID (別の {@link EventType}) として追加します。</li>
+ * </ul>
+ * v1 では全フィールドが必須で、null は書き込めません。
+ */
+public final class BinaryEventCodec {
+
+    public static final int CURRENT_VERSION = 1;
+
+    private BinaryEventCodec() {
+    }
+
+    public static byte[] encode(Object event) {
+        EventWriter writer = new EventWriter();
+        writer.writeVarLong(CURRENT_VERSION);
+        if (event instanceof BorrowCreatedEvent borrow) {
+            writeBorrowCreated(writer, borrow);
+        } else if (event instanceof ReturnCreatedEvent returned) {
+            writeReturnCreated(writer, returned);
+        } else {
+            throw new IllegalArgumentException("Unsupported event " + event.getClass().getName());
+        }
+        return writer.toByteArray();
+    }
+
+    public static Object decode(EventType eventType, byte[] bytes) {
+        EventReader reader = new EventReader(bytes);
+        int version = reader.readVarInt();
+        if (version < 1) {
+            throw new IllegalArgumentException("Unsupported encoding version " + version);
+        }
+        return switch (eventType) {
+            case BORROW_CREATED -> readBorrowCreated(reader);
+            case RETURN_BORROW_CREATED -> readReturnCreated(reader);
+        };
+    }
+
+    private static void writeBorrowCreated(EventWriter writer, BorrowCreatedEvent event) {
+        writeMetadata(writer, event.metadata());
+        BorrowCreatedEventData data = event.data();
+        writer.writeUuid(data.member_card_uuid());
+        writer.writeUuid(data.borrow_uuid());
+        writer.writeDate(data.borrow_start_date());
+        writer.writeDate(data.borrow_end_date());
+        writer.writeVarLong(data.borrowed_items().size());
+        data.borrowed_items().forEach(item -> writeBook(writer, item.book_uuid(), item.chapter_uuid()));
+    }
+
+    private static void writeReturnCreated(EventWriter writer, ReturnCreatedEvent event) {
+        writeMetadata(writer, event.metadata());
+        ReturnCreatedEventData data = event.data();
+        writer.writeUuid(data.member_card_uuid());
+        writer.writeUuid(data.borrow_uuid());
+        writer.writeDate(data.borrow_start_date());
+        writer.writeDate(data.borrow_end_date());
+        writer.writeDate(data.borrow_return_date());
+        writer.writeBoolean(data.return_lately());
+        writer.writeSignedVarLong(data.days_late());
+        writer.writeDecimal(data.late_fee());
+        writer.writeVarLong(data.returned_items().size());
+        data.returned_items().forEach(item -> writeBook(writer, item.book_uuid(), item.chapter_uuid()));
+    }
+
+    private static void writeMetadata(EventWriter writer, Metadata metadata) {
+        writer.writeDateTime(metadata.timestamp());
+        writer.writeString(metadata.source_service());
+        writer.writeString(metadata.event_type());
+        writer.writeUuid(metadata.event_uuid());
+    }
+
+    private static void writeBook(EventWriter writer, UUID bookUuid, UUID chapterUuid) {
+        writer.writeUuid(bookUuid);
+        writer.writeUuid(chapterUuid);
+    }
+
+    private static BorrowCreatedEvent readBorrowCreated(EventReader reader) {
+        Metadata metadata = readMetadata(reader);
+        BorrowCreatedEventData data = new BorrowCreatedEventData(reader.readUuid(), reader.readUuid(), reader.readDate(), reader.readDate(),
+                readBooks(reader, r -> new BookChapterReference(r.readUuid(), r.readUuid())));
+        return new BorrowCreatedEvent(metadata, data);
+    }
+
+    private static ReturnCreatedEvent readReturnCreated(EventReader reader) {
+        Metadata metadata = readMetadata(reader);
+        ReturnCreatedEventData data = new ReturnCreatedEventData(reader.readUuid(), reader.readUuid(), reader.readDate(), reader.readDate(), reader.readDate(),
+                reader.readBoolean(), reader.readSignedVarLong(), reader.readDecimal(),
+                readBooks(reader, r -> new BookToDecrement(r.readUuid(), r.readUuid())));
+        return new ReturnCreatedEvent(metadata, data);
+    }
+
+    private static Metadata readMetadata(EventReader reader) {
+        return new Metadata(reader.readDateTime(), reader.readString(), reader.readString(), reader.readUuid());
+    }
+
+    private static <T> List<T> readBooks(EventReader reader, Function<EventReader, T> readBook) {
+        int count = reader.readVarInt();
+        List<T> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(readBook.apply(reader));
+        }
+        return books;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.event.codec;
+
+import com.example.demo.event.EventType;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * {@link BinaryEventSerializer} で書かれたイベントを読み込む、コンシューマー向けのデシリアライザーです。
+ * 型は {@link BinaryEventSerializer#TYPE_ID_HEADER} ヘッダーで判断し、ヘッダーがなければトピック名で判断します。
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return data == null ? null : BinaryEventCodec.decode(EventType.fromTopic(topic), data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        Header typeId = headers.lastHeader(BinaryEventSerializer.TYPE_ID_HEADER);
+        if (data == null || typeId == null) {
+            return deserialize(topic, data);
+        }
+        return BinaryEventCodec.decode(EventType.fromTypeId(typeId.value()[0]), data);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.event.codec;
+
+import com.example.demo.event.EventType;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * {@link BinaryEventCodec} で値を書き込み、型を 1 バイトの {@link #TYPE_ID_HEADER} ヘッダーで示す Kafka のシリアライザーです。
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    public static final String TYPE_ID_HEADER = "event_type_id";
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : BinaryEventCodec.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        headers.remove(TYPE_ID_HEADER);
+        headers.add(TYPE_ID_HEADER, new byte[]{EventType.fromPayloadType(data.getClass()).getTypeId()});
+        return BinaryEventCodec.encode(data);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.event.codec;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * {@link EventWriter} が書き込んだ基本型を読み込みます。
+ */
+final class EventReader {
+
+    private final ByteBuffer in;
+
+    EventReader(byte[] bytes) {
+        this.in = ByteBuffer.wrap(bytes);
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    int readVarInt() {
+        return Math.toIntExact(readVarLong());
+    }
+
+    boolean readBoolean() {
+        return in.get() != 0;
+    }
+
+    UUID readUuid() {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    String readString() {
+        byte[] bytes = new byte[readVarInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    String readDate() {
+        return LocalDate.ofEpochDay(readSignedVarLong()).toString();
+    }
+
+    String readDateTime() {
+        LocalDate date = LocalDate.ofEpochDay(readSignedVarLong());
+        return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong())).toString();
+    }
+
+    BigDecimal readDecimal() {
+        int scale = Math.toIntExact(readSignedVarLong());
+        return BigDecimal.valueOf(readSignedVarLong(), scale);
+    }
+}
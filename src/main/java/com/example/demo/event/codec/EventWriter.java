@@ -0,0 +1,98 @@
+package com.example.demo.event.codec;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * バイナリエンコーディングの基本型を書き込みます。
+ * 整数は可変長 (符号付きは ZigZag)、UUID は 16 バイト固定、日付はエポック日、文字列は長さ付き UTF-8 です。
+ * イベントの日付は ISO 形式 (yyyy-MM-dd、yyyy-MM-ddTHH:mm[:ss[.fraction]]) の文字列のため、フォーマッターを通さずに桁を直接読みます。
+ */
+final class EventWriter {
+
+    private static final long[] NANOS_PER_FRACTION_DIGIT = {100_000_000L, 10_000_000L, 1_000_000L, 100_000L, 10_000L, 1_000L, 100L, 10L, 1L};
+
+    private byte[] buffer = new byte[256];
+
+    private int position;
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeBoolean(boolean value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) (value ? 1 : 0);
+    }
+
+    void writeUuid(UUID value) {
+        ensureCapacity(16);
+        writeFixedLong(value.getMostSignificantBits());
+        writeFixedLong(value.getLeastSignificantBits());
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    void writeDate(String isoDate) {
+        writeSignedVarLong(parseDate(isoDate).toEpochDay());
+    }
+
+    void writeDateTime(String isoDateTime) {
+        writeSignedVarLong(parseDate(isoDateTime).toEpochDay());
+        long nanoOfDay = ((digits(isoDateTime, 11, 13) * 60L) + digits(isoDateTime, 14, 16)) * 60_000_000_000L;
+        if (isoDateTime.length() > 16) {
+            nanoOfDay += digits(isoDateTime, 17, 19) * 1_000_000_000L;
+        }
+        if (isoDateTime.length() > 20) {
+            nanoOfDay += digits(isoDateTime, 20, isoDateTime.length()) * NANOS_PER_FRACTION_DIGIT[isoDateTime.length() - 21];
+        }
+        writeVarLong(nanoOfDay);
+    }
+
+    void writeDecimal(BigDecimal value) {
+        writeSignedVarLong(value.scale());
+        writeSignedVarLong(value.unscaledValue().longValueExact());
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private static LocalDate parseDate(String iso) {
+        return LocalDate.of(digits(iso, 0, 4), digits(iso, 5, 7), digits(iso, 8, 10));
+    }
+
+    private static int digits(String value, int begin, int end) {
+        return Integer.parseInt(value, begin, end, 10);
+    }
+
+    private void writeFixedLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+}
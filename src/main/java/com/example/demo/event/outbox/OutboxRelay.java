@@ -0,0 +1,62 @@
+package com.example.demo.event.outbox;
+
+import com.example.demo.event.publisher.KafkaEventSender;
+import com.example.demo.mapper.OutboxEventMapper;
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * アウトボックスに溜まったイベントを id 順のバッチで Kafka へ配信します。
+ * バッチ内の送信はまとめて発行してから全件の完了を待つため、プロデューサー側でレコードがまとめて送られます。
+ * 一件でも失敗した場合はトランザクションごとロールバックされ、同じバッチが次回の周期で再送されます。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "borrow.events.delivery", havingValue = "outbox", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventMapper outboxEventMapper;
+    private final KafkaEventSender kafkaEventSender;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${borrow.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${borrow.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${borrow.outbox.poll-interval-ms:200}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (Objects.equals(relayed, batchSize));
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture<?>[] sends = batch.stream().map(e -> kafkaEventSender.send(e.getEventType().getTopic(), e.getMessageKey(), e.getEventId(), outboxEventMapper.toEvent(e))).toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(sends).orTimeout(sendTimeoutMs, TimeUnit.MILLISECONDS).join();
+        outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+        log.info("Relayed {} outbox events", batch.size());
+        return batch.size();
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.demo.event.publisher;
 
 import com.example.demo.dto.BorrowAggregate;
+import com.example.demo.dto.BulkReturnPlan;
 import com.example.demo.dto.ReturnBorrowAggregate;
-import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 
 import java.util.List;
 
 public interface BorrowEventPublisher {
 
-    void publishBorrowCreated(BorrowAggregate aggregate, List<Borrow> entities);
+    void publishBorrowCreated(BorrowAggregate aggregate, List<BorrowItem> items);
 
-    void publishReturnBorrowCreated(ReturnBorrowAggregate aggregate, List<Borrow> entities);
+    void publishReturnBorrowCreated(ReturnBorrowAggregate aggregate, List<BorrowItem> items);
+
+    /**
+     * 一括返却の返却イベントをまとめて発行します。
+     */
+    void publishReturnBorrowsCreated(List<BulkReturnPlan.PlannedReturn> returns);
 }
\ No newline at end of file
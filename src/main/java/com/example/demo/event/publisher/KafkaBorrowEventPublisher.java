@@ -2,14 +2,16 @@ package com.example.demo.event.publisher;
 
 import com.example.demo.dto.BorrowAggregate;
 import com.example.demo.dto.BorrowCreatedEvent;
+import com.example.demo.dto.BulkReturnPlan;
 import com.example.demo.dto.ReturnBorrowAggregate;
 import com.example.demo.dto.ReturnCreatedEvent;
+import com.example.demo.event.EventType;
 import com.example.demo.factory.BorrowEventFactory;
 import com.example.demo.factory.ReturnBorrowEventFactory;
-import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,27 +20,34 @@ import java.util.UUID;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnProperty(name = "borrow.events.delivery", havingValue = "direct")
 public class KafkaBorrowEventPublisher implements BorrowEventPublisher {
 
-    private final KafkaTemplate<UUID, Object> kafkaTemplate;
+    private final KafkaEventSender kafkaEventSender;
     private final BorrowEventFactory borrowEventFactory;
     private final ReturnBorrowEventFactory returnBorrowEventFactory;
 
     @Override
-    public void publishBorrowCreated(BorrowAggregate aggregate, List<Borrow> entities) {
+    public void publishBorrowCreated(BorrowAggregate aggregate, List<BorrowItem> items) {
         UUID eventId = UUID.randomUUID();
         log.info("Publishing BORROW_CREATED event {}", eventId);
-        BorrowCreatedEvent event = borrowEventFactory.create(aggregate, entities, eventId);
-        kafkaTemplate.send("library.borrow.v1", eventId, event);
-        log.info("Published BORROW_CREATED event {}", eventId);
+        BorrowCreatedEvent event = borrowEventFactory.create(aggregate, items, eventId);
+        kafkaEventSender.send(EventType.BORROW_CREATED.getTopic(), aggregate.memberCardUuid(), eventId, event).thenAccept(result -> log.info("Published BORROW_CREATED event {}", eventId));
     }
 
     @Override
-    public void publishReturnBorrowCreated(ReturnBorrowAggregate aggregate, List<Borrow> entities) {
+    public void publishReturnBorrowCreated(ReturnBorrowAggregate aggregate, List<BorrowItem> items) {
         UUID eventId = UUID.randomUUID();
         log.info("Publishing RETURNED_BORROW_CREATED event {}", eventId);
-        ReturnCreatedEvent event = returnBorrowEventFactory.create(aggregate, entities, eventId);
-        kafkaTemplate.send("library.return.v1", eventId, event);
-        log.info("Published RETURNED_BORROW_CREATED event {}", eventId);
+        ReturnCreatedEvent event = returnBorrowEventFactory.create(aggregate, items, eventId);
+        kafkaEventSender.send(EventType.RETURN_BORROW_CREATED.getTopic(), aggregate.memberCardUuid(), eventId, event).thenAccept(result -> log.info("Published RETURNED_BORROW_CREATED event {}", eventId));
+    }
+
+    /**
+     * 送信は受領を待たずに続けて発行するため、プロデューサー側でまとめて送られます。
+     */
+    @Override
+    public void publishReturnBorrowsCreated(List<BulkReturnPlan.PlannedReturn> returns) {
+        returns.forEach(planned -> publishReturnBorrowCreated(planned.aggregate(), planned.items()));
     }
 }
\ No newline at end of file
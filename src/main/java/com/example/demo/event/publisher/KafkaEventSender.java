@@ -0,0 +1,93 @@
+package com.example.demo.event.publisher;
+
+import com.example.demo.exception.EventPublishRejectedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka への送信を呼び出し元のスレッドを待たせずに行い、ブローカーの受領まで追跡します。
+ * 一時的な失敗の再送は冪等プロデューサー（{@code enable.idempotence}）に任せ、{@code delivery.timeout.ms} を過ぎても受領されなければ送信を失敗にします。
+ * アプリケーションから送り直すと、同じキーの後のイベントが先に受領されて会員ごとの順序が崩れるため、送り直しは行いません。
+ * 受領待ちの送信数は上限を超えないように制限し、トピックごとに送信の所要時間・失敗・拒否の件数を Micrometer に記録します。
+ */
+@Component
+@Slf4j
+public class KafkaEventSender {
+
+    /**
+     * レコードのキーは会員証 UUID のため、イベントの一意な ID はこのヘッダーで渡します。
+     */
+    public static final String EVENT_ID_HEADER = "event_uuid";
+
+    private final KafkaTemplate<UUID, Object> kafkaTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore inFlight;
+
+    private final long inFlightWaitMs;
+
+    public KafkaEventSender(KafkaTemplate<UUID, Object> kafkaTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${borrow.events.max-in-flight:1000}") int maxInFlight,
+                            @Value("${borrow.events.in-flight-wait-ms:100}") long inFlightWaitMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.inFlightWaitMs = inFlightWaitMs;
+        Gauge.builder("borrow.events.in.flight", inFlight, permits -> maxInFlight - permits.availablePermits()).register(meterRegistry);
+    }
+
+    /**
+     * 受領待ちの枠を確保してから送信します。枠が空かない場合は {@link EventPublishRejectedException} を投げます。
+     *
+     * @return ブローカーが受領したとき、またはプロデューサーが送信を諦めたときに完了する future
+     */
+    public CompletableFuture<SendResult<UUID, Object>> send(String topic, UUID key, UUID eventId, Object event) {
+        acquire(topic);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return deliver(topic, key, eventId, event).whenComplete((result, ex) -> {
+            inFlight.release();
+            sample.stop(meterRegistry.timer("borrow.events.send", "topic", topic, "outcome", ex == null ? "success" : "failure"));
+            if (ex != null) {
+                meterRegistry.counter("borrow.events.send.failures", "topic", topic).increment();
+                log.error("Failed to deliver event {} to {}", eventId, topic, ex);
+            }
+        });
+    }
+
+    private CompletableFuture<SendResult<UUID, Object>> deliver(String topic, UUID key, UUID eventId, Object event) {
+        try {
+            ProducerRecord<UUID, Object> record = new ProducerRecord<>(topic, key, event);
+            record.headers().add(EVENT_ID_HEADER, eventId.toString().getBytes(StandardCharsets.UTF_8));
+            return kafkaTemplate.send(record).completable();
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private void acquire(String topic) {
+        try {
+            if (inFlight.tryAcquire(inFlightWaitMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        meterRegistry.counter("borrow.events.send.rejected", "topic", topic).increment();
+        throw new EventPublishRejectedException("イベントの送信待ちが上限に達しています。");
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.event.publisher;
+
+import com.example.demo.dto.BorrowAggregate;
+import com.example.demo.dto.BulkReturnPlan;
+import com.example.demo.dto.ReturnBorrowAggregate;
+import com.example.demo.event.EventType;
+import com.example.demo.factory.BorrowEventFactory;
+import com.example.demo.factory.ReturnBorrowEventFactory;
+import com.example.demo.mapper.OutboxEventMapper;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * イベントを Kafka へ直接送らず、呼び出し元のトランザクション内でアウトボックスに書き込みます。
+ * ロールバックされた貸出・返却のイベントは配信されず、リクエストの応答時間はブローカーに依存しません。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "borrow.events.delivery", havingValue = "outbox", matchIfMissing = true)
+public class OutboxBorrowEventPublisher implements BorrowEventPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventMapper outboxEventMapper;
+    private final BorrowEventFactory borrowEventFactory;
+    private final ReturnBorrowEventFactory returnBorrowEventFactory;
+
+    @Override
+    public void publishBorrowCreated(BorrowAggregate aggregate, List<BorrowItem> items) {
+        UUID eventId = UUID.randomUUID();
+        enqueue(EventType.BORROW_CREATED, eventId, aggregate.memberCardUuid(), borrowEventFactory.create(aggregate, items, eventId));
+    }
+
+    @Override
+    public void publishReturnBorrowCreated(ReturnBorrowAggregate aggregate, List<BorrowItem> items) {
+        UUID eventId = UUID.randomUUID();
+        enqueue(EventType.RETURN_BORROW_CREATED, eventId, aggregate.memberCardUuid(), returnBorrowEventFactory.create(aggregate, items, eventId));
+    }
+
+    /**
+     * アウトボックスの行は一回の saveAll で JDBC バッチとして書き込みます。
+     */
+    @Override
+    public void publishReturnBorrowsCreated(List<BulkReturnPlan.PlannedReturn> returns) {
+        List<OutboxEvent> outboxEvents = returns.stream().map(planned -> {
+            UUID eventId = UUID.randomUUID();
+            return outboxEventMapper.toOutboxEvent(EventType.RETURN_BORROW_CREATED, eventId, planned.aggregate().memberCardUuid(), returnBorrowEventFactory.create(planned.aggregate(), planned.items(), eventId));
+        }).toList();
+        outboxEventRepository.saveAll(outboxEvents);
+        log.info("Queued {} {} events in outbox", outboxEvents.size(), EventType.RETURN_BORROW_CREATED);
+    }
+
+    private void enqueue(EventType eventType, UUID eventId, UUID messageKey, Object event) {
+        outboxEventRepository.save(outboxEventMapper.toOutboxEvent(eventType, eventId, messageKey, event));
+        log.info("Queued {} event {} in outbox", eventType, eventId);
+    }
+}
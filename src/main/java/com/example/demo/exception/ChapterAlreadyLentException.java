@@ -0,0 +1,7 @@
+package com.example.demo.exception;
+
+public class ChapterAlreadyLentException extends RuntimeException {
+    public ChapterAlreadyLentException(String errorMessage) {
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.exception;
+
+public class EventPublishRejectedException extends RuntimeException {
+    public EventPublishRejectedException(String errorMessage) {
+        super(errorMessage);
+    }
+}
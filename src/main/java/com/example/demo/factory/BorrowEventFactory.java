@@ -2,7 +2,7 @@ package com.example.demo.factory;
 
 import com.example.demo.dto.*;
 import com.example.demo.mapper.BorrowMapper;
-import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -16,8 +16,8 @@ public class BorrowEventFactory {
 
     private final BorrowMapper borrowMapper;
 
-    public BorrowCreatedEvent create(BorrowAggregate aggregate, List<Borrow> entities, UUID eventId) {
-        List<BookChapterReference> refs = entities.stream().map(e -> new BookChapterReference(e.getBookUuid(), e.getChapterUuid())).toList();
+    public BorrowCreatedEvent create(BorrowAggregate aggregate, List<BorrowItem> items, UUID eventId) {
+        List<BookChapterReference> refs = items.stream().map(e -> new BookChapterReference(e.getBookUuid(), e.getChapterUuid())).toList();
         BorrowCreatedEventData data = borrowMapper.toEventData(aggregate.memberCardUuid(), aggregate.borrowUuid(), aggregate.startDate(), aggregate.endDate(), refs);
         Metadata metadata = new Metadata(LocalDateTime.now().toString(), "library-app-borrow-v2", "BORROW_CREATED", eventId);
         return new BorrowCreatedEvent(metadata, data);
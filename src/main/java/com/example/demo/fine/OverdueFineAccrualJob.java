@@ -0,0 +1,119 @@
+package com.example.demo.fine;
+
+import com.example.demo.dto.OverdueLoanRow;
+import com.example.demo.policy.ReturnBorrowPolicy;
+import com.example.demo.repository.BorrowRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 未返却で延滞中の貸出の延滞金を毎晩計上し、{@code accrued_fine} に保存します。
+ * 対象の貸出はサーバー側のカーソルで一件ずつ読み込み、前回の計上日（初回は返却予定日）から当日までの増分を
+ * {@code borrow.fines.batch-size} 件ずつ別のトランザクションで加算するため、件数に関わらずメモリ使用量は一定です。
+ * 当日分を計上済みの貸出は読み込まないので、途中で失敗しても再実行で残りだけを処理します。
+ * 加算は前回の計上日が読み込んだ時点と同じ行だけに行うため、複数のインスタンスで同時に実行しても二重に計上されません。
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "borrow.fines.accrual.enabled", havingValue = "true", matchIfMissing = true)
+public class OverdueFineAccrualJob {
+
+    static final String UPSERT_ACCRUED_FINE = "INSERT INTO accrued_fine (borrow_uuid, member_card_uuid, days_late, fine_amount, accrued_through, updated_at) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (borrow_uuid) DO UPDATE SET days_late = accrued_fine.days_late + EXCLUDED.days_late, fine_amount = accrued_fine.fine_amount + EXCLUDED.fine_amount, "
+            + "accrued_through = EXCLUDED.accrued_through, updated_at = EXCLUDED.updated_at WHERE accrued_fine.accrued_through = ?";
+
+    static final String DELETE_RETURNED = "DELETE FROM accrued_fine f WHERE NOT EXISTS (SELECT 1 FROM borrow b WHERE b.borrow_uuid = f.borrow_uuid AND b.borrow_return_date IS NULL)";
+
+    private final BorrowRepository borrowRepository;
+
+    private final ReturnBorrowPolicy returnBorrowPolicy;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readTransaction;
+
+    private final TransactionTemplate batchTransaction;
+
+    private final int batchSize;
+
+    public OverdueFineAccrualJob(BorrowRepository borrowRepository,
+                                 ReturnBorrowPolicy returnBorrowPolicy,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${borrow.fines.batch-size:1000}") int batchSize) {
+        this.borrowRepository = borrowRepository;
+        this.returnBorrowPolicy = returnBorrowPolicy;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${borrow.fines.accrual-cron:0 0 2 * * *}")
+    public void accrue() {
+        accrue(LocalDate.now());
+    }
+
+    /**
+     * {@code today} までの延滞金を計上します。
+     *
+     * @return 処理した貸出の件数
+     */
+    public long accrue(LocalDate today) {
+        int deleted = jdbcTemplate.update(DELETE_RETURNED);
+        LocalDateTime now = LocalDateTime.now();
+        Long accrued = readTransaction.execute(status -> {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            long count = 0;
+            try (Stream<OverdueLoanRow> rows = borrowRepository.streamOverdueLoans(today)) {
+                for (OverdueLoanRow row : (Iterable<OverdueLoanRow>) rows::iterator) {
+                    batch.add(toAccrual(row, today, now));
+                    count += flushIfFull(batch);
+                }
+            }
+            return count + flush(batch);
+        });
+        log.info("Accrued overdue fines through {} for {} loans, removed {} returned loans", today, accrued, deleted);
+        return accrued;
+    }
+
+    private Object[] toAccrual(OverdueLoanRow row, LocalDate today, LocalDateTime now) {
+        LocalDate accruedFrom = row.getAccruedThrough() == null ? row.getBorrowEndDate() : row.getAccruedThrough();
+        long daysLate = returnBorrowPolicy.calculateDaysLate(accruedFrom, today);
+        BigDecimal fine = returnBorrowPolicy.calculateFine(daysLate, ReturnBorrowPolicy.DAILY_FINE_RATE);
+        Date previous = row.getAccruedThrough() == null ? null : Date.valueOf(row.getAccruedThrough());
+        return new Object[]{row.getBorrowUuid(), row.getMemberCardUuid(), daysLate, fine, Date.valueOf(today), Timestamp.valueOf(now), previous};
+    }
+
+    private int flushIfFull(List<Object[]> batch) {
+        return batch.size() < batchSize ? 0 : flush(batch);
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batchTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_ACCRUED_FINE, batch));
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.demo.handler;
 
 import com.example.demo.exception.BorrowNotFoundException;
+import com.example.demo.exception.ChapterAlreadyLentException;
 import com.example.demo.exception.DailyBorrowLimitExceededException;
+import com.example.demo.exception.EventPublishRejectedException;
+import com.example.demo.exception.InvalidCursorException;
 import com.example.demo.exception.UnreturnedBorrowExistsException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +19,11 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 
+    @ExceptionHandler(ChapterAlreadyLentException.class)
+    public ResponseEntity<?> handleChapterAlreadyLent(ChapterAlreadyLentException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
     @ExceptionHandler(DailyBorrowLimitExceededException.class)
     public ResponseEntity<?> handleLimit(DailyBorrowLimitExceededException ex) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
@@ -25,4 +33,14 @@ public class GlobalExceptionHandler {
     public ResponseEntity<?> handleBorrowNotFound(BorrowNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(EventPublishRejectedException.class)
+    public ResponseEntity<?> handleEventPublishRejected(EventPublishRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<?> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.mapper;
 
 import com.example.demo.dto.*;
 import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -15,8 +16,12 @@ public class BorrowMapper {
         return new BorrowCreatedEventData(member_card_uuid, borrowUid, String.valueOf(borrow_start_date), String.valueOf(borrow_end_date), references);
     }
 
-    public List<Borrow> toEntities(BorrowAggregate aggregate) {
-        return aggregate.items().stream().map(item -> Borrow.builder().memberCardUuid(aggregate.memberCardUuid()).borrowUuid(aggregate.borrowUuid()).borrowStartDate(aggregate.startDate()).borrowEndDate(aggregate.endDate()).bookUuid(item.book_uuid()).chapterUuid(item.chapter_uuid()).build()).toList();
+    public Borrow toEntity(BorrowAggregate aggregate) {
+        return Borrow.builder().memberCardUuid(aggregate.memberCardUuid()).borrowUuid(aggregate.borrowUuid()).borrowStartDate(aggregate.startDate()).borrowEndDate(aggregate.endDate()).build();
+    }
+
+    public List<BorrowItem> toItems(BorrowAggregate aggregate) {
+        return aggregate.items().stream().map(item -> BorrowItem.builder().borrowUuid(aggregate.borrowUuid()).borrowStartDate(aggregate.startDate()).bookUuid(item.book_uuid()).chapterUuid(item.chapter_uuid()).build()).toList();
     }
 
     public BorrowCreatedSummaryDTO toSummaryDTO(BorrowAggregate aggregate) {
@@ -0,0 +1,69 @@
+package com.example.demo.mapper;
+
+import com.example.demo.dto.LoanHistoryCursor;
+import com.example.demo.dto.LoanHistoryEntryDTO;
+import com.example.demo.dto.LoanHistoryPageDTO;
+import com.example.demo.dto.LoanHistoryRow;
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.exception.InvalidCursorException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 貸出履歴の行を貸出（{@code borrowUuid}）ごとにまとめてページにします。
+ * 行は {@code limit + 1} 件読み込み、余分な一行で次のページの有無と、最後の貸出が次のページに続くかを判断します。
+ */
+@Component
+public class LoanHistoryMapper {
+
+    public LoanHistoryPageDTO toPage(List<? extends LoanHistoryRow> rows, int limit) {
+        boolean hasNext = rows.size() > limit;
+        List<? extends LoanHistoryRow> page = hasNext ? completeLoans(rows, limit) : rows;
+        List<LoanHistoryEntryDTO> loans = page.stream()
+                .collect(Collectors.groupingBy(LoanHistoryRow::getBorrowUuid, LinkedHashMap::new, Collectors.toList()))
+                .values().stream()
+                .map(LoanHistoryMapper::toEntry)
+                .toList();
+        return new LoanHistoryPageDTO(loans, hasNext ? toCursor(page.getLast()) : null);
+    }
+
+    public LoanHistoryCursor parseCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            return new LoanHistoryCursor(LocalDate.parse(position[0]), Integer.parseInt(position[1]), Integer.parseInt(position[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("cursor is invalid");
+        }
+    }
+
+    /**
+     * ページの最後の貸出が次の行に続く場合は、その貸出を次のページに回します。
+     * ページ全体が一件の貸出で埋まっている場合だけは、途中で区切って返します。
+     */
+    private static List<? extends LoanHistoryRow> completeLoans(List<? extends LoanHistoryRow> rows, int limit) {
+        UUID continuedLoan = rows.get(limit).getBorrowUuid();
+        int end = limit;
+        while (end > 0 && rows.get(end - 1).getBorrowUuid().equals(continuedLoan)) {
+            end--;
+        }
+        return rows.subList(0, end == 0 ? limit : end);
+    }
+
+    private static LoanHistoryEntryDTO toEntry(List<? extends LoanHistoryRow> rows) {
+        LoanHistoryRow first = rows.getFirst();
+        List<LoanItemDetails> books = rows.stream().map(row -> new LoanItemDetails(row.getBookUuid(), row.getChapterUuid())).toList();
+        return new LoanHistoryEntryDTO(first.getBorrowUuid(), first.getBorrowStartDate().toString(), first.getBorrowEndDate().toString(), Objects.toString(first.getBorrowReturnDate(), null), books);
+    }
+
+    private static String toCursor(LoanHistoryRow row) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((row.getBorrowStartDate() + ":" + row.getBorrowId() + ":" + row.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+}
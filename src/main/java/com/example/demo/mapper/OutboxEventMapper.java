@@ -0,0 +1,36 @@
+package com.example.demo.mapper;
+
+import com.example.demo.event.EventType;
+import com.example.demo.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Component
+public class OutboxEventMapper {
+
+    /**
+     * Kafka の JsonSerializer と同じ設定の ObjectMapper です。アウトボックス経由でも配信されるペイロードは直接送信と変わりません。
+     */
+    private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+
+    public OutboxEvent toOutboxEvent(EventType eventType, UUID eventId, UUID messageKey, Object event) {
+        try {
+            return OutboxEvent.builder().eventType(eventType).eventId(eventId).messageKey(messageKey).payload(objectMapper.writeValueAsString(event)).createdAt(LocalDateTime.now()).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + eventType + " event " + eventId, e);
+        }
+    }
+
+    public Object toEvent(OutboxEvent outboxEvent) {
+        try {
+            return objectMapper.readValue(outboxEvent.getPayload(), outboxEvent.getEventType().getPayloadType());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize outbox event " + outboxEvent.getEventId(), e);
+        }
+    }
+}
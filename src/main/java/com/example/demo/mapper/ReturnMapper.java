@@ -1,7 +1,7 @@
 package com.example.demo.mapper;
 
 import com.example.demo.dto.*;
-import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import com.example.demo.dto.ReturnBorrowAggregate;
 import org.springframework.stereotype.Component;
 
@@ -44,8 +44,8 @@ public class ReturnMapper {
         );
     }
 
-    public List<BookToDecrement> toBookToDecrement(List<Borrow> entities) {
-        return entities.stream()
+    public List<BookToDecrement> toBookToDecrement(List<BorrowItem> items) {
+        return items.stream()
                 .map(e -> new BookToDecrement(e.getBookUuid(), e.getChapterUuid()))
                 .toList();
     }
@@ -0,0 +1,120 @@
+package com.example.demo.metrics;
+
+import com.example.demo.exception.BorrowNotFoundException;
+import com.example.demo.exception.ChapterAlreadyLentException;
+import com.example.demo.exception.DailyBorrowLimitExceededException;
+import com.example.demo.exception.UnreturnedBorrowExistsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * 貸出・返却の処理を段階ごとに計測し、Micrometer に記録します。
+ * 段階の所要時間は {@code borrow.loan.phase}、リクエスト全体の所要時間と結果は {@code borrow.loan.requests} のタイマーに、
+ * 断った件数と失敗した件数は段階と理由の例外ごとに {@code borrow.loan.failures} のカウンターに記録します。
+ * 一貸出の本の冊数は {@code borrow.loan.items}、返却の遅延日数は {@code borrow.loan.days.late} の分布に記録します。
+ * 計測はサービスのメソッドの中で行うため、コミットにかかる時間は含みません。
+ */
+@Component
+public class LoanMetrics {
+
+    public static final String BORROW = "borrow";
+
+    public static final String RETURN = "return";
+
+    static final String SUCCESS = "success";
+
+    static final String REJECTED = "rejected";
+
+    static final String ERROR = "error";
+
+    static final String NONE = "none";
+
+    /**
+     * 業務上の理由で断ったことを表す例外です。これ以外の例外は {@code error} として記録します。
+     */
+    private static final Set<Class<? extends RuntimeException>> REJECTIONS = Set.of(
+            UnreturnedBorrowExistsException.class,
+            DailyBorrowLimitExceededException.class,
+            ChapterAlreadyLentException.class,
+            BorrowNotFoundException.class);
+
+    private final MeterRegistry meterRegistry;
+
+    public LoanMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 一件の貸出または返却の計測を最初の段階から始めます。
+     *
+     * @param operation {@link #BORROW} または {@link #RETURN}
+     * @param phase     最初の段階の名前
+     */
+    public Recording start(String operation, String phase) {
+        return new Recording(operation, phase);
+    }
+
+    /**
+     * 一件の貸出または返却の計測です。一つのリクエストのスレッドだけで使います。
+     */
+    public final class Recording {
+
+        private final String operation;
+
+        private final Timer.Sample request;
+
+        private String phase;
+
+        private Timer.Sample phaseSample;
+
+        private Recording(String operation, String phase) {
+            this.operation = operation;
+            this.request = Timer.start(meterRegistry);
+            this.phase = phase;
+            this.phaseSample = Timer.start(meterRegistry);
+        }
+
+        /**
+         * 今の段階を成功として記録し、次の段階を始めます。
+         */
+        public void phase(String next) {
+            stopPhase(SUCCESS);
+            phase = next;
+            phaseSample = Timer.start(meterRegistry);
+        }
+
+        public void items(int count) {
+            meterRegistry.summary("borrow.loan.items", "operation", operation).record(count);
+        }
+
+        public void daysLate(long days) {
+            meterRegistry.summary("borrow.loan.days.late").record(days);
+        }
+
+        /**
+         * 最後の段階とリクエスト全体を成功として記録します。
+         */
+        public void succeeded() {
+            stopPhase(SUCCESS);
+            request.stop(meterRegistry.timer("borrow.loan.requests", "operation", operation, "outcome", SUCCESS, "reason", NONE));
+        }
+
+        /**
+         * 例外が起きた段階とリクエスト全体を、断った場合は {@code rejected}、それ以外は {@code error} として記録します。理由には例外のクラス名を使います。
+         */
+        public void failed(RuntimeException ex) {
+            String outcome = REJECTIONS.contains(ex.getClass()) ? REJECTED : ERROR;
+            String reason = ex.getClass().getSimpleName();
+            stopPhase(outcome);
+            request.stop(meterRegistry.timer("borrow.loan.requests", "operation", operation, "outcome", outcome, "reason", reason));
+            meterRegistry.counter("borrow.loan.failures", "operation", operation, "phase", phase, "outcome", outcome, "reason", reason).increment();
+        }
+
+        private void stopPhase(String outcome) {
+            phaseSample.stop(meterRegistry.timer("borrow.loan.phase", "operation", operation, "phase", phase, "outcome", outcome));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.model;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 未返却の延滞中の貸出について、{@code accruedThrough} の日までに発生した延滞金です。
+ * {@link com.example.demo.fine.OverdueFineAccrualJob} が前回の計上日からの増分を加算し、返却された貸出の行は次の実行で削除します。
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccruedFine {
+
+    @Id
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID borrowUuid;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID memberCardUuid;
+
+    @Column(nullable = false)
+    private long daysLate;
+
+    @Column(nullable = false, precision = 12, scale = 0)
+    private BigDecimal fineAmount;
+
+    @Column(nullable = false)
+    private LocalDate accruedThrough;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+}
@@ -11,6 +11,9 @@ import javax.persistence.*;
 import java.time.LocalDate;
 import java.util.UUID;
 
+/**
+ * 一回の貸出のヘッダーです。貸出した本は {@link BorrowItem} に一冊一行で保存し、返却ではこの一行だけを更新します。
+ */
 @Entity
 @Getter
 @Setter
@@ -23,19 +26,13 @@ public class Borrow {
     @Getter(onMethod = @__(@JsonIgnore))
     @Column(updatable = false, nullable = false)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_sequence")
-    @SequenceGenerator(name = "book_sequence", allocationSize = 1, sequenceName = "book_sequence")
+    @SequenceGenerator(name = "book_sequence", allocationSize = 50, sequenceName = "book_sequence")
     private int id;
 
-     @Column(nullable = false, updatable = false)
-    private UUID bookUuid;
-
-    @Column(nullable = false, updatable = false)
-    private UUID chapterUuid;
-
-    @Column(nullable = false, updatable = false)
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
     private UUID memberCardUuid;
 
-    @Column(nullable = false, updatable = false)
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
     private UUID borrowUuid;
 
     @Column(nullable = false, updatable = false)
@@ -0,0 +1,39 @@
+package com.example.demo.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * 貸出した本一冊ごとの明細です。
+ * ヘッダーの {@link Borrow} とは {@code borrowUuid} で結びつき、同じ月のパーティションに入るよう {@code borrowStartDate} も持ちます。
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowItem {
+
+    @Id
+    @Column(updatable = false, nullable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_item_sequence")
+    @SequenceGenerator(name = "borrow_item_sequence", allocationSize = 50, sequenceName = "borrow_item_sequence")
+    private int id;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID borrowUuid;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDate borrowStartDate;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID bookUuid;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID chapterUuid;
+
+}
@@ -0,0 +1,50 @@
+package com.example.demo.model;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * 会員ごとの貸出状況の集計です。{@code borrow} を走査せずに主キーで読み込めるよう、
+ * 貸出・返却と同じトランザクションで {@link com.example.demo.repository.MemberSummaryRepository} が更新します。
+ * 一度も貸出のない会員の行はありません。
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberSummary {
+
+    @Id
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID memberCardUuid;
+
+    /**
+     * 未返却の貸出の件数です。冊数ではなく貸出 UUID ごとに数えます。
+     */
+    @Column(nullable = false)
+    private int activeLoanCount;
+
+    @Column(nullable = false)
+    private LocalDate lastBorrowDate;
+
+    /**
+     * 未返却の貸出のうち最も早い返却予定日です。未返却の貸出がなければ null です。
+     */
+    private LocalDate earliestDueDate;
+
+    /**
+     * {@code today} の時点で返却予定日を過ぎた未返却の貸出があるかを返します。
+     * 会員が一度に持てる未返却の貸出は一件だけなので、延滞中の貸出の件数は 0 か 1 です。
+     */
+    public boolean hasOverdueLoan(LocalDate today) {
+        return earliestDueDate != null && earliestDueDate.isBefore(today);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.example.demo.model;
+
+import com.example.demo.event.EventType;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 貸出・返却と同じトランザクションで書き込まれる未配信イベントです。
+ * {@link com.example.demo.event.outbox.OutboxRelay} が id 順に読み出して Kafka へ配信し、配信後に削除します。
+ * id はインスタンスごとにまとめて確保せず一件ずつ採番するため、先にコミットされた貸出のイベントより後の返却のイベントの id が小さくなることはありません。
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @Column(updatable = false, nullable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_sequence")
+    @SequenceGenerator(name = "outbox_event_sequence", allocationSize = 1, sequenceName = "outbox_event_sequence")
+    private long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private EventType eventType;
+
+    @Column(nullable = false, updatable = false, unique = true, columnDefinition = "uuid")
+    private UUID eventId;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID messageKey;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+}
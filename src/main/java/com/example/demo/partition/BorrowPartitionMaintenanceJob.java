@@ -0,0 +1,109 @@
+package com.example.demo.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 月ごとにパーティション化した {@code borrow} と {@code borrow_item} テーブルを毎晩保守します。同じ月のヘッダーと明細のパーティションは常に組で作成し、組で切り離します。
+ * 当月から {@code borrow.partitions.premake-months} か月先までのパーティションを作成し、
+ * {@code borrow.partitions.retention-months} か月より古く未返却の貸出が残っていないパーティションを切り離して {@code borrow_archive} スキーマへ移します。
+ * 古い貸出を切り離すことで、索引の大きさと問い合わせが読むパーティションの数は全履歴ではなく保持期間で決まります。
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "borrow.partitions.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class BorrowPartitionMaintenanceJob {
+
+    static final String CREATE_PARTITION = "SELECT create_borrow_partition(?)";
+
+    /**
+     * 名前の yyyyMM が境界より前の月のパーティションを古い順に返します。既定のパーティションは含みません。
+     */
+    static final String PARTITIONS_BEFORE = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'borrow'::regclass AND c.relname ~ '^borrow_p[0-9]{6}$' AND c.relname < ? ORDER BY c.relname";
+
+    static final String ARCHIVE_SCHEMA = "borrow_archive";
+
+    static final String ITEM_PARTITION_PREFIX = "borrow_item_p";
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("'borrow_p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int premakeMonths;
+
+    private final int retentionMonths;
+
+    public BorrowPartitionMaintenanceJob(JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${borrow.partitions.premake-months:3}") int premakeMonths,
+                                         @Value("${borrow.partitions.retention-months:24}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(cron = "${borrow.partitions.maintenance-cron:0 30 1 * * *}")
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+        createPartitions(today);
+        archivePartitions(today);
+    }
+
+    /**
+     * {@code today} の月から {@code premakeMonths} か月先までのパーティションを作成します。既にあるパーティションはそのままです。
+     *
+     * @return 対象の月のパーティション名
+     */
+    public List<String> createPartitions(LocalDate today) {
+        List<String> partitions = new ArrayList<>();
+        for (int i = 0; i <= premakeMonths; i++) {
+            partitions.add(jdbcTemplate.queryForObject(CREATE_PARTITION, String.class, Date.valueOf(today.plusMonths(i))));
+        }
+        log.info("Ensured borrow partitions {}", partitions);
+        return partitions;
+    }
+
+    /**
+     * 保持期間より古いパーティションのうち、未返却の貸出が残っていないものを同じ月の明細のパーティションと一緒に切り離して {@code borrow_archive} へ移します。
+     * 新しい貸出は当月のパーティションに入り、返却済みの貸出が未返却に戻ることはないため、確認してから切り離すまでの間に対象が変わることはありません。
+     *
+     * @return 移したパーティション名
+     */
+    public List<String> archivePartitions(LocalDate today) {
+        String boundary = YearMonth.from(today).minusMonths(retentionMonths).format(PARTITION_MONTH);
+        List<String> archived = new ArrayList<>();
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS_BEFORE, String.class, boundary)) {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + partition + " WHERE borrow_return_date IS NULL)", Boolean.class))) {
+                log.warn("Keeping borrow partition {} attached because it still has active loans", partition);
+                continue;
+            }
+            String itemPartition = ITEM_PARTITION_PREFIX + partition.substring("borrow_p".length());
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("ALTER TABLE borrow DETACH PARTITION " + partition);
+                jdbcTemplate.execute("ALTER TABLE borrow_item DETACH PARTITION " + itemPartition);
+                jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+                jdbcTemplate.execute("ALTER TABLE " + itemPartition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+            });
+            archived.add(partition);
+        }
+        log.info("Archived borrow partitions {} older than {}", archived, boundary);
+        return archived;
+    }
+}
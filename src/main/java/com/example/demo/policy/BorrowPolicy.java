@@ -1,18 +1,46 @@
 package com.example.demo.policy;
 
+import com.example.demo.dto.MemberEligibility;
 import com.example.demo.exception.DailyBorrowLimitExceededException;
 import com.example.demo.exception.UnreturnedBorrowExistsException;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
 @Component
 public class BorrowPolicy {
 
+    public void validateEligibility(MemberEligibility eligibility, LocalDate today) {
+        validateNoActiveBorrow(eligibility.getHasActiveLoan());
+        validateDailyLimit(eligibility.getHasHistory(), today.equals(eligibility.getLastBorrowDate()));
+    }
+
     public void validateNoActiveBorrow(boolean hasUnreturnedBorrow) {
         if (hasUnreturnedBorrow) {
             throw new UnreturnedBorrowExistsException("まだ貸出返却されていないの貸し出しがあります。");
         }
     }
 
+    /**
+     * 会員の集計への貸出の記録が行われなかった場合に断ります。
+     * 記録は未返却の貸出がある場合とその日にすでに貸し出した場合に行われないため、集計を読み直してどちらの理由で断るかを決めます。
+     * 読み直すまでに並行した返却がコミットされた場合も、記録の時点では未返却の貸出があったため未返却の貸出ありとして断ります。
+     *
+     * @param recordedRows      {@code MemberSummaryRepository#recordBorrow} が返した行数
+     * @param memberCardUuid    会員証 UUID
+     * @param today             貸出日
+     * @param eligibilityReader 会員の集計を読み直す問い合わせ。記録が行われなかった場合だけ呼び出します
+     */
+    public void validateBorrowRecorded(int recordedRows, UUID memberCardUuid, LocalDate today, Function<UUID, Optional<MemberEligibility>> eligibilityReader) {
+        if (recordedRows == 0) {
+            eligibilityReader.apply(memberCardUuid).ifPresent(eligibility -> validateEligibility(eligibility, today));
+            validateNoActiveBorrow(true);
+        }
+    }
+
     public void validateDailyLimit(boolean exists, Boolean limitReached) {
         if (exists && limitReached) {
             throw new DailyBorrowLimitExceededException("一日の借入限度額に達しました。");
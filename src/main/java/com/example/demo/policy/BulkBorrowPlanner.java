@@ -0,0 +1,68 @@
+package com.example.demo.policy;
+
+import com.example.demo.cache.ChapterAvailabilityIndex;
+import com.example.demo.dto.*;
+import com.example.demo.exception.ChapterAlreadyLentException;
+import com.example.demo.exception.DailyBorrowLimitExceededException;
+import com.example.demo.exception.UnreturnedBorrowExistsException;
+import com.example.demo.mapper.BorrowAssembler;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.repository.MemberSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * 一括貸出のリクエストを会員ごとにチェックし、貸出できる会員の分だけ保存する内容を組み立てます。
+ * 一人が断られても他の会員の貸出は続けます。同じ会員がリクエストに二度含まれる場合、二件目は未返却の貸出ありとして断ります。
+ * 貸出中の本のチャプターを含む会員は断り、貸出できる会員の本のチャプターはチェックの最後に確保します。
+ * 最後に会員の集計に貸出を記録し、キャッシュが古く別のリクエストで既に貸出やその日の貸出が記録されていた会員は、確保したチャプターを戻して未返却の貸出ありか一日の上限として断ります。
+ * 集計への記録は貸出の行を挿入する前に行い、断った会員の分は何も書き込みません。
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkBorrowPlanner {
+
+    private final BorrowPolicy borrowPolicy;
+
+    private final BorrowAssembler borrowAssembler;
+
+    private final BorrowMapper borrowMapper;
+
+    private final ChapterAvailabilityIndex chapterAvailabilityIndex;
+
+    private final MemberSummaryRepository memberSummaryRepository;
+
+    public BulkBorrowPlan plan(List<MemberBorrowRequest> requests, Map<UUID, ? extends MemberEligibility> eligibilities, LocalDate startDate) {
+        LocalDate endDate = startDate.plusWeeks(2);
+        Set<UUID> borrowingMembers = new HashSet<>();
+        List<BulkBorrowPlan.PlannedBorrow> borrows = new ArrayList<>();
+        List<BulkBorrowResultDTO> results = new ArrayList<>(requests.size());
+        for (MemberBorrowRequest request : requests) {
+            UUID memberCardUuid = request.memberCardUuid();
+            try {
+                borrowPolicy.validateEligibility(eligibilities.get(memberCardUuid), startDate);
+                BorrowAggregate aggregate = borrowAssembler.toAggregate(UUID.randomUUID(), memberCardUuid, startDate, endDate, request.books());
+                BorrowCreatedSummaryDTO summary = borrowMapper.toSummaryDTO(aggregate);
+                borrowPolicy.validateNoActiveBorrow(!borrowingMembers.add(memberCardUuid));
+                recordBorrow(memberCardUuid, startDate, endDate, chapterAvailabilityIndex.reserve(request.books()));
+                borrows.add(new BulkBorrowPlan.PlannedBorrow(aggregate, borrowMapper.toEntity(aggregate), borrowMapper.toItems(aggregate)));
+                results.add(BulkBorrowResultDTO.borrowed(summary));
+            } catch (UnreturnedBorrowExistsException | DailyBorrowLimitExceededException | ChapterAlreadyLentException ex) {
+                results.add(BulkBorrowResultDTO.rejected(memberCardUuid, ex.getMessage()));
+            }
+        }
+        return new BulkBorrowPlan(borrows, results);
+    }
+
+    private void recordBorrow(UUID memberCardUuid, LocalDate startDate, LocalDate endDate, ChapterAvailabilityIndex.Reservation reservation) {
+        try {
+            borrowPolicy.validateBorrowRecorded(memberSummaryRepository.recordBorrow(memberCardUuid, startDate, endDate), memberCardUuid, startDate, memberSummaryRepository::findEligibility);
+        } catch (UnreturnedBorrowExistsException | DailyBorrowLimitExceededException ex) {
+            reservation.cancel();
+            throw ex;
+        }
+    }
+}
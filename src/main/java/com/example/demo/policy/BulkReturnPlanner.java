@@ -0,0 +1,52 @@
+package com.example.demo.policy;
+
+import com.example.demo.dto.*;
+import com.example.demo.mapper.ReturnBorrowAssembler;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 一括返却で読み込んだ未返却の貸出のヘッダーと本の明細を貸出 UUID ごとにまとめ、延滞日数と罰金を一度の走査で計算します。
+ * 未返却の貸出が見つからない UUID と、リクエストに二度含まれる UUID の二件目は NOT_FOUND になります。
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkReturnPlanner {
+
+    private final ReturnBorrowPolicy returnBorrowPolicy;
+
+    private final ReturnBorrowAssembler returnBorrowAssembler;
+
+    private final ReturnMapper returnMapper;
+
+    public BulkReturnPlan plan(List<UUID> borrowUuids, List<Borrow> borrows, List<BorrowItem> borrowItems, LocalDate currentDate) {
+        Map<UUID, Borrow> borrowsByUuid = borrows.stream().collect(Collectors.toMap(Borrow::getBorrowUuid, Function.identity()));
+        Map<UUID, List<BorrowItem>> itemsByUuid = borrowItems.stream().collect(Collectors.groupingBy(BorrowItem::getBorrowUuid));
+        List<BulkReturnPlan.PlannedReturn> returns = new ArrayList<>(borrowsByUuid.size());
+        List<BulkReturnResultDTO> results = new ArrayList<>(borrowUuids.size());
+        for (UUID borrowUuid : borrowUuids) {
+            Borrow borrow = borrowsByUuid.remove(borrowUuid);
+            if (borrow == null) {
+                results.add(BulkReturnResultDTO.notFound(borrowUuid, "未返却の貸出が見つかりません。"));
+                continue;
+            }
+            long daysLate = returnBorrowPolicy.calculateDaysLate(borrow.getBorrowEndDate(), currentDate);
+            BigDecimal fineAmount = returnBorrowPolicy.calculateFine(daysLate, ReturnBorrowPolicy.DAILY_FINE_RATE);
+            List<BorrowItem> loan = itemsByUuid.getOrDefault(borrowUuid, List.of());
+            List<LoanItemDetails> items = loan.stream().map(b -> new LoanItemDetails(b.getBookUuid(), b.getChapterUuid())).toList();
+            ReturnBorrowAggregate aggregate = returnBorrowAssembler.toAggregate(borrow, borrowUuid, borrow.getMemberCardUuid(), currentDate, returnBorrowPolicy.isLate(daysLate), daysLate, fineAmount, items);
+            returns.add(new BulkReturnPlan.PlannedReturn(aggregate, loan));
+            results.add(BulkReturnResultDTO.returned(returnMapper.toSummaryDTO(aggregate)));
+        }
+        return new BulkReturnPlan(returns, results);
+    }
+}
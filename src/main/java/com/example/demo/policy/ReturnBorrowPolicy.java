@@ -2,7 +2,8 @@ package com.example.demo.policy;
 
 import com.example.demo.exception.UnreturnedBorrowExistsException;
 import com.example.demo.model.Borrow;
-import com.example.demo.util.DateCalculationUtil;
+import com.example.demo.util.WorkingDayCalendar;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -11,8 +12,16 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Component
+@RequiredArgsConstructor
 public class ReturnBorrowPolicy {
 
+    /**
+     * 延滞一日あたりの罰金です。
+     */
+    public static final BigDecimal DAILY_FINE_RATE = new BigDecimal("500");
+
+    private final WorkingDayCalendar workingDayCalendar;
+
     public Borrow validateAndGetBorrow(List<Borrow> borrows) {
         if (borrows.isEmpty()) {
             throw new UnreturnedBorrowExistsException("まだ貸出返却されていないの貸し出しがあります。");
@@ -21,7 +30,7 @@ public class ReturnBorrowPolicy {
     }
 
     public long calculateDaysLate(LocalDate endDate, LocalDate currentDate) {
-        return DateCalculationUtil.calculateWorkingDays(endDate.plusDays(1), currentDate);
+        return workingDayCalendar.countWorkingDays(endDate.plusDays(1), currentDate);
     }
 
     public BigDecimal calculateFine(long daysLate, BigDecimal rate) {
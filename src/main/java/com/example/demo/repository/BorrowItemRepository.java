@@ -0,0 +1,46 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.BookChapterReference;
+import com.example.demo.model.BorrowItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BorrowItemRepository extends JpaRepository<BorrowItem, Integer> {
+
+    /**
+     * 一つの貸出の本を取得します。{@code borrowStartDate} の条件で、その月のパーティションだけを読みます。
+     */
+    List<BorrowItem> findByBorrowUuidAndBorrowStartDate(UUID borrowUuid, LocalDate borrowStartDate);
+
+    /**
+     * 複数の貸出の本を取得します。{@code borrowStartDate >= from} の条件で、最も古い貸出の月より前のパーティションは読みません。
+     */
+    List<BorrowItem> findByBorrowUuidInAndBorrowStartDateGreaterThanEqual(Collection<UUID> borrowUuids, LocalDate from);
+
+    /**
+     * 未返却の貸出の本のチャプターを取得します。貸出中のチャプターの索引を起動時に作るために使います。
+     * {@code from} には {@link MemberSummaryRepository#findActiveLoansFrom()} の下限を渡します。
+     * 明細とヘッダーの両方に開始日の条件を付け、どちらも {@code from} より前の月のパーティションは読みません。
+     */
+    @Query("SELECT new com.example.demo.dto.BookChapterReference(i.bookUuid, i.chapterUuid) FROM BorrowItem i "
+            + "JOIN Borrow b ON b.borrowUuid = i.borrowUuid AND b.borrowStartDate = i.borrowStartDate "
+            + "WHERE b.borrowReturnDate IS NULL AND i.borrowStartDate >= :from AND b.borrowStartDate >= :from")
+    List<BookChapterReference> findActiveChapters(@Param("from") LocalDate from);
+
+    /**
+     * 本のチャプターが未返却の貸出に含まれているかを返します。貸出中のチャプターの索引が古くなっていないかを確かめるために使います。
+     * {@link #findActiveChapters(LocalDate)} と同じく、{@code from} より前の月のパーティションは読みません。
+     */
+    @Query("SELECT COUNT(i) > 0 FROM BorrowItem i JOIN Borrow b ON b.borrowUuid = i.borrowUuid AND b.borrowStartDate = i.borrowStartDate "
+            + "WHERE i.bookUuid = :bookUuid AND i.chapterUuid = :chapterUuid AND b.borrowReturnDate IS NULL AND i.borrowStartDate >= :from AND b.borrowStartDate >= :from")
+    boolean existsActiveChapter(@Param("bookUuid") UUID bookUuid, @Param("chapterUuid") UUID chapterUuid, @Param("from") LocalDate from);
+
+}
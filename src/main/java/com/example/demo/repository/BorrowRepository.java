@@ -1,32 +1,69 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.LoanHistoryRow;
+import com.example.demo.dto.OverdueLoanRow;
 import com.example.demo.model.Borrow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface BorrowRepository extends JpaRepository<Borrow, Integer>, JpaSpecificationExecutor<Borrow> {
 
-    @Query(value = "SELECT EXISTS (select 1 FROM borrow b WHERE b.member_card_uuid = :memberCard and b.borrow_return_date is null ) AS has_borrows", nativeQuery = true)
-    boolean getBookMemberCardByBook(@Param("memberCard") UUID memberCard);
+    /**
+     * 会員の未返却の貸出のヘッダーに返却日を設定し、更新した行を同じ文で返します。既に返却済みの貸出は返りません。
+     * {@code from} には {@link MemberSummaryRepository#findActiveLoansFrom(UUID)} の下限を渡し、それより前の月のパーティションは読みません。
+     * {@code RETURNING} を使うため PostgreSQL 専用です。
+     */
+    @Query(value = "UPDATE borrow SET borrow_return_date = :returnDate WHERE borrow_uuid = :borrowUuid AND member_card_uuid = :memberCardUuid AND borrow_return_date IS NULL AND borrow_start_date >= :from RETURNING *", nativeQuery = true)
+    List<Borrow> returnActiveBorrows(@Param("borrowUuid") UUID borrowUuid, @Param("memberCardUuid") UUID memberCardUuid, @Param("from") LocalDate from, @Param("returnDate") LocalDate returnDate);
 
-    List<Borrow> getBorrowsByBorrowUuidAndMemberCardUuidAndBorrowReturnDateIsNull(UUID borrowUuid, UUID memberCardUuid);
+    /**
+     * 複数の未返却の貸出のヘッダーに一文の UPDATE で返却日を設定し、更新した行を同じ文で返します。
+     * 並行した別の返却が先に返却日を設定した貸出は、行ロックを待った後に条件を満たさなくなるため返りません。
+     * {@code from} には {@link MemberSummaryRepository#findActiveLoansFrom()} の下限を渡し、それより前の月のパーティションは読みません。
+     * {@code RETURNING} を使うため PostgreSQL 専用です。
+     */
+    @Query(value = "UPDATE borrow SET borrow_return_date = :returnDate WHERE borrow_uuid IN (:borrowUuids) AND borrow_return_date IS NULL AND borrow_start_date >= :from RETURNING *", nativeQuery = true)
+    List<Borrow> returnActiveBorrowsIn(@Param("borrowUuids") Collection<UUID> borrowUuids, @Param("from") LocalDate from, @Param("returnDate") LocalDate returnDate);
 
-    @Query(value = "SELECT (CURRENT_DATE = latest_borrow_date) AS is_current_date_latest FROM (SELECT borrow_start_date AS latest_borrow_date FROM borrow WHERE member_card_uuid = :memberCardUuid AND borrow_return_date is not null ORDER BY borrow_start_date desc LIMIT 1) AS latest_borrow", nativeQuery = true)
-    Boolean checkLatestBorrowDate(UUID memberCardUuid);
+    /**
+     * 会員の貸出履歴の最初のページを新しい順に取得します。ヘッダーと明細を結合した本一冊ごとの行で、行数は {@code pageable} の件数で制限します。
+     * 貸出は {@code borrow_member_history_idx} の順 {@code (borrowStartDate, id)} に読み、明細は貸出ごとに {@code borrow_item_borrow_idx} で引いて id の順に並べます。
+     */
+    @Query("SELECT i.id AS id, b.id AS borrowId, b.borrowUuid AS borrowUuid, i.bookUuid AS bookUuid, i.chapterUuid AS chapterUuid, b.borrowStartDate AS borrowStartDate, b.borrowEndDate AS borrowEndDate, b.borrowReturnDate AS borrowReturnDate FROM Borrow b JOIN BorrowItem i ON i.borrowUuid = b.borrowUuid AND i.borrowStartDate = b.borrowStartDate WHERE b.memberCardUuid = :memberCardUuid ORDER BY b.borrowStartDate DESC, b.id DESC, i.id DESC")
+    List<LoanHistoryRow> findLoanHistory(@Param("memberCardUuid") UUID memberCardUuid, Pageable pageable);
 
-    boolean existsByMemberCardUuid(@Param("memberCardUuid") UUID memberCardUuid);
+    /**
+     * 会員の貸出履歴のうち {@code (startDate, borrowId, 明細の id)} より古い行を新しい順に取得します。
+     * OFFSET を使わず、{@code borrow_member_history_idx} 上の貸出 {@code (startDate, borrowId)} の位置から読み始めるため、深いページでも最初のページと同じコストです。
+     * 明細の id は、一件の貸出がページより大きく途中で区切った場合に、その貸出の続きから読むために使います。
+     * ヘッダーと明細の {@code borrowStartDate <= :startDate} の条件で、どちらも {@code startDate} より後の月のパーティションは読みません。
+     */
+    @Query("SELECT i.id AS id, b.id AS borrowId, b.borrowUuid AS borrowUuid, i.bookUuid AS bookUuid, i.chapterUuid AS chapterUuid, b.borrowStartDate AS borrowStartDate, b.borrowEndDate AS borrowEndDate, b.borrowReturnDate AS borrowReturnDate FROM Borrow b JOIN BorrowItem i ON i.borrowUuid = b.borrowUuid AND i.borrowStartDate = b.borrowStartDate "
+            + "WHERE b.memberCardUuid = :memberCardUuid AND b.borrowStartDate <= :startDate AND i.borrowStartDate <= :startDate "
+            + "AND (b.borrowStartDate < :startDate OR (b.borrowStartDate = :startDate AND (b.id < :borrowId OR (b.id = :borrowId AND i.id < :id)))) "
+            + "ORDER BY b.borrowStartDate DESC, b.id DESC, i.id DESC")
+    List<LoanHistoryRow> findLoanHistoryBefore(@Param("memberCardUuid") UUID memberCardUuid, @Param("startDate") LocalDate startDate, @Param("borrowId") int borrowId, @Param("id") int id, Pageable pageable);
 
-    @Modifying
-    @Query("UPDATE Borrow b SET b.borrowReturnDate = :returnDate WHERE b IN :borrows")
-    void setReturnDateForBorrows(List<Borrow> borrows, LocalDate returnDate);
+    /**
+     * 未返却で返却予定日を過ぎ、{@code today} の分がまだ計上されていない貸出を一件ずつ返します。
+     * サーバー側のカーソルから {@code fetchSize} 件ずつ読み込むため、件数に関わらずメモリ使用量は一定です。
+     * トランザクション内で呼び出し、使い終わったら閉じてください。
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.borrowUuid AS borrowUuid, b.memberCardUuid AS memberCardUuid, b.borrowEndDate AS borrowEndDate, f.accruedThrough AS accruedThrough FROM Borrow b LEFT JOIN AccruedFine f ON f.borrowUuid = b.borrowUuid WHERE b.borrowReturnDate IS NULL AND b.borrowStartDate < :today AND b.borrowEndDate < :today AND (f.accruedThrough IS NULL OR f.accruedThrough < :today)")
+    Stream<OverdueLoanRow> streamOverdueLoans(@Param("today") LocalDate today);
 
 }
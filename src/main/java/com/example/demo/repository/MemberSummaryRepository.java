@@ -0,0 +1,102 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.MemberEligibility;
+import com.example.demo.model.MemberSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 会員ごとの貸出状況の集計を読み書きします。更新は {@code ON CONFLICT} を使うため PostgreSQL 専用です。
+ */
+@Repository
+public interface MemberSummaryRepository extends JpaRepository<MemberSummary, UUID> {
+
+    /**
+     * リアクティブ版と同じ SQL を使うため定数にしています。
+     */
+    String RECORD_BORROW = "INSERT INTO member_summary (member_card_uuid, active_loan_count, last_borrow_date, earliest_due_date) VALUES (:memberCardUuid, 1, :borrowDate, :dueDate) "
+            + "ON CONFLICT (member_card_uuid) DO UPDATE SET active_loan_count = member_summary.active_loan_count + 1, "
+            + "last_borrow_date = GREATEST(member_summary.last_borrow_date, EXCLUDED.last_borrow_date), earliest_due_date = LEAST(member_summary.earliest_due_date, EXCLUDED.earliest_due_date) "
+            + "WHERE member_summary.active_loan_count = 0 AND (member_summary.last_borrow_date IS NULL OR member_summary.last_borrow_date < EXCLUDED.last_borrow_date)";
+
+    String MEMBER_ELIGIBILITY = "SELECT active_loan_count > 0 AS \"hasActiveLoan\", TRUE AS \"hasHistory\", last_borrow_date AS \"lastBorrowDate\" FROM member_summary WHERE member_card_uuid = :memberCardUuid";
+
+    String RECORD_RETURN = "UPDATE member_summary SET active_loan_count = active.loans, earliest_due_date = active.due_date "
+            + "FROM (SELECT COUNT(*) AS loans, MIN(b.borrow_end_date) AS due_date FROM borrow b WHERE b.member_card_uuid = :memberCardUuid AND b.borrow_return_date IS NULL AND b.borrow_start_date >= :from) AS active "
+            + "WHERE member_summary.member_card_uuid = :memberCardUuid";
+
+    /**
+     * 未返却の貸出がなく、その日にまだ貸出のない会員に貸出を一件加えます。会員の行がなければ作成し、あれば件数を加算して日付を更新します。
+     * 同じ会員の同時の貸出は行ロックで順に適用され、後の文はコミット済みの件数と最終貸出日を見て何も更新しません。
+     * 一人一件と一日一件の制約を、インスタンスごとのキャッシュや直列化可能な分離レベルに頼らずに守るため、貸出の行を挿入する前に呼び出してください。
+     *
+     * @return 加えた行数。会員に未返却の貸出がある場合と、その日にすでに貸し出した場合は 0
+     */
+    @Modifying
+    @Query(value = RECORD_BORROW, nativeQuery = true)
+    int recordBorrow(@Param("memberCardUuid") UUID memberCardUuid, @Param("borrowDate") LocalDate borrowDate, @Param("dueDate") LocalDate dueDate);
+
+    /**
+     * 会員の集計を読み直します。エンティティを通さないため、同じトランザクションで先に読み込んだ集計ではなく、記録の時点の値を返します。
+     * {@link #recordBorrow} が 0 を返した場合に、断る理由を決めるために使います。
+     */
+    @Query(value = MEMBER_ELIGIBILITY, nativeQuery = true)
+    Optional<MemberEligibility> findEligibility(@Param("memberCardUuid") UUID memberCardUuid);
+
+    /**
+     * 返却の後、会員の未返却の貸出の件数と最も早い返却予定日を数え直します。
+     * {@code from} には返却の前に {@link #findActiveLoansFrom(UUID)} で求めた日付を渡します。
+     * {@code borrow_start_date >= :from} の条件で {@code from} より前の月のパーティションは読まないため、コストは古い月のパーティションの数に左右されません。
+     */
+    @Modifying
+    @Query(value = RECORD_RETURN, nativeQuery = true)
+    void recordReturn(@Param("memberCardUuid") UUID memberCardUuid, @Param("from") LocalDate from);
+
+    @Query("SELECT s.earliestDueDate FROM MemberSummary s WHERE s.memberCardUuid = :memberCardUuid")
+    Optional<LocalDate> findEarliestDueDate(@Param("memberCardUuid") UUID memberCardUuid);
+
+    /**
+     * 全会員のうち最も早い返却予定日を、{@code earliest_due_date} の索引の端から読みます。
+     */
+    @Query("SELECT MIN(s.earliestDueDate) FROM MemberSummary s")
+    Optional<LocalDate> findEarliestDueDate();
+
+    /**
+     * 会員の未返却の貸出の開始日の下限を返します。貸出期間は二週間で固定のため、未返却の貸出はどれも最も早い返却予定日の二週間前以降に始まっています。
+     * 返却の問い合わせにパーティションキーの条件として渡し、それより前の月のパーティションを読まないようにします。延滞中の貸出も下限に含まれます。
+     *
+     * @return 開始日の下限。会員に未返却の貸出がなければ空
+     */
+    default Optional<LocalDate> findActiveLoansFrom(UUID memberCardUuid) {
+        return findEarliestDueDate(memberCardUuid).map(dueDate -> dueDate.minusWeeks(2));
+    }
+
+    /**
+     * {@link #findActiveLoansFrom(UUID)} と同じく、全会員の未返却の貸出の開始日の下限を返します。会員を特定しない返却と貸出中のチャプターの確認に使います。
+     *
+     * @return 開始日の下限。未返却の貸出がなければ空
+     */
+    default Optional<LocalDate> findActiveLoansFrom() {
+        return findEarliestDueDate().map(dueDate -> dueDate.minusWeeks(2));
+    }
+
+    /**
+     * {@code borrow} を一回走査して全会員の集計を作り直します。集計に差異が出た場合の復旧に使います。
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO member_summary (member_card_uuid, active_loan_count, last_borrow_date, earliest_due_date) "
+            + "SELECT b.member_card_uuid, COUNT(*) FILTER (WHERE b.borrow_return_date IS NULL), MAX(b.borrow_start_date), MIN(b.borrow_end_date) FILTER (WHERE b.borrow_return_date IS NULL) "
+            + "FROM borrow b GROUP BY b.member_card_uuid "
+            + "ON CONFLICT (member_card_uuid) DO UPDATE SET active_loan_count = EXCLUDED.active_loan_count, last_borrow_date = EXCLUDED.last_borrow_date, earliest_due_date = EXCLUDED.earliest_due_date", nativeQuery = true)
+    int rebuild();
+
+}
@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.ChapterAvailabilityIndex;
+import com.example.demo.cache.MemberLoanStateCache;
+import com.example.demo.dto.*;
+import com.example.demo.event.publisher.BorrowEventPublisher;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.policy.BulkBorrowPlanner;
+import com.example.demo.policy.BulkReturnPlanner;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.BorrowRepository;
+import com.example.demo.repository.MemberSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class BulkLoanService {
+
+    private final BorrowRepository borrowRepository;
+
+    private final BorrowItemRepository borrowItemRepository;
+
+    private final BulkBorrowPlanner bulkBorrowPlanner;
+
+    private final BulkReturnPlanner bulkReturnPlanner;
+
+    private final BorrowEventPublisher borrowEventPublisher;
+
+    private final MemberLoanStateCache memberLoanStateCache;
+
+    private final MemberSummaryRepository memberSummaryRepository;
+
+    private final ChapterAvailabilityIndex chapterAvailabilityIndex;
+
+    /**
+     * 複数の会員の貸出を一つのトランザクションでまとめて行います。
+     * 会員の貸出状況は一回の問い合わせで取得し、貸出できる会員の分はヘッダーと本の明細をそれぞれ一回の saveAll でバッチ INSERT します。
+     * 断られた会員がいても他の会員の貸出は行い、リクエストの順で会員ごとの結果を返します。
+     * 会員の集計への記録は {@link BulkBorrowPlanner} が会員ごとに行うため、キャッシュが古く既に貸出のある会員もその会員だけが断られます。
+     *
+     * @param payload 会員ごとの貸出リクエスト
+     * @return 会員ごとの結果
+     */
+    @Transactional
+    public BulkBorrowSummaryDTO borrowBooks(BulkBorrowPayload payload) {
+        LocalDate startDate = LocalDate.now();
+        List<UUID> memberCardUuids = payload.data().stream().map(MemberBorrowRequest::memberCardUuid).distinct().toList();
+        BulkBorrowPlan plan = bulkBorrowPlanner.plan(payload.data(), memberLoanStateCache.getAll(memberCardUuids), startDate);
+        borrowRepository.saveAll(plan.headers());
+        borrowItemRepository.saveAll(plan.items());
+        memberLoanStateCache.recordBorrows(plan.memberCardUuids(), startDate);
+        plan.borrows().forEach(borrow -> borrowEventPublisher.publishBorrowCreated(borrow.aggregate(), borrow.items()));
+        return new BulkBorrowSummaryDTO(plan.results());
+    }
+
+    /**
+     * 複数の貸出の返却を一つのトランザクションでまとめて行います。
+     * 返却日は未返却のヘッダーへの一文の UPDATE で設定し、実際に更新した行だけから返却・罰金・イベントを組み立てます。
+     * 並行した別の返却が先に返却した貸出は更新されないため、二重に返却されることはなく NOT_FOUND になります。
+     * 本の明細は更新した貸出の分を一回の問い合わせで読み込み、返却イベントはまとめて発行します。
+     * 各問い合わせには会員の集計から求めた未返却の貸出の開始日の下限を渡し、それより前の月のパーティションは読みません。
+     *
+     * @param payload 返却する貸出の UUID
+     * @return 貸出ごとの結果
+     */
+    @Transactional
+    public BulkReturnSummaryDTO returnBorrowBooks(BulkReturnPayload payload) {
+        LocalDate currentDate = LocalDate.now();
+        LocalDate from = memberSummaryRepository.findActiveLoansFrom().orElse(currentDate);
+        List<Borrow> borrows = borrowRepository.returnActiveBorrowsIn(payload.borrowUuids(), from, currentDate);
+        List<BorrowItem> borrowItems = borrowItemRepository.findByBorrowUuidInAndBorrowStartDateGreaterThanEqual(borrows.stream().map(Borrow::getBorrowUuid).toList(), from);
+        BulkReturnPlan plan = bulkReturnPlanner.plan(payload.borrowUuids(), borrows, borrowItems, currentDate);
+        plan.memberCardUuids().forEach(memberCardUuid -> memberSummaryRepository.recordReturn(memberCardUuid, from));
+        memberLoanStateCache.recordReturns(plan.memberCardUuids());
+        chapterAvailabilityIndex.release(plan.items());
+        borrowEventPublisher.publishReturnBorrowsCreated(plan.returns());
+        return new BulkReturnSummaryDTO(plan.results());
+    }
+}
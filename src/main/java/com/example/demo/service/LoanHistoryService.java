@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.LoanHistoryCursor;
+import com.example.demo.dto.LoanHistoryPageDTO;
+import com.example.demo.mapper.LoanHistoryMapper;
+import com.example.demo.repository.BorrowRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class LoanHistoryService {
+
+    private final BorrowRepository borrowRepository;
+
+    private final LoanHistoryMapper loanHistoryMapper;
+
+    /**
+     * 会員の貸出履歴を新しい順に返します。
+     * {@code cursor} には前のページの {@code nextCursor} を渡し、null の場合は最初のページを返します。
+     *
+     * @param limit 一ページの最大行数（本の冊数）。貸出が途中で区切られないよう、実際の行数はこれより少なくなることがあります
+     */
+    @Transactional(readOnly = true)
+    public LoanHistoryPageDTO getLoanHistory(UUID memberCardUuid, String cursor, int limit) {
+        PageRequest rows = PageRequest.of(0, limit + 1);
+        if (cursor == null) {
+            return loanHistoryMapper.toPage(borrowRepository.findLoanHistory(memberCardUuid, rows), limit);
+        }
+        LoanHistoryCursor after = loanHistoryMapper.parseCursor(cursor);
+        return loanHistoryMapper.toPage(borrowRepository.findLoanHistoryBefore(memberCardUuid, after.borrowStartDate(), after.borrowId(), after.id(), rows), limit);
+    }
+}
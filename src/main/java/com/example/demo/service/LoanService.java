@@ -1,15 +1,21 @@
 package com.example.demo.service;
 
+import com.example.demo.cache.ChapterAvailabilityIndex;
+import com.example.demo.cache.MemberLoanStateCache;
 import com.example.demo.dto.*;
 import com.example.demo.event.publisher.BorrowEventPublisher;
 import com.example.demo.mapper.BorrowAssembler;
 import com.example.demo.mapper.BorrowMapper;
 import com.example.demo.mapper.ReturnBorrowAssembler;
 import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.metrics.LoanMetrics;
 import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import com.example.demo.policy.BorrowPolicy;
 import com.example.demo.policy.ReturnBorrowPolicy;
+import com.example.demo.repository.BorrowItemRepository;
 import com.example.demo.repository.BorrowRepository;
+import com.example.demo.repository.MemberSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,6 +31,8 @@ public class LoanService {
 
     private final BorrowRepository borrowRepository;
 
+    private final BorrowItemRepository borrowItemRepository;
+
     private final BorrowMapper borrowMapper;
 
     private final ReturnMapper returnMapper;
@@ -39,35 +47,57 @@ public class LoanService {
 
     private final BorrowAssembler borrowAssembler;
 
-    private static final BigDecimal DAILY_FINE_RATE = new BigDecimal("500");
+    private final MemberLoanStateCache memberLoanStateCache;
+
+    private final MemberSummaryRepository memberSummaryRepository;
+
+    private final ChapterAvailabilityIndex chapterAvailabilityIndex;
+
+    private final LoanMetrics loanMetrics;
 
     /**
-     * 貸し出しの本を返却の機能性です。
-     * 予定されたの返すの日程を超えちゃうなら何日で数えて罰金を判断されて科します。一日の遅らすに従って五百円の金額が定められたです。
+     * 会員に本を貸し出します。貸出期間は今日から二週間です。
+     * 会員の貸出状況で貸出の可否をチェックし、会員の集計の行ロックを取って貸出を記録してから、本のチャプターを確保して貸出のヘッダーと本の明細を保存し、貸出のイベントを発行します。
+     * 同じ会員の同時の貸出は一件だけが成功し、他は未返却の貸出ありとして断ります。キャッシュが古くても、その日にすでに貸し出した会員は一日の上限として断ります。貸出中のチャプターを含む場合も断ります。
+     * 各段階の所要時間と断った理由を {@link LoanMetrics} に記録します。
      *
      * @param memberCardUUID the member card uuid
-     * @param booksArrayJson the member card uuid
-     * @return the response entity
+     * @param booksArrayJson the books to borrow
+     * @return the borrow summary
      */
     @Transactional
     public BorrowCreatedSummaryDTO borrowBooks(UUID memberCardUUID, BookPayload booksArrayJson) {
-        borrowPolicy.validateNoActiveBorrow(borrowRepository.getBookMemberCardByBook(memberCardUUID));
-        boolean exists = borrowRepository.existsByMemberCardUuid(memberCardUUID);
-        Boolean limitReached = borrowRepository.checkLatestBorrowDate(memberCardUUID);
-        borrowPolicy.validateDailyLimit(exists, limitReached);
-        UUID borrowUuid = UUID.randomUUID();
-        LocalDate startDate = LocalDate.now();
-        LocalDate endDate = startDate.plusWeeks(2);
-        BorrowAggregate aggregate = borrowAssembler.toAggregate(borrowUuid, memberCardUUID, startDate, endDate, booksArrayJson.data());
-        List<Borrow> entities = borrowMapper.toEntities(aggregate);
-        borrowRepository.saveAll(entities);
-        borrowEventPublisher.publishBorrowCreated(aggregate, entities);
-        return borrowMapper.toSummaryDTO(aggregate);
+        LoanMetrics.Recording recording = loanMetrics.start(LoanMetrics.BORROW, "eligibility");
+        try {
+            LocalDate startDate = LocalDate.now();
+            borrowPolicy.validateEligibility(memberLoanStateCache.get(memberCardUUID), startDate);
+            UUID borrowUuid = UUID.randomUUID();
+            LocalDate endDate = startDate.plusWeeks(2);
+            BorrowAggregate aggregate = borrowAssembler.toAggregate(borrowUuid, memberCardUUID, startDate, endDate, booksArrayJson.data());
+            recording.phase("record");
+            borrowPolicy.validateBorrowRecorded(memberSummaryRepository.recordBorrow(memberCardUUID, startDate, endDate), memberCardUUID, startDate, memberSummaryRepository::findEligibility);
+            chapterAvailabilityIndex.reserve(booksArrayJson.data());
+            recording.phase("save");
+            List<BorrowItem> items = borrowMapper.toItems(aggregate);
+            borrowRepository.save(borrowMapper.toEntity(aggregate));
+            borrowItemRepository.saveAll(items);
+            memberLoanStateCache.recordBorrow(memberCardUUID, startDate);
+            recording.phase("publish");
+            borrowEventPublisher.publishBorrowCreated(aggregate, items);
+            recording.items(items.size());
+            recording.succeeded();
+            return borrowMapper.toSummaryDTO(aggregate);
+        } catch (RuntimeException ex) {
+            recording.failed(ex);
+            throw ex;
+        }
     }
 
     /**
      * 貸し出しの本を返却の機能性です。
      * 予定されたの返すの日程を超えちゃうなら何日で数えて罰金を判断されて科します。一日の遅らすに従って五百円の金額が定められたです。
+     * 返却の問い合わせには会員の集計から求めた未返却の貸出の開始日の下限を渡し、それより前の月のパーティションは読みません。
+     * 貸出の読み込み・返却の記録・イベントの発行の各段階の所要時間と、遅延日数を {@link LoanMetrics} に記録します。
      *
      * @param memberCardUUID the member card uuid
      * @param borrowUUID     the borrow uuid
@@ -75,17 +105,32 @@ public class LoanService {
      */
     @Transactional
     public ReturnBorrowCreatedSummaryDTO returnBorrowBooks(UUID memberCardUUID, UUID borrowUUID, BookPayload booksArrayJson) {
-        LocalDate currentDate = LocalDate.now();
-        List<Borrow> borrows = borrowRepository.getBorrowsByBorrowUuidAndMemberCardUuidAndBorrowReturnDateIsNull(borrowUUID, memberCardUUID);
-        Borrow borrow = returnBorrowPolicy.validateAndGetBorrow(borrows);
-        long daysLate = returnBorrowPolicy.calculateDaysLate(borrow.getBorrowEndDate(), currentDate);
-        boolean isLate = returnBorrowPolicy.isLate(daysLate);
-        BigDecimal fineAmount = returnBorrowPolicy.calculateFine(daysLate, DAILY_FINE_RATE);
-        borrowRepository.setReturnDateForBorrows(borrows, currentDate);
-        List<LoanItemDetails> items = booksArrayJson.data().stream().map(b -> new LoanItemDetails(b.book_uuid(), b.chapter_uuid())).toList();
-        ReturnBorrowAggregate aggregate = returnBorrowAssembler.toAggregate(borrow, borrowUUID, memberCardUUID, currentDate, isLate, daysLate, fineAmount, items);
-        borrowEventPublisher.publishReturnBorrowCreated(aggregate, borrows);
-        return returnMapper.toSummaryDTO(aggregate);
+        LoanMetrics.Recording recording = loanMetrics.start(LoanMetrics.RETURN, "lookup");
+        try {
+            LocalDate currentDate = LocalDate.now();
+            LocalDate from = memberSummaryRepository.findActiveLoansFrom(memberCardUUID).orElse(currentDate);
+            List<Borrow> borrows = borrowRepository.returnActiveBorrows(borrowUUID, memberCardUUID, from, currentDate);
+            Borrow borrow = returnBorrowPolicy.validateAndGetBorrow(borrows);
+            List<BorrowItem> borrowItems = borrowItemRepository.findByBorrowUuidAndBorrowStartDate(borrowUUID, borrow.getBorrowStartDate());
+            recording.phase("record");
+            long daysLate = returnBorrowPolicy.calculateDaysLate(borrow.getBorrowEndDate(), currentDate);
+            boolean isLate = returnBorrowPolicy.isLate(daysLate);
+            BigDecimal fineAmount = returnBorrowPolicy.calculateFine(daysLate, ReturnBorrowPolicy.DAILY_FINE_RATE);
+            memberSummaryRepository.recordReturn(memberCardUUID, from);
+            memberLoanStateCache.recordReturn(memberCardUUID);
+            chapterAvailabilityIndex.release(borrowItems);
+            recording.phase("publish");
+            List<LoanItemDetails> items = booksArrayJson.data().stream().map(b -> new LoanItemDetails(b.book_uuid(), b.chapter_uuid())).toList();
+            ReturnBorrowAggregate aggregate = returnBorrowAssembler.toAggregate(borrow, borrowUUID, memberCardUUID, currentDate, isLate, daysLate, fineAmount, items);
+            borrowEventPublisher.publishReturnBorrowCreated(aggregate, borrowItems);
+            recording.items(borrowItems.size());
+            recording.daysLate(daysLate);
+            recording.succeeded();
+            return returnMapper.toSummaryDTO(aggregate);
+        } catch (RuntimeException ex) {
+            recording.failed(ex);
+            throw ex;
+        }
     }
 
 }
\ No newline at end of file
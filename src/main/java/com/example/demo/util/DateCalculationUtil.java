@@ -2,17 +2,21 @@ package com.example.demo.util;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Set;
 
 public final class DateCalculationUtil {
 
+    /**
+     * The default library calendar: closed on Mondays and Sundays, no holidays.
+     */
+    public static final WorkingDayCalendar DEFAULT_CALENDAR = new WorkingDayCalendar(Set.of(DayOfWeek.MONDAY, DayOfWeek.SUNDAY), List.of());
 
     private DateCalculationUtil() {
     }
 
     /**
-     * Calculates the number of days between two dates, excluding specified days of the week.
+     * Calculates the number of days between two dates, excluding Mondays and Sundays.
      * The calculation is inclusive of the end date.
      *
      * @param startDate The start date (e.g., the day after the due date).
@@ -20,12 +24,6 @@ public final class DateCalculationUtil {
      * @return The count of valid days.
      */
     public static long calculateWorkingDays(LocalDate startDate, LocalDate endDate) {
-        if (startDate.isAfter(endDate)) {
-            return 0;
-        }
-        Set<DayOfWeek> daysToSkip = Set.of(DayOfWeek.MONDAY, DayOfWeek.SUNDAY);
-        long totalDays = ChronoUnit.DAYS.between(startDate, endDate.plusDays(1));
-        long skippedDays = startDate.datesUntil(endDate.plusDays(1)).filter(date -> daysToSkip.contains(date.getDayOfWeek())).count();
-        return totalDays - skippedDays;
+        return DEFAULT_CALENDAR.countWorkingDays(startDate, endDate);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.example.demo.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Counts library working days between two dates in constant time.
+ * Weekly closing days are handled arithmetically (whole weeks plus a precomputed remainder table),
+ * and holidays are kept as one bitset per year, indexed by day of year, so a range query is a popcount.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class WorkingDayCalendar {
+
+    private static final int DAYS_PER_WEEK = 7;
+
+    private static final int WORDS_PER_YEAR = 6;
+
+    private final int openDaysPerWeek;
+
+    /**
+     * openDaysFrom[d][n] is the number of open days in the n consecutive days starting on weekday d.
+     */
+    private final int[][] openDaysFrom = new int[DAYS_PER_WEEK][DAYS_PER_WEEK];
+
+    /**
+     * Holidays that fall on otherwise open weekdays, so they are never subtracted twice.
+     */
+    private final NavigableMap<Integer, long[]> holidaysByYear = new TreeMap<>();
+
+    public WorkingDayCalendar(Set<DayOfWeek> closedDays, Collection<LocalDate> holidays) {
+        boolean[] open = new boolean[DAYS_PER_WEEK];
+        for (DayOfWeek day : DayOfWeek.values()) {
+            open[day.ordinal()] = !closedDays.contains(day);
+        }
+        for (int start = 0; start < DAYS_PER_WEEK; start++) {
+            for (int length = 1; length < DAYS_PER_WEEK; length++) {
+                openDaysFrom[start][length] = openDaysFrom[start][length - 1] + (open[(start + length - 1) % DAYS_PER_WEEK] ? 1 : 0);
+            }
+        }
+        openDaysPerWeek = openDaysFrom[0][DAYS_PER_WEEK - 1] + (open[DAYS_PER_WEEK - 1] ? 1 : 0);
+        holidays.stream()
+                .filter(date -> open[date.getDayOfWeek().ordinal()])
+                .forEach(date -> {
+                    int dayIndex = date.getDayOfYear() - 1;
+                    holidaysByYear.computeIfAbsent(date.getYear(), year -> new long[WORDS_PER_YEAR])[dayIndex >>> 6] |= 1L << dayIndex;
+                });
+    }
+
+    /**
+     * Counts the working days between two dates, inclusive of both ends.
+     *
+     * @param startDate The first day of the range.
+     * @param endDate   The last day of the range.
+     * @return The count of working days, or 0 when the start date is after the end date.
+     */
+    public long countWorkingDays(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return 0;
+        }
+        long totalDays = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        long openDays = totalDays / DAYS_PER_WEEK * openDaysPerWeek + openDaysFrom[startDate.getDayOfWeek().ordinal()][(int) (totalDays % DAYS_PER_WEEK)];
+        return openDays - countHolidays(startDate, endDate);
+    }
+
+    private long countHolidays(LocalDate startDate, LocalDate endDate) {
+        if (holidaysByYear.isEmpty()) {
+            return 0;
+        }
+        long count = 0;
+        for (Map.Entry<Integer, long[]> entry : holidaysByYear.subMap(startDate.getYear(), true, endDate.getYear(), true).entrySet()) {
+            int year = entry.getKey();
+            int from = year == startDate.getYear() ? startDate.getDayOfYear() - 1 : 0;
+            int to = year == endDate.getYear() ? endDate.getDayOfYear() - 1 : Year.of(year).length() - 1;
+            count += countBits(entry.getValue(), from, to);
+        }
+        return count;
+    }
+
+    private static long countBits(long[] words, int from, int to) {
+        int first = from >>> 6;
+        int last = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (first == last) {
+            return Long.bitCount(words[first] & firstMask & lastMask);
+        }
+        long count = Long.bitCount(words[first] & firstMask) + Long.bitCount(words[last] & lastMask);
+        for (int word = first + 1; word < last; word++) {
+            count += Long.bitCount(words[word]);
+        }
+        return count;
+    }
+}
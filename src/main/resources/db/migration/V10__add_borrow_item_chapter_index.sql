@@ -0,0 +1,2 @@
+-- 貸出中のチャプターの索引が古くなっていないかを、本とチャプターで未返却の貸出の明細を引いて確かめるための索引です。
+CREATE INDEX IF NOT EXISTS borrow_item_chapter_idx ON borrow_item (book_uuid, chapter_uuid);
@@ -0,0 +1,2 @@
+-- アウトボックスの id は配信順に使うため、インスタンスごとにまとめて確保せず一件ずつ採番します（allocationSize = 1）。
+ALTER SEQUENCE outbox_event_sequence INCREMENT BY 1;
@@ -0,0 +1,2 @@
+-- 返却と貸出中のチャプターの確認で、未返却の貸出の開始日の下限を全会員の最も早い返却予定日から求めるための索引です。
+CREATE INDEX IF NOT EXISTS member_summary_earliest_due_date_idx ON member_summary (earliest_due_date);
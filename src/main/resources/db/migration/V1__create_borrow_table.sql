@@ -0,0 +1,16 @@
+-- spring.jpa.hibernate.ddl-auto=update が作成していた貸出テーブルです。
+-- 既存のデータベースでは baseline-on-migrate によりこのバージョンは適用済みとして扱われます。
+CREATE SEQUENCE IF NOT EXISTS book_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS borrow
+(
+    id                 INTEGER NOT NULL,
+    book_uuid          UUID    NOT NULL,
+    chapter_uuid       UUID    NOT NULL,
+    member_card_uuid   UUID    NOT NULL,
+    borrow_uuid        UUID    NOT NULL,
+    borrow_start_date  DATE    NOT NULL,
+    borrow_end_date    DATE    NOT NULL,
+    borrow_return_date DATE,
+    CONSTRAINT borrow_pkey PRIMARY KEY (id)
+);
@@ -0,0 +1,13 @@
+CREATE SEQUENCE IF NOT EXISTS outbox_event_sequence START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox_event
+(
+    id          BIGINT       NOT NULL,
+    event_type  VARCHAR(255) NOT NULL,
+    event_id    UUID         NOT NULL,
+    message_key UUID         NOT NULL,
+    payload     TEXT         NOT NULL,
+    created_at  TIMESTAMP    NOT NULL,
+    CONSTRAINT outbox_event_pkey PRIMARY KEY (id),
+    CONSTRAINT outbox_event_event_id_key UNIQUE (event_id)
+);
@@ -0,0 +1,3 @@
+-- エンティティの allocationSize = 50 と一致させます。
+ALTER SEQUENCE book_sequence INCREMENT BY 50;
+ALTER SEQUENCE outbox_event_sequence INCREMENT BY 50;
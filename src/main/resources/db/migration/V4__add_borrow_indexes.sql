@@ -0,0 +1,8 @@
+-- 未返却の貸出の有無（findMemberEligibility の EXISTS）
+CREATE INDEX IF NOT EXISTS borrow_active_member_idx ON borrow (member_card_uuid) WHERE borrow_return_date IS NULL;
+
+-- 会員ごとの最新の貸出日（findMemberEligibility の MAX(borrow_start_date)）
+CREATE INDEX IF NOT EXISTS borrow_member_start_date_idx ON borrow (member_card_uuid, borrow_start_date DESC);
+
+-- 返却対象の貸出の取得
+CREATE INDEX IF NOT EXISTS borrow_uuid_member_idx ON borrow (borrow_uuid, member_card_uuid);
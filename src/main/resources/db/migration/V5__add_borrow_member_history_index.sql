@@ -0,0 +1,5 @@
+-- 会員ごとの貸出履歴のキーセットページング（findLoanHistoryBefore の (borrow_start_date, id) < (?, ?)）
+-- 先頭の列が同じため、findMemberEligibility の MAX(borrow_start_date) もこの索引を使います。
+CREATE INDEX IF NOT EXISTS borrow_member_history_idx ON borrow (member_card_uuid, borrow_start_date DESC, id DESC);
+
+DROP INDEX IF EXISTS borrow_member_start_date_idx;
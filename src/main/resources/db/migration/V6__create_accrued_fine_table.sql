@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS accrued_fine
+(
+    borrow_uuid      UUID           NOT NULL,
+    member_card_uuid UUID           NOT NULL,
+    days_late        BIGINT         NOT NULL,
+    fine_amount      NUMERIC(12, 0) NOT NULL,
+    accrued_through  DATE           NOT NULL,
+    updated_at       TIMESTAMP      NOT NULL,
+    CONSTRAINT accrued_fine_pkey PRIMARY KEY (borrow_uuid)
+);
+
+-- 会員ごとの未払いの延滞金の集計
+CREATE INDEX IF NOT EXISTS accrued_fine_member_idx ON accrued_fine (member_card_uuid);
+
+-- 延滞金の計上対象（未返却で返却予定日を過ぎた貸出）の読み出し
+CREATE INDEX IF NOT EXISTS borrow_open_end_date_idx ON borrow (borrow_end_date) WHERE borrow_return_date IS NULL;
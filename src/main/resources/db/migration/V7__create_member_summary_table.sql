@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS member_summary
+(
+    member_card_uuid  UUID    NOT NULL,
+    active_loan_count INTEGER NOT NULL,
+    last_borrow_date  DATE    NOT NULL,
+    earliest_due_date DATE,
+    CONSTRAINT member_summary_pkey PRIMARY KEY (member_card_uuid)
+);
+
+-- 既存の貸出から一回の走査で作成（MemberSummaryRepository.rebuild と同じ集計）
+INSERT INTO member_summary (member_card_uuid, active_loan_count, last_borrow_date, earliest_due_date)
+SELECT b.member_card_uuid,
+       COUNT(DISTINCT b.borrow_uuid) FILTER (WHERE b.borrow_return_date IS NULL),
+       MAX(b.borrow_start_date),
+       MIN(b.borrow_end_date) FILTER (WHERE b.borrow_return_date IS NULL)
+FROM borrow b
+GROUP BY b.member_card_uuid
+ON CONFLICT (member_card_uuid) DO NOTHING;
@@ -0,0 +1,61 @@
+-- 貸出テーブルを borrow_start_date の月ごとのレンジパーティションに作り直します。
+-- 主キーにはパーティションキーを含める必要があるため (id, borrow_start_date) とします。id は引き続き book_sequence で一意に採番されます。
+ALTER TABLE borrow RENAME TO borrow_unpartitioned;
+
+CREATE TABLE borrow
+(
+    id                 INTEGER NOT NULL,
+    book_uuid          UUID    NOT NULL,
+    chapter_uuid       UUID    NOT NULL,
+    member_card_uuid   UUID    NOT NULL,
+    borrow_uuid        UUID    NOT NULL,
+    borrow_start_date  DATE    NOT NULL,
+    borrow_end_date    DATE    NOT NULL,
+    borrow_return_date DATE
+) PARTITION BY RANGE (borrow_start_date);
+
+-- month を含む月のパーティション（borrow_pYYYYMM）がなければ作成します。BorrowPartitionMaintenanceJob も使います。
+CREATE OR REPLACE FUNCTION create_borrow_partition(month DATE) RETURNS TEXT AS
+$$
+DECLARE
+    from_date      DATE := date_trunc('month', month)::DATE;
+    partition_name TEXT := 'borrow_p' || to_char(from_date, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF borrow FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, from_date, (from_date + INTERVAL '1 month')::DATE);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 最も古い貸出の月から三か月先までのパーティション
+DO
+$$
+DECLARE
+    month DATE := COALESCE((SELECT date_trunc('month', MIN(borrow_start_date))::DATE FROM borrow_unpartitioned), date_trunc('month', current_date)::DATE);
+BEGIN
+    WHILE month <= date_trunc('month', current_date) + INTERVAL '3 months'
+        LOOP
+            PERFORM create_borrow_partition(month);
+            month := (month + INTERVAL '1 month')::DATE;
+        END LOOP;
+END;
+$$;
+
+-- 対応する月のパーティションがない行の受け皿です。通常は空のままです。
+CREATE TABLE IF NOT EXISTS borrow_default PARTITION OF borrow DEFAULT;
+
+INSERT INTO borrow (id, book_uuid, chapter_uuid, member_card_uuid, borrow_uuid, borrow_start_date, borrow_end_date, borrow_return_date)
+SELECT id, book_uuid, chapter_uuid, member_card_uuid, borrow_uuid, borrow_start_date, borrow_end_date, borrow_return_date
+FROM borrow_unpartitioned;
+
+DROP TABLE borrow_unpartitioned;
+
+-- 索引はデータの移動後に作成します。親テーブルに作成した索引は各パーティションにも作成されます。
+ALTER TABLE borrow ADD CONSTRAINT borrow_pkey PRIMARY KEY (id, borrow_start_date);
+CREATE INDEX IF NOT EXISTS borrow_active_member_idx ON borrow (member_card_uuid) WHERE borrow_return_date IS NULL;
+CREATE INDEX IF NOT EXISTS borrow_uuid_member_idx ON borrow (borrow_uuid, member_card_uuid);
+CREATE INDEX IF NOT EXISTS borrow_member_history_idx ON borrow (member_card_uuid, borrow_start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS borrow_open_end_date_idx ON borrow (borrow_end_date) WHERE borrow_return_date IS NULL;
+
+-- 切り離した古いパーティションの移動先
+CREATE SCHEMA IF NOT EXISTS borrow_archive;
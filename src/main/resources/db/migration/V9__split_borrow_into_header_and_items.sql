@@ -0,0 +1,78 @@
+-- 貸出を一貸出一行のヘッダー（borrow）と本ごとの明細（borrow_item）に分けます。
+-- これまでは本ごとに会員・貸出 UUID・日付を繰り返して保存していたため、返却では本の冊数だけ行を書き換えていました。
+-- 分けた後の返却はヘッダーの一行だけを書き換えます。
+CREATE SEQUENCE IF NOT EXISTS borrow_item_sequence START WITH 1 INCREMENT BY 50;
+
+-- 明細はヘッダーと同じ月のパーティションに入り、同じ月ごとに切り離せるよう borrow_start_date を持ちます。
+CREATE TABLE borrow_item
+(
+    id                INTEGER NOT NULL,
+    borrow_uuid       UUID    NOT NULL,
+    borrow_start_date DATE    NOT NULL,
+    book_uuid         UUID    NOT NULL,
+    chapter_uuid      UUID    NOT NULL
+) PARTITION BY RANGE (borrow_start_date);
+
+-- month を含む月のヘッダーと明細のパーティション（borrow_pYYYYMM と borrow_item_pYYYYMM）がなければ作成し、ヘッダーのパーティション名を返します。
+CREATE OR REPLACE FUNCTION create_borrow_partition(month DATE) RETURNS TEXT AS
+$$
+DECLARE
+    from_date  DATE := date_trunc('month', month)::DATE;
+    until_date DATE := (from_date + INTERVAL '1 month')::DATE;
+    suffix     TEXT := to_char(from_date, 'YYYYMM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF borrow FOR VALUES FROM (%L) TO (%L)',
+                   'borrow_p' || suffix, from_date, until_date);
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF borrow_item FOR VALUES FROM (%L) TO (%L)',
+                   'borrow_item_p' || suffix, from_date, until_date);
+    RETURN 'borrow_p' || suffix;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 既存のヘッダーのパーティションと同じ月の明細のパーティション
+DO
+$$
+DECLARE
+    partition_name TEXT;
+BEGIN
+    FOR partition_name IN SELECT c.relname
+                          FROM pg_inherits i
+                                   JOIN pg_class c ON c.oid = i.inhrelid
+                          WHERE i.inhparent = 'borrow'::regclass
+                            AND c.relname ~ '^borrow_p[0-9]{6}$'
+        LOOP
+            PERFORM create_borrow_partition(to_date(substr(partition_name, 9), 'YYYYMM'));
+        END LOOP;
+END;
+$$;
+
+CREATE TABLE IF NOT EXISTS borrow_item_default PARTITION OF borrow_item DEFAULT;
+
+-- 明細は元の行の id を引き継ぐため、貸出履歴のカーソル (borrowStartDate, id) は移行後も同じ位置を指します。
+INSERT INTO borrow_item (id, borrow_uuid, borrow_start_date, book_uuid, chapter_uuid)
+SELECT id, borrow_uuid, borrow_start_date, book_uuid, chapter_uuid
+FROM borrow;
+
+-- 引き継いだ id の続きから採番します。Hibernate は取得した値を上限とする 50 件の範囲を使います。
+SELECT setval('borrow_item_sequence', MAX(id))
+FROM borrow_item
+HAVING MAX(id) IS NOT NULL;
+
+-- 貸出ごとに id が最も小さい行をヘッダーとして残します。同じ貸出の行は同じ月のパーティションにあります。
+DELETE
+FROM borrow b
+    USING borrow keep
+WHERE keep.borrow_uuid = b.borrow_uuid
+  AND keep.id < b.id;
+
+-- 列の削除は既存の行を書き換えないため、既存のパーティションの領域は VACUUM FULL などで書き直すか、保持期間を過ぎて切り離されるまで残ります。
+ALTER TABLE borrow
+    DROP COLUMN book_uuid,
+    DROP COLUMN chapter_uuid;
+
+-- 貸出 UUID はヘッダーで一意です。一意索引にはパーティションキーを含める必要があります。
+DROP INDEX IF EXISTS borrow_uuid_member_idx;
+CREATE UNIQUE INDEX IF NOT EXISTS borrow_uuid_key ON borrow (borrow_uuid, borrow_start_date);
+
+ALTER TABLE borrow_item ADD CONSTRAINT borrow_item_pkey PRIMARY KEY (id, borrow_start_date);
+CREATE INDEX IF NOT EXISTS borrow_item_borrow_idx ON borrow_item (borrow_uuid, borrow_start_date);
@@ -0,0 +1,79 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.BookPayload;
+import com.example.demo.dto.BorrowCreatedSummaryDTO;
+import com.example.demo.dto.ReturnBorrowCreatedSummaryDTO;
+import com.example.demo.reactive.ReactiveBorrowController;
+import com.example.demo.reactive.ReactiveLoanService;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBorrowControllerTest {
+
+    @Mock
+    private ReactiveLoanService loanService;
+
+    @Mock
+    private Jwt jwt;
+
+    @InjectMocks
+    private ReactiveBorrowController controller;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    private final BookPayload bookPayload = Instancio.create(BookPayload.class);
+
+    @Test
+    void postBorrowBooks_should_return_summary() {
+        BorrowCreatedSummaryDTO summary = Instancio.create(BorrowCreatedSummaryDTO.class);
+        when(jwt.getClaimAsString("member_card_uuid")).thenReturn(memberCardUuid.toString());
+        when(loanService.borrowBooks(memberCardUuid, bookPayload)).thenReturn(Mono.just(summary));
+
+        StepVerifier.create(controller.postBorrowBooks(bookPayload, jwt, memberCardUuid))
+                .assertNext(response -> {
+                    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+                    assertThat(response.getBody()).isEqualTo(summary);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void returnBorrowBooks_should_return_summary() {
+        UUID borrowUuid = UUID.randomUUID();
+        ReturnBorrowCreatedSummaryDTO summary = Instancio.create(ReturnBorrowCreatedSummaryDTO.class);
+        when(jwt.getClaimAsString("member_card_uuid")).thenReturn(memberCardUuid.toString());
+        when(loanService.returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload)).thenReturn(Mono.just(summary));
+
+        StepVerifier.create(controller.returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload, jwt))
+                .assertNext(response -> assertThat(response.getBody()).isEqualTo(summary))
+                .verifyComplete();
+    }
+
+    @Test
+    void should_reject_member_card_mismatch() {
+        when(jwt.getClaimAsString("member_card_uuid")).thenReturn(UUID.randomUUID().toString());
+
+        ResponseStatusException borrow = assertThrows(ResponseStatusException.class, () -> controller.postBorrowBooks(bookPayload, jwt, memberCardUuid));
+        ResponseStatusException returned = assertThrows(ResponseStatusException.class, () -> controller.returnBorrowBooks(memberCardUuid, UUID.randomUUID(), bookPayload, jwt));
+
+        assertThat(borrow.getStatus()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(returned.getStatus()).isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(loanService);
+    }
+}
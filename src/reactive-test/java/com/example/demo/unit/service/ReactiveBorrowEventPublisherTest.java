@@ -0,0 +1,90 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.BorrowAggregate;
+import com.example.demo.dto.BorrowCreatedEvent;
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.dto.ReturnBorrowAggregate;
+import com.example.demo.dto.ReturnCreatedEvent;
+import com.example.demo.event.EventType;
+import com.example.demo.event.publisher.KafkaEventSender;
+import com.example.demo.factory.BorrowEventFactory;
+import com.example.demo.factory.ReturnBorrowEventFactory;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.reactive.ReactiveBorrowEventPublisher;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.SenderResult;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveBorrowEventPublisherTest {
+
+    @Mock
+    private ReactiveKafkaProducerTemplate<UUID, Object> kafkaProducerTemplate;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<UUID, Object>> recordCaptor;
+
+    private ReactiveBorrowEventPublisher publisher;
+
+    private BorrowAggregate aggregate;
+
+    private List<BorrowItem> entities;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new ReactiveBorrowEventPublisher(kafkaProducerTemplate, new BorrowEventFactory(new BorrowMapper()), new ReturnBorrowEventFactory(new ReturnMapper()));
+        LocalDate startDate = LocalDate.of(2024, 4, 1);
+        aggregate = new BorrowAggregate(UUID.randomUUID(), UUID.randomUUID(), startDate, startDate.plusWeeks(2), List.of(new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID())));
+        entities = new BorrowMapper().toItems(aggregate);
+    }
+
+    @Test
+    void publishBorrowCreated_should_send_only_on_subscribe_keyed_by_member_card() {
+        when(kafkaProducerTemplate.send(recordCaptor.capture())).thenReturn(Mono.just(mock(SenderResult.class)));
+
+        Mono<Void> publish = publisher.publishBorrowCreated(aggregate, entities);
+        verifyNoInteractions(kafkaProducerTemplate);
+        StepVerifier.create(publish).verifyComplete();
+
+        ProducerRecord<UUID, Object> record = recordCaptor.getValue();
+        assertThat(record.topic()).isEqualTo(EventType.BORROW_CREATED.getTopic());
+        assertThat(record.key()).isEqualTo(aggregate.memberCardUuid());
+        BorrowCreatedEvent event = (BorrowCreatedEvent) record.value();
+        assertThat(new String(record.headers().lastHeader(KafkaEventSender.EVENT_ID_HEADER).value(), StandardCharsets.UTF_8)).isEqualTo(event.metadata().event_uuid().toString());
+    }
+
+    @Test
+    void publishReturnBorrowCreated_should_complete_even_when_delivery_fails() {
+        ReturnBorrowAggregate returnAggregate = new ReturnBorrowAggregate(aggregate.borrowUuid(), aggregate.memberCardUuid(), "2024-04-01", "2024-04-15", "2024-04-18",
+                true, 2L, new BigDecimal("1000"), aggregate.items());
+        when(kafkaProducerTemplate.send(recordCaptor.capture())).thenReturn(Mono.error(new TimeoutException("metadata")));
+
+        StepVerifier.create(publisher.publishReturnBorrowCreated(returnAggregate, entities)).verifyComplete();
+
+        assertThat(recordCaptor.getValue().topic()).isEqualTo(EventType.RETURN_BORROW_CREATED.getTopic());
+        assertThat(recordCaptor.getValue().value()).isInstanceOf(ReturnCreatedEvent.class);
+        verify(kafkaProducerTemplate, times(1)).send(any(ProducerRecord.class));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.dto.MemberLoanState;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.reactive.ReactiveBorrowRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 会員の集計の更新は PostgreSQL 専用の SQL のため、組み込みの PostgreSQL に Flyway でマイグレーションを適用して検証します。
+ */
+class ReactiveBorrowRepositoryTest {
+
+    private static EmbeddedPostgres postgres;
+
+    private static ConnectionFactory connectionFactory;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    private final UUID borrowUuid = UUID.randomUUID();
+
+    private final LocalDate startDate = LocalDate.of(2024, 4, 1);
+
+    private ReactiveBorrowRepository repository;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        connectionFactory = ConnectionFactories.get("r2dbc:postgresql://postgres@localhost:" + postgres.getPort() + "/postgres");
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReactiveBorrowRepository(DatabaseClient.create(connectionFactory));
+    }
+
+    @Test
+    void should_report_member_without_history() {
+        StepVerifier.create(repository.findMemberEligibility(memberCardUuid))
+                .expectNext(new MemberLoanState(false, false, null))
+                .verifyComplete();
+    }
+
+    @Test
+    void should_insert_loan_header_and_items_and_return_it_once() {
+        StepVerifier.create(repository.save(borrow(), List.of(item(), item()))).expectNext(3L).verifyComplete();
+        StepVerifier.create(repository.recordBorrow(memberCardUuid, startDate, startDate.plusWeeks(2))).expectNext(1).verifyComplete();
+        StepVerifier.create(repository.recordBorrow(memberCardUuid, startDate.plusDays(1), startDate.plusDays(1).plusWeeks(2))).expectNext(0).verifyComplete();
+
+        StepVerifier.create(repository.findMemberEligibility(memberCardUuid))
+                .expectNext(new MemberLoanState(true, true, startDate))
+                .verifyComplete();
+        StepVerifier.create(repository.findActiveLoansFrom(memberCardUuid)).expectNext(startDate).verifyComplete();
+        StepVerifier.create(repository.findActiveBorrows(borrowUuid, memberCardUuid, startDate.plusDays(1)).collectList())
+                .assertNext(borrows -> assertThat(borrows).isEmpty())
+                .verifyComplete();
+        StepVerifier.create(repository.findActiveBorrows(borrowUuid, memberCardUuid, startDate).collectList())
+                .assertNext(borrows -> assertThat(borrows).singleElement().extracting(Borrow::getBorrowEndDate).isEqualTo(startDate.plusWeeks(2)))
+                .verifyComplete();
+        StepVerifier.create(repository.findItems(borrowUuid, startDate).collectList())
+                .assertNext(items -> assertThat(items).hasSize(2).extracting(BorrowItem::getId).doesNotHaveDuplicates())
+                .verifyComplete();
+        StepVerifier.create(repository.setReturnDate(borrowUuid, memberCardUuid, startDate, startDate.plusDays(3))).expectNext(1).verifyComplete();
+        StepVerifier.create(repository.setReturnDate(borrowUuid, memberCardUuid, startDate, startDate.plusDays(3))).expectNext(0).verifyComplete();
+        StepVerifier.create(repository.recordReturn(memberCardUuid, startDate)).verifyComplete();
+        StepVerifier.create(repository.findActiveLoansFrom(memberCardUuid)).verifyComplete();
+        StepVerifier.create(repository.findMemberEligibility(memberCardUuid))
+                .expectNext(new MemberLoanState(false, true, startDate))
+                .verifyComplete();
+    }
+
+    @Test
+    void should_find_chapters_of_active_loans_only() {
+        BorrowItem lent = item();
+        StepVerifier.create(repository.save(borrow(), List.of(lent))).expectNext(2L).verifyComplete();
+        StepVerifier.create(repository.recordBorrow(memberCardUuid, startDate, startDate.plusWeeks(2))).expectNext(1).verifyComplete();
+        LoanItemDetails lentChapter = new LoanItemDetails(lent.getBookUuid(), lent.getChapterUuid());
+        LoanItemDetails otherChapter = new LoanItemDetails(lent.getBookUuid(), UUID.randomUUID());
+
+        StepVerifier.create(repository.findActiveLoansFrom()).assertNext(from -> assertThat(from).isBeforeOrEqualTo(startDate)).verifyComplete();
+        StepVerifier.create(repository.existsActiveChapter(List.of(otherChapter, lentChapter), startDate)).expectNext(true).verifyComplete();
+        StepVerifier.create(repository.existsActiveChapter(List.of(otherChapter), startDate)).expectNext(false).verifyComplete();
+        StepVerifier.create(repository.existsActiveChapter(List.of(lentChapter), startDate.plusDays(1))).expectNext(false).verifyComplete();
+        StepVerifier.create(repository.setReturnDate(borrowUuid, memberCardUuid, startDate, startDate.plusDays(3))).expectNext(1).verifyComplete();
+        StepVerifier.create(repository.existsActiveChapter(List.of(lentChapter), startDate)).expectNext(false).verifyComplete();
+    }
+
+    private Borrow borrow() {
+        return Borrow.builder().memberCardUuid(memberCardUuid).borrowUuid(borrowUuid).borrowStartDate(startDate).borrowEndDate(startDate.plusWeeks(2)).build();
+    }
+
+    private BorrowItem item() {
+        return BorrowItem.builder().borrowUuid(borrowUuid).borrowStartDate(startDate).bookUuid(UUID.randomUUID()).chapterUuid(UUID.randomUUID()).build();
+    }
+}
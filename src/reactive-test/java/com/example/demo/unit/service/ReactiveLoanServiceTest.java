@@ -0,0 +1,239 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.*;
+import com.example.demo.exception.ChapterAlreadyLentException;
+import com.example.demo.exception.DailyBorrowLimitExceededException;
+import com.example.demo.exception.UnreturnedBorrowExistsException;
+import com.example.demo.mapper.BorrowAssembler;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.mapper.ReturnBorrowAssembler;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.policy.BorrowPolicy;
+import com.example.demo.policy.ReturnBorrowPolicy;
+import com.example.demo.reactive.ReactiveBorrowEventPublisher;
+import com.example.demo.reactive.ReactiveBorrowRepository;
+import com.example.demo.reactive.ReactiveLoanService;
+import com.example.demo.util.WorkingDayCalendar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveLoanServiceTest {
+
+    @Mock
+    private ReactiveBorrowRepository borrowRepository;
+
+    @Mock
+    private ReactiveBorrowEventPublisher borrowEventPublisher;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private ReactiveLoanService loanService;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    private final UUID borrowUuid = UUID.randomUUID();
+
+    private final BookPayload payload = new BookPayload(List.of(new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID())));
+
+    @BeforeEach
+    void setUp() {
+        ReturnMapper returnMapper = new ReturnMapper();
+        loanService = new ReactiveLoanService(borrowRepository, new BorrowMapper(), returnMapper, new ReturnBorrowPolicy(new WorkingDayCalendar(Set.of(), List.of())),
+                new BorrowPolicy(), borrowEventPublisher, new ReturnBorrowAssembler(), new BorrowAssembler(), transactionalOperator);
+    }
+
+    @Test
+    void borrowBooks_should_insert_in_transaction_then_publish() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.findMemberEligibility(memberCardUuid)).thenReturn(Mono.just(MemberLoanState.NONE));
+        when(borrowRepository.save(any(), anyList())).thenReturn(Mono.just(1L));
+        when(borrowRepository.recordBorrow(memberCardUuid, LocalDate.now(), LocalDate.now().plusWeeks(2))).thenReturn(Mono.just(1));
+        when(borrowRepository.findActiveLoansFrom()).thenReturn(Mono.just(LocalDate.now().minusDays(30)));
+        when(borrowRepository.existsActiveChapter(payload.data(), LocalDate.now().minusDays(30))).thenReturn(Mono.just(false));
+        when(borrowEventPublisher.publishBorrowCreated(any(), anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(loanService.borrowBooks(memberCardUuid, payload))
+                .assertNext(summary -> {
+                    assertThat(summary.memberCardUuid()).isEqualTo(memberCardUuid);
+                    assertThat(summary.books()).isEqualTo(payload.data());
+                })
+                .verifyComplete();
+        verify(borrowEventPublisher).publishBorrowCreated(argThatMember(), anyList());
+    }
+
+    @Test
+    void borrowBooks_should_reject_chapter_of_an_active_loan_without_insert() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.findMemberEligibility(memberCardUuid)).thenReturn(Mono.just(MemberLoanState.NONE));
+        when(borrowRepository.recordBorrow(any(), any(), any())).thenReturn(Mono.just(1));
+        when(borrowRepository.findActiveLoansFrom()).thenReturn(Mono.empty());
+        when(borrowRepository.existsActiveChapter(payload.data(), LocalDate.now())).thenReturn(Mono.just(true));
+        when(borrowRepository.save(any(), anyList())).thenReturn(Mono.fromSupplier(() -> {
+            throw new AssertionError("must not insert");
+        }));
+        when(borrowEventPublisher.publishBorrowCreated(any(), anyList())).thenReturn(Mono.fromRunnable(() -> {
+            throw new AssertionError("must not publish");
+        }));
+
+        StepVerifier.create(loanService.borrowBooks(memberCardUuid, payload)).verifyError(ChapterAlreadyLentException.class);
+    }
+
+    @Test
+    void borrowBooks_should_reject_same_chapter_twice_in_one_request() {
+        LoanItemDetails chapter = payload.data().getFirst();
+        BookPayload twice = new BookPayload(List.of(chapter, chapter));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.findMemberEligibility(memberCardUuid)).thenReturn(Mono.just(MemberLoanState.NONE));
+        when(borrowRepository.recordBorrow(any(), any(), any())).thenReturn(Mono.just(1));
+        when(borrowRepository.findActiveLoansFrom()).thenReturn(Mono.empty());
+        when(borrowRepository.existsActiveChapter(twice.data(), LocalDate.now())).thenReturn(Mono.just(false));
+        when(borrowRepository.save(any(), anyList())).thenReturn(Mono.fromSupplier(() -> {
+            throw new AssertionError("must not insert");
+        }));
+        when(borrowEventPublisher.publishBorrowCreated(any(), anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(loanService.borrowBooks(memberCardUuid, twice)).verifyError(ChapterAlreadyLentException.class);
+    }
+
+    @Test
+    void borrowBooks_should_reject_member_with_active_loan_without_insert() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.findMemberEligibility(memberCardUuid)).thenReturn(Mono.just(MemberLoanState.borrowed(LocalDate.now().minusDays(3))));
+        when(borrowRepository.save(any(), anyList())).thenReturn(Mono.fromSupplier(() -> {
+            throw new AssertionError("must not insert");
+        }));
+        when(borrowRepository.recordBorrow(any(), any(), any())).thenReturn(Mono.fromRunnable(() -> {
+            throw new AssertionError("must not record");
+        }));
+        when(borrowEventPublisher.publishBorrowCreated(any(), anyList())).thenReturn(Mono.fromRunnable(() -> {
+            throw new AssertionError("must not publish");
+        }));
+
+        StepVerifier.create(loanService.borrowBooks(memberCardUuid, payload)).verifyError(UnreturnedBorrowExistsException.class);
+    }
+
+    @Test
+    void borrowBooks_should_reject_second_loan_on_same_day() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.findMemberEligibility(memberCardUuid)).thenReturn(Mono.just(MemberLoanState.borrowed(LocalDate.now()).returned()));
+        when(borrowRepository.save(any(), anyList())).thenReturn(Mono.empty());
+        when(borrowRepository.recordBorrow(any(), any(), any())).thenReturn(Mono.just(1));
+        when(borrowEventPublisher.publishBorrowCreated(any(), anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(loanService.borrowBooks(memberCardUuid, payload)).verifyError(DailyBorrowLimitExceededException.class);
+    }
+
+    @Test
+    void borrowBooks_should_reject_when_concurrent_loan_was_recorded_first() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.findMemberEligibility(memberCardUuid)).thenReturn(Mono.just(MemberLoanState.NONE));
+        when(borrowRepository.recordBorrow(any(), any(), any())).thenReturn(Mono.just(0));
+        when(borrowRepository.save(any(), anyList())).thenReturn(Mono.fromSupplier(() -> {
+            throw new AssertionError("must not insert");
+        }));
+        when(borrowEventPublisher.publishBorrowCreated(any(), anyList())).thenReturn(Mono.fromRunnable(() -> {
+            throw new AssertionError("must not publish");
+        }));
+
+        StepVerifier.create(loanService.borrowBooks(memberCardUuid, payload)).verifyError(UnreturnedBorrowExistsException.class);
+    }
+
+    @Test
+    void borrowBooks_should_reject_as_daily_limit_when_loan_returned_today_was_recorded_first() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.findMemberEligibility(memberCardUuid)).thenReturn(Mono.just(MemberLoanState.NONE), Mono.just(MemberLoanState.borrowed(LocalDate.now()).returned()));
+        when(borrowRepository.recordBorrow(any(), any(), any())).thenReturn(Mono.just(0));
+        when(borrowRepository.save(any(), anyList())).thenReturn(Mono.fromSupplier(() -> {
+            throw new AssertionError("must not insert");
+        }));
+        when(borrowEventPublisher.publishBorrowCreated(any(), anyList())).thenReturn(Mono.fromRunnable(() -> {
+            throw new AssertionError("must not publish");
+        }));
+
+        StepVerifier.create(loanService.borrowBooks(memberCardUuid, payload)).verifyError(DailyBorrowLimitExceededException.class);
+        verify(borrowRepository, times(2)).findMemberEligibility(memberCardUuid);
+    }
+
+    @Test
+    void returnBorrowBooks_should_set_return_date_and_publish_with_fine() {
+        Borrow borrow = borrow(LocalDate.now().minusDays(3));
+        when(borrowRepository.findActiveLoansFrom(memberCardUuid)).thenReturn(Mono.just(borrow.getBorrowStartDate()));
+        when(borrowRepository.findActiveBorrows(borrowUuid, memberCardUuid, borrow.getBorrowStartDate())).thenReturn(Flux.just(borrow));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.setReturnDate(borrowUuid, memberCardUuid, borrow.getBorrowStartDate(), LocalDate.now())).thenReturn(Mono.just(1));
+        when(borrowRepository.recordReturn(memberCardUuid, borrow.getBorrowStartDate())).thenReturn(Mono.empty());
+        BorrowItem item = item(borrow);
+        when(borrowRepository.findItems(borrowUuid, borrow.getBorrowStartDate())).thenReturn(Flux.just(item));
+        when(borrowEventPublisher.publishReturnBorrowCreated(any(), eq(List.of(item)))).thenReturn(Mono.empty());
+
+        StepVerifier.create(loanService.returnBorrowBooks(memberCardUuid, borrowUuid, payload))
+                .assertNext(summary -> {
+                    assertThat(summary.isLate()).isTrue();
+                    assertThat(summary.daysLate()).isEqualTo(3L);
+                    assertThat(summary.fineAmount()).isEqualByComparingTo(new BigDecimal("1500"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void returnBorrowBooks_should_fail_when_no_active_loan() {
+        when(borrowRepository.findActiveLoansFrom(memberCardUuid)).thenReturn(Mono.empty());
+        when(borrowRepository.findActiveBorrows(borrowUuid, memberCardUuid, LocalDate.now())).thenReturn(Flux.empty());
+
+        StepVerifier.create(loanService.returnBorrowBooks(memberCardUuid, borrowUuid, payload)).verifyError(UnreturnedBorrowExistsException.class);
+        verify(borrowRepository, never()).setReturnDate(any(), any(), any(), any());
+    }
+
+    @Test
+    void returnBorrowBooks_should_not_publish_when_returned_concurrently() {
+        Borrow borrow = borrow(LocalDate.now().plusDays(7));
+        when(borrowRepository.findActiveLoansFrom(memberCardUuid)).thenReturn(Mono.just(borrow.getBorrowStartDate()));
+        when(borrowRepository.findActiveBorrows(borrowUuid, memberCardUuid, borrow.getBorrowStartDate())).thenReturn(Flux.just(borrow));
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(borrowRepository.setReturnDate(borrowUuid, memberCardUuid, borrow.getBorrowStartDate(), LocalDate.now())).thenReturn(Mono.just(0));
+        when(borrowRepository.findItems(borrowUuid, borrow.getBorrowStartDate())).thenReturn(Flux.just(item(borrow)));
+
+        String notFoundMessage = assertThrows(UnreturnedBorrowExistsException.class, () -> new ReturnBorrowPolicy(new WorkingDayCalendar(Set.of(), List.of())).validateAndGetBorrow(List.of())).getMessage();
+        StepVerifier.create(loanService.returnBorrowBooks(memberCardUuid, borrowUuid, payload))
+                .verifyErrorMatches(ex -> ex instanceof UnreturnedBorrowExistsException && ex.getMessage().equals(notFoundMessage));
+        verify(borrowRepository, never()).recordReturn(any(), any());
+        verify(borrowEventPublisher, never()).publishReturnBorrowCreated(any(), anyList());
+    }
+
+    private BorrowAggregate argThatMember() {
+        return argThat(aggregate -> aggregate.memberCardUuid().equals(memberCardUuid));
+    }
+
+    private Borrow borrow(LocalDate endDate) {
+        return Borrow.builder().memberCardUuid(memberCardUuid).borrowUuid(borrowUuid).borrowStartDate(endDate.minusWeeks(2)).borrowEndDate(endDate).build();
+    }
+
+    private BorrowItem item(Borrow borrow) {
+        LoanItemDetails item = payload.data().getFirst();
+        return BorrowItem.builder().borrowUuid(borrowUuid).borrowStartDate(borrow.getBorrowStartDate()).bookUuid(item.book_uuid()).chapterUuid(item.chapter_uuid()).build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.reactive;
+
+import com.example.demo.configuration.CalendarConfig;
+import com.example.demo.configuration.KafkaProducerConfig;
+import com.example.demo.factory.BorrowEventFactory;
+import com.example.demo.factory.ReturnBorrowEventFactory;
+import com.example.demo.handler.GlobalExceptionHandler;
+import com.example.demo.mapper.BorrowAssembler;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.mapper.ReturnBorrowAssembler;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.policy.BorrowPolicy;
+import com.example.demo.policy.ReturnBorrowPolicy;
+import io.github.cdimascio.dotenv.Dotenv;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 貸出・返却 API のリアクティブ版です。WebFlux・R2DBC・reactor-kafka で、少数の固定スレッドのままリクエストを処理します。
+ * 貸出のチェック、延滞の計算、イベントの組み立ては servlet 版と同じポリシーとマッパーを使います。
+ * スキーマは servlet 版の Flyway マイグレーションで作られたものを使うため、JDBC・JPA・Flyway は読み込みません。
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class, FlywayAutoConfiguration.class})
+@Import({BorrowPolicy.class, ReturnBorrowPolicy.class, BorrowAssembler.class, ReturnBorrowAssembler.class, BorrowMapper.class, ReturnMapper.class,
+        BorrowEventFactory.class, ReturnBorrowEventFactory.class, CalendarConfig.class, KafkaProducerConfig.class, GlobalExceptionHandler.class})
+public class ReactiveBorrowApplication {
+
+    public static void main(String[] args) {
+
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+
+        dotenv.entries().forEach(entry -> System.setProperty(entry.getKey(), entry.getValue()));
+
+        new SpringApplicationBuilder(ReactiveBorrowApplication.class).web(WebApplicationType.REACTIVE).profiles("reactive").run(args);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.example.demo.reactive;
+
+import com.example.demo.dto.BookPayload;
+import com.example.demo.dto.BorrowCreatedSummaryDTO;
+import com.example.demo.dto.ReturnBorrowCreatedSummaryDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * {@link com.example.demo.controller.BorrowController} の {@code /books} と {@code /{borrowUUID}/return} のリアクティブ版です。
+ */
+@RestController
+@RequiredArgsConstructor
+public class ReactiveBorrowController {
+
+    private final ReactiveLoanService loanService;
+
+    @PostMapping(path = "/books", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<BorrowCreatedSummaryDTO>> postBorrowBooks(@RequestBody BookPayload booksArrayJson, @AuthenticationPrincipal Jwt jwt, @RequestHeader("X-User-UUID") UUID memberCardUUID) {
+        requireMemberCard(jwt, memberCardUUID);
+        return loanService.borrowBooks(memberCardUUID, booksArrayJson).map(result -> ResponseEntity.status(HttpStatus.OK).body(result));
+    }
+
+    @PostMapping(path = "/{borrowUUID}/return", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ReturnBorrowCreatedSummaryDTO>> returnBorrowBooks(@RequestHeader("X-User-UUID") UUID memberCardUUID, @PathVariable UUID borrowUUID, @RequestBody BookPayload booksArrayJson, @AuthenticationPrincipal Jwt jwt) {
+        requireMemberCard(jwt, memberCardUUID);
+        return loanService.returnBorrowBooks(memberCardUUID, borrowUUID, booksArrayJson).map(result -> ResponseEntity.status(HttpStatus.OK).body(result));
+    }
+
+    private static void requireMemberCard(Jwt jwt, UUID memberCardUUID) {
+        String jwtMemberCard = jwt.getClaimAsString("member_card_uuid");
+        if (!memberCardUUID.toString().equals(jwtMemberCard)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "memberCard UUID mismatch");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.reactive;
+
+import com.example.demo.dto.BorrowAggregate;
+import com.example.demo.dto.ReturnBorrowAggregate;
+import com.example.demo.event.EventType;
+import com.example.demo.event.publisher.KafkaEventSender;
+import com.example.demo.factory.BorrowEventFactory;
+import com.example.demo.factory.ReturnBorrowEventFactory;
+import com.example.demo.model.BorrowItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 貸出・返却イベントを reactor-kafka で送信し、ブローカーの受領を待つ Mono を返します。
+ * レコードのキーとイベント ID のヘッダーは servlet 版の {@link KafkaEventSender} と同じです。
+ * 貸出はコミット済みのため、送信の失敗はログに残してレスポンスには影響させません (borrow.events.delivery=direct と同じ扱い)。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveBorrowEventPublisher {
+
+    private final ReactiveKafkaProducerTemplate<UUID, Object> kafkaProducerTemplate;
+
+    private final BorrowEventFactory borrowEventFactory;
+
+    private final ReturnBorrowEventFactory returnBorrowEventFactory;
+
+    public Mono<Void> publishBorrowCreated(BorrowAggregate aggregate, List<BorrowItem> items) {
+        return Mono.defer(() -> {
+            UUID eventId = UUID.randomUUID();
+            return send(EventType.BORROW_CREATED, aggregate.memberCardUuid(), eventId, borrowEventFactory.create(aggregate, items, eventId));
+        });
+    }
+
+    public Mono<Void> publishReturnBorrowCreated(ReturnBorrowAggregate aggregate, List<BorrowItem> items) {
+        return Mono.defer(() -> {
+            UUID eventId = UUID.randomUUID();
+            return send(EventType.RETURN_BORROW_CREATED, aggregate.memberCardUuid(), eventId, returnBorrowEventFactory.create(aggregate, items, eventId));
+        });
+    }
+
+    private Mono<Void> send(EventType eventType, UUID key, UUID eventId, Object event) {
+        ProducerRecord<UUID, Object> record = new ProducerRecord<>(eventType.getTopic(), key, event);
+        record.headers().add(KafkaEventSender.EVENT_ID_HEADER, eventId.toString().getBytes(StandardCharsets.UTF_8));
+        return kafkaProducerTemplate.send(record)
+                .doOnNext(result -> log.info("Published {} event {}", eventType, eventId))
+                .doOnError(ex -> log.error("Failed to deliver event {} to {}", eventId, eventType.getTopic(), ex))
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.reactive;
+
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.dto.MemberLoanState;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.repository.MemberSummaryRepository;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link com.example.demo.repository.BorrowRepository} と {@link MemberSummaryRepository} のうち、貸出と返却で使う問い合わせを R2DBC で実行します。
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveBorrowRepository {
+
+    /**
+     * id は Hibernate と同じシーケンスから一行ずつ取ります。Hibernate は取得した値を上限とする 50 件の範囲を使うため、重複しません。
+     */
+    private static final String INSERT_BORROW = "INSERT INTO borrow (id, member_card_uuid, borrow_uuid, borrow_start_date, borrow_end_date) VALUES (nextval('book_sequence'), :memberCardUuid, :borrowUuid, :startDate, :endDate)";
+
+    private static final String INSERT_BORROW_ITEM = "INSERT INTO borrow_item (id, borrow_uuid, borrow_start_date, book_uuid, chapter_uuid) VALUES (nextval('borrow_item_sequence'), $1, $2, $3, $4)";
+
+    private static final String EARLIEST_DUE_DATE = "SELECT earliest_due_date FROM member_summary WHERE member_card_uuid = :memberCardUuid AND earliest_due_date IS NOT NULL";
+
+    private static final String EARLIEST_DUE_DATE_OF_ALL = "SELECT MIN(earliest_due_date) AS earliest_due_date FROM member_summary HAVING MIN(earliest_due_date) IS NOT NULL";
+
+    private static final String ACTIVE_CHAPTER_EXISTS = "SELECT EXISTS (SELECT 1 FROM borrow_item i JOIN borrow b ON b.borrow_uuid = i.borrow_uuid AND b.borrow_start_date = i.borrow_start_date "
+            + "WHERE (i.book_uuid, i.chapter_uuid) IN (SELECT * FROM unnest(CAST(:bookUuids AS uuid[]), CAST(:chapterUuids AS uuid[]))) "
+            + "AND b.borrow_return_date IS NULL AND i.borrow_start_date >= :from AND b.borrow_start_date >= :from) AS lent";
+
+    private static final String ACTIVE_BORROWS = "SELECT id, member_card_uuid, borrow_uuid, borrow_start_date, borrow_end_date FROM borrow WHERE borrow_uuid = :borrowUuid AND member_card_uuid = :memberCardUuid AND borrow_return_date IS NULL AND borrow_start_date >= :from";
+
+    private static final String BORROW_ITEMS = "SELECT id, borrow_uuid, borrow_start_date, book_uuid, chapter_uuid FROM borrow_item WHERE borrow_uuid = :borrowUuid AND borrow_start_date = :startDate";
+
+    private static final String SET_RETURN_DATE = "UPDATE borrow SET borrow_return_date = :returnDate WHERE borrow_uuid = :borrowUuid AND member_card_uuid = :memberCardUuid AND borrow_return_date IS NULL AND borrow_start_date = :startDate";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<MemberLoanState> findMemberEligibility(UUID memberCardUuid) {
+        return databaseClient.sql(MemberSummaryRepository.MEMBER_ELIGIBILITY)
+                .bind("memberCardUuid", memberCardUuid)
+                .map(row -> new MemberLoanState(row.get("hasActiveLoan", Boolean.class), true, row.get("lastBorrowDate", LocalDate.class)))
+                .one()
+                .defaultIfEmpty(MemberLoanState.NONE);
+    }
+
+    /**
+     * 貸出のヘッダーを挿入し、本の明細を一つの文にまとめて挿入します。
+     *
+     * @return 挿入した行数
+     */
+    public Mono<Long> save(Borrow borrow, List<BorrowItem> items) {
+        Mono<Long> header = databaseClient.sql(INSERT_BORROW)
+                .bind("memberCardUuid", borrow.getMemberCardUuid())
+                .bind("borrowUuid", borrow.getBorrowUuid())
+                .bind("startDate", borrow.getBorrowStartDate())
+                .bind("endDate", borrow.getBorrowEndDate())
+                .fetch()
+                .rowsUpdated()
+                .map(Integer::longValue);
+        Mono<Long> lines = databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(INSERT_BORROW_ITEM);
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                BorrowItem item = items.get(i);
+                statement.bind("$1", item.getBorrowUuid()).bind("$2", item.getBorrowStartDate()).bind("$3", item.getBookUuid()).bind("$4", item.getChapterUuid());
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        }).reduce(0L, Long::sum);
+        return header.zipWith(lines, Long::sum);
+    }
+
+    /**
+     * {@link MemberSummaryRepository#findActiveLoansFrom(UUID)} と同じく、会員の未返却の貸出の開始日の下限を返します。
+     *
+     * @return 開始日の下限。会員に未返却の貸出がなければ空
+     */
+    public Mono<LocalDate> findActiveLoansFrom(UUID memberCardUuid) {
+        return databaseClient.sql(EARLIEST_DUE_DATE)
+                .bind("memberCardUuid", memberCardUuid)
+                .map(row -> row.get("earliest_due_date", LocalDate.class).minusWeeks(2))
+                .one();
+    }
+
+    /**
+     * {@link MemberSummaryRepository#findActiveLoansFrom()} と同じく、全会員の未返却の貸出の開始日の下限を返します。
+     *
+     * @return 開始日の下限。未返却の貸出がなければ空
+     */
+    public Mono<LocalDate> findActiveLoansFrom() {
+        return databaseClient.sql(EARLIEST_DUE_DATE_OF_ALL)
+                .map(row -> row.get("earliest_due_date", LocalDate.class).minusWeeks(2))
+                .one();
+    }
+
+    /**
+     * {@link com.example.demo.repository.BorrowItemRepository#existsActiveChapter} と同じく、本のチャプターのいずれかが未返却の貸出に含まれているかを一回の問い合わせで返します。
+     * {@code from} より前の月のパーティションは読みません。
+     */
+    public Mono<Boolean> existsActiveChapter(List<LoanItemDetails> items, LocalDate from) {
+        return databaseClient.sql(ACTIVE_CHAPTER_EXISTS)
+                .bind("bookUuids", items.stream().map(LoanItemDetails::book_uuid).toArray(UUID[]::new))
+                .bind("chapterUuids", items.stream().map(LoanItemDetails::chapter_uuid).toArray(UUID[]::new))
+                .bind("from", from)
+                .map(row -> row.get("lent", Boolean.class))
+                .one();
+    }
+
+    /**
+     * 会員の未返却の貸出を読みます。{@code from} より前の月のパーティションは読みません。
+     */
+    public Flux<Borrow> findActiveBorrows(UUID borrowUuid, UUID memberCardUuid, LocalDate from) {
+        return databaseClient.sql(ACTIVE_BORROWS)
+                .bind("borrowUuid", borrowUuid)
+                .bind("memberCardUuid", memberCardUuid)
+                .bind("from", from)
+                .map(ReactiveBorrowRepository::toBorrow)
+                .all();
+    }
+
+    /**
+     * 一つの貸出の本の明細を、その月のパーティションだけから読みます。
+     */
+    public Flux<BorrowItem> findItems(UUID borrowUuid, LocalDate startDate) {
+        return databaseClient.sql(BORROW_ITEMS)
+                .bind("borrowUuid", borrowUuid)
+                .bind("startDate", startDate)
+                .map(ReactiveBorrowRepository::toBorrowItem)
+                .all();
+    }
+
+    /**
+     * 未返却の行だけに返却日を設定します。{@code startDate} の条件で、貸出の月のパーティションだけを読みます。
+     *
+     * @return 更新した行数。並行して返却された場合は 0
+     */
+    public Mono<Integer> setReturnDate(UUID borrowUuid, UUID memberCardUuid, LocalDate startDate, LocalDate returnDate) {
+        return databaseClient.sql(SET_RETURN_DATE)
+                .bind("returnDate", returnDate)
+                .bind("borrowUuid", borrowUuid)
+                .bind("memberCardUuid", memberCardUuid)
+                .bind("startDate", startDate)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * {@link MemberSummaryRepository#recordBorrow(UUID, LocalDate, LocalDate)} と同じく、未返却の貸出がなくその日にまだ貸出のない会員の集計に貸出を一件加えます。
+     *
+     * @return 加えた行数。会員に未返却の貸出がある場合と、その日にすでに貸し出した場合は 0
+     */
+    public Mono<Integer> recordBorrow(UUID memberCardUuid, LocalDate borrowDate, LocalDate dueDate) {
+        return databaseClient.sql(MemberSummaryRepository.RECORD_BORROW)
+                .bind("memberCardUuid", memberCardUuid)
+                .bind("borrowDate", borrowDate)
+                .bind("dueDate", dueDate)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * {@link MemberSummaryRepository#recordReturn(UUID, LocalDate)} と同じく、会員の未返却の貸出を {@code from} 以降の月のパーティションから数え直します。
+     */
+    public Mono<Void> recordReturn(UUID memberCardUuid, LocalDate from) {
+        return databaseClient.sql(MemberSummaryRepository.RECORD_RETURN)
+                .bind("memberCardUuid", memberCardUuid)
+                .bind("from", from)
+                .then();
+    }
+
+    private static Borrow toBorrow(Row row) {
+        return Borrow.builder()
+                .id(row.get("id", Integer.class))
+                .memberCardUuid(row.get("member_card_uuid", UUID.class))
+                .borrowUuid(row.get("borrow_uuid", UUID.class))
+                .borrowStartDate(row.get("borrow_start_date", LocalDate.class))
+                .borrowEndDate(row.get("borrow_end_date", LocalDate.class))
+                .build();
+    }
+
+    private static BorrowItem toBorrowItem(Row row) {
+        return BorrowItem.builder()
+                .id(row.get("id", Integer.class))
+                .borrowUuid(row.get("borrow_uuid", UUID.class))
+                .borrowStartDate(row.get("borrow_start_date", LocalDate.class))
+                .bookUuid(row.get("book_uuid", UUID.class))
+                .chapterUuid(row.get("chapter_uuid", UUID.class))
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.reactive;
+
+import com.example.demo.configuration.KafkaProducerConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.UUID;
+
+@Configuration
+public class ReactiveKafkaConfig {
+
+    /**
+     * servlet 版と同じプロデューサー設定 (キーの直列化と borrow.events.encoding) で reactor-kafka の送信者を作ります。
+     */
+    @Bean
+    public ReactiveKafkaProducerTemplate<UUID, Object> reactiveKafkaProducerTemplate(KafkaProducerConfig kafkaProducerConfig) {
+        return new ReactiveKafkaProducerTemplate<>(SenderOptions.create(kafkaProducerConfig.producerConfigs()));
+    }
+}
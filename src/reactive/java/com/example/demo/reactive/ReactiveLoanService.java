@@ -0,0 +1,143 @@
+package com.example.demo.reactive;
+
+import com.example.demo.dto.*;
+import com.example.demo.exception.ChapterAlreadyLentException;
+import com.example.demo.mapper.BorrowAssembler;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.mapper.ReturnBorrowAssembler;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.policy.BorrowPolicy;
+import com.example.demo.policy.ReturnBorrowPolicy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link com.example.demo.service.LoanService} のリアクティブ版です。チェックと計算は同じポリシーとマッパーで行います。
+ * イベントはコミットの後に送信するため、ロールバックした貸出のイベントは送られません。
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveLoanService {
+
+    private final ReactiveBorrowRepository borrowRepository;
+
+    private final BorrowMapper borrowMapper;
+
+    private final ReturnMapper returnMapper;
+
+    private final ReturnBorrowPolicy returnBorrowPolicy;
+
+    private final BorrowPolicy borrowPolicy;
+
+    private final ReactiveBorrowEventPublisher borrowEventPublisher;
+
+    private final ReturnBorrowAssembler returnBorrowAssembler;
+
+    private final BorrowAssembler borrowAssembler;
+
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * 会員の貸出状況を確認してから、会員の集計の更新と貸出のヘッダーと本の明細の挿入を一つのトランザクションで行います。
+     * 集計は挿入の前に行ロックを取って更新するため、同じ会員の同時の貸出は一件だけが成功します。
+     * 記録されなかった場合は集計を読み直し、servlet 版と同じく未返却の貸出ありか一日の上限として断ります。
+     * 挿入の前に未返却の貸出の明細を問い合わせ、貸出中のチャプターを含む場合と同じチャプターを二度含む場合も servlet 版と同じ例外で断ります。
+     * servlet 版のようなインスタンス内の確保はないため、確認から挿入までの間に並行した貸出が同じチャプターを貸し出すことは防げません。
+     *
+     * @param memberCardUUID the member card uuid
+     * @param booksArrayJson the books to borrow
+     * @return the borrow summary
+     */
+    public Mono<BorrowCreatedSummaryDTO> borrowBooks(UUID memberCardUUID, BookPayload booksArrayJson) {
+        LocalDate startDate = LocalDate.now();
+        LocalDate endDate = startDate.plusWeeks(2);
+        BorrowAggregate aggregate = borrowAssembler.toAggregate(UUID.randomUUID(), memberCardUUID, startDate, endDate, booksArrayJson.data());
+        Borrow borrow = borrowMapper.toEntity(aggregate);
+        List<BorrowItem> items = borrowMapper.toItems(aggregate);
+        BorrowCreatedSummaryDTO summary = borrowMapper.toSummaryDTO(aggregate);
+        return borrowRepository.findMemberEligibility(memberCardUUID)
+                .doOnNext(eligibility -> borrowPolicy.validateEligibility(eligibility, startDate))
+                .then(borrowRepository.recordBorrow(memberCardUUID, startDate, endDate))
+                .flatMap(recordedRows -> recordedEligibility(memberCardUUID, recordedRows)
+                        .doOnNext(eligibility -> borrowPolicy.validateBorrowRecorded(recordedRows, memberCardUUID, startDate, uuid -> Optional.of(eligibility))))
+                .then(Mono.defer(() -> validateChaptersAvailable(booksArrayJson.data(), startDate)))
+                .then(borrowRepository.save(borrow, items))
+                .as(transactionalOperator::transactional)
+                .then(borrowEventPublisher.publishBorrowCreated(aggregate, items))
+                .thenReturn(summary);
+    }
+
+    /**
+     * 未返却の貸出に返却日を設定します。延滞日数と罰金の計算は servlet 版と同じです。
+     * 返却日は未返却の行だけを更新する一文で設定するため、同じ貸出を並行して返却した場合は片方が失敗します。
+     * 返却日と会員の集計は一つのトランザクションで更新し、返却イベントの本はコミットの後に明細から読みます。
+     * servlet 版と同じく、会員の集計から求めた未返却の貸出の開始日の下限より前の月のパーティションは読みません。
+     *
+     * @param memberCardUUID the member card uuid
+     * @param borrowUUID     the borrow uuid
+     * @param booksArrayJson the returned books
+     * @return the return summary
+     */
+    public Mono<ReturnBorrowCreatedSummaryDTO> returnBorrowBooks(UUID memberCardUUID, UUID borrowUUID, BookPayload booksArrayJson) {
+        LocalDate currentDate = LocalDate.now();
+        List<LoanItemDetails> items = booksArrayJson.data().stream().map(b -> new LoanItemDetails(b.book_uuid(), b.chapter_uuid())).toList();
+        return borrowRepository.findActiveLoansFrom(memberCardUUID)
+                .defaultIfEmpty(currentDate)
+                .flatMap(from -> borrowRepository.findActiveBorrows(borrowUUID, memberCardUUID, from)
+                        .collectList()
+                        .flatMap(borrows -> returnBorrows(memberCardUUID, borrowUUID, currentDate, from, items, borrows)));
+    }
+
+    private Mono<ReturnBorrowCreatedSummaryDTO> returnBorrows(UUID memberCardUUID, UUID borrowUUID, LocalDate currentDate, LocalDate from, List<LoanItemDetails> items, List<Borrow> borrows) {
+        Borrow borrow = returnBorrowPolicy.validateAndGetBorrow(borrows);
+        long daysLate = returnBorrowPolicy.calculateDaysLate(borrow.getBorrowEndDate(), currentDate);
+        BigDecimal fineAmount = returnBorrowPolicy.calculateFine(daysLate, ReturnBorrowPolicy.DAILY_FINE_RATE);
+        ReturnBorrowAggregate aggregate = returnBorrowAssembler.toAggregate(borrow, borrowUUID, memberCardUUID, currentDate, returnBorrowPolicy.isLate(daysLate), daysLate, fineAmount, items);
+        ReturnBorrowCreatedSummaryDTO summary = returnMapper.toSummaryDTO(aggregate);
+        return borrowRepository.setReturnDate(borrowUUID, memberCardUUID, borrow.getBorrowStartDate(), currentDate)
+                .flatMap(updated -> updated > 0 ? borrowRepository.recordReturn(memberCardUUID, from) : alreadyReturned())
+                .as(transactionalOperator::transactional)
+                .thenMany(borrowRepository.findItems(borrowUUID, borrow.getBorrowStartDate()))
+                .collectList()
+                .flatMap(borrowItems -> borrowEventPublisher.publishReturnBorrowCreated(aggregate, borrowItems))
+                .thenReturn(summary);
+    }
+
+    /**
+     * 並行した返却が先に返却日を設定した場合は、未返却の貸出が見つからない場合と同じく {@link ReturnBorrowPolicy#validateAndGetBorrow} の例外で断ります。
+     */
+    private <T> Mono<T> alreadyReturned() {
+        return Mono.just(List.<Borrow>of()).map(returnBorrowPolicy::validateAndGetBorrow).then(Mono.empty());
+    }
+
+    /**
+     * 本のチャプターがどれも貸出中でなければ完了し、そうでなければ {@link ChapterAlreadyLentException} で断ります。
+     * 問い合わせには全会員の未返却の貸出の開始日の下限を渡し、それより前の月のパーティションは読みません。
+     */
+    private Mono<Void> validateChaptersAvailable(List<LoanItemDetails> items, LocalDate today) {
+        boolean duplicated = items.stream().distinct().count() < items.size();
+        return borrowRepository.findActiveLoansFrom()
+                .defaultIfEmpty(today)
+                .flatMap(from -> borrowRepository.existsActiveChapter(items, from))
+                .filter(lent -> !lent && !duplicated)
+                .switchIfEmpty(Mono.error(() -> new ChapterAlreadyLentException("本のチャプターはすでに貸し出されています。")))
+                .then();
+    }
+
+    /**
+     * 会員の集計への貸出の記録が行われなかった場合だけ、断る理由を決めるために集計を読み直します。記録された場合は読み直しません。
+     */
+    private Mono<MemberLoanState> recordedEligibility(UUID memberCardUUID, int recordedRows) {
+        return recordedRows > 0 ? Mono.just(MemberLoanState.NONE) : borrowRepository.findMemberEligibility(memberCardUUID);
+    }
+}
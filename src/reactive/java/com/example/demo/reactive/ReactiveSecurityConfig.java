@@ -0,0 +1,22 @@
+package com.example.demo.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+@Configuration
+public class ReactiveSecurityConfig {
+
+    /**
+     * servlet 版の {@code SecurityConfig} と同じく CSRF を無効にし、JWT で認証します。
+     * WebFlux では {@code @AuthenticationPrincipal} で JWT を受け取るため、API は認証済みのリクエストに限ります。
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        http.csrf().disable().httpBasic().disable().formLogin().disable()
+                .authorizeExchange(exchanges -> exchanges.pathMatchers("/actuator/**").permitAll().anyExchange().authenticated())
+                .oauth2ResourceServer(ServerHttpSecurity.OAuth2ResourceServerSpec::jwt);
+        return http.build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.BookChapterReference;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.BorrowRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ActiveChaptersQueryTest {
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private BorrowItemRepository borrowItemRepository;
+
+    @Test
+    void findActiveChapters_should_return_chapters_of_unreturned_loans_only() {
+        LocalDate startDate = LocalDate.now().minusDays(3);
+        UUID activeLoan = UUID.randomUUID();
+        UUID returnedLoan = UUID.randomUUID();
+        borrowRepository.saveAll(List.of(borrow(activeLoan, startDate, null), borrow(returnedLoan, startDate, LocalDate.now())));
+        BorrowItem first = item(activeLoan, startDate);
+        BorrowItem second = item(activeLoan, startDate);
+        borrowItemRepository.saveAllAndFlush(List.of(first, second, item(returnedLoan, startDate)));
+
+        assertThat(borrowItemRepository.findActiveChapters(startDate)).containsExactlyInAnyOrder(
+                new BookChapterReference(first.getBookUuid(), first.getChapterUuid()),
+                new BookChapterReference(second.getBookUuid(), second.getChapterUuid()));
+        assertThat(borrowItemRepository.findActiveChapters(startDate.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void existsActiveChapter_should_ignore_returned_loans() {
+        LocalDate startDate = LocalDate.now().minusDays(3);
+        UUID activeLoan = UUID.randomUUID();
+        UUID returnedLoan = UUID.randomUUID();
+        borrowRepository.saveAll(List.of(borrow(activeLoan, startDate, null), borrow(returnedLoan, startDate, LocalDate.now())));
+        BorrowItem active = item(activeLoan, startDate);
+        BorrowItem returned = item(returnedLoan, startDate);
+        borrowItemRepository.saveAllAndFlush(List.of(active, returned));
+
+        assertThat(borrowItemRepository.existsActiveChapter(active.getBookUuid(), active.getChapterUuid(), startDate)).isTrue();
+        assertThat(borrowItemRepository.existsActiveChapter(returned.getBookUuid(), returned.getChapterUuid(), startDate)).isFalse();
+        assertThat(borrowItemRepository.existsActiveChapter(active.getBookUuid(), returned.getChapterUuid(), startDate)).isFalse();
+        assertThat(borrowItemRepository.existsActiveChapter(active.getBookUuid(), active.getChapterUuid(), startDate.plusDays(1))).isFalse();
+    }
+
+    private static Borrow borrow(UUID borrowUuid, LocalDate startDate, LocalDate returnDate) {
+        return Borrow.builder().memberCardUuid(UUID.randomUUID()).borrowUuid(borrowUuid).borrowStartDate(startDate).borrowEndDate(startDate.plusWeeks(2)).borrowReturnDate(returnDate).build();
+    }
+
+    private static BorrowItem item(UUID borrowUuid, LocalDate startDate) {
+        return BorrowItem.builder().borrowUuid(borrowUuid).borrowStartDate(startDate).bookUuid(UUID.randomUUID()).chapterUuid(UUID.randomUUID()).build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.*;
+import com.example.demo.event.EventType;
+import com.example.demo.event.codec.BinaryEventCodec;
+import com.example.demo.event.codec.BinaryEventDeserializer;
+import com.example.demo.event.codec.BinaryEventSerializer;
+import com.example.demo.factory.BorrowEventFactory;
+import com.example.demo.factory.ReturnBorrowEventFactory;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.model.BorrowItem;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryEventCodecTest {
+
+    private final BinaryEventSerializer serializer = new BinaryEventSerializer();
+
+    private final BinaryEventDeserializer deserializer = new BinaryEventDeserializer();
+
+    private BorrowCreatedEvent borrowCreatedEvent;
+
+    private ReturnCreatedEvent returnCreatedEvent;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate startDate = LocalDate.of(2024, 4, 1);
+        List<LoanItemDetails> items = Stream.generate(() -> new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID())).limit(10).toList();
+        BorrowAggregate aggregate = new BorrowAggregate(UUID.randomUUID(), UUID.randomUUID(), startDate, startDate.plusWeeks(2), items);
+        List<BorrowItem> borrowItems = new BorrowMapper().toItems(aggregate);
+        borrowCreatedEvent = new BorrowEventFactory(new BorrowMapper()).create(aggregate, borrowItems, UUID.randomUUID());
+        ReturnBorrowAggregate returnAggregate = new ReturnBorrowAggregate(aggregate.borrowUuid(), aggregate.memberCardUuid(), "2024-04-01", "2024-04-15", "2024-04-18",
+                true, 2L, new BigDecimal("1000"), items);
+        returnCreatedEvent = new ReturnBorrowEventFactory(new ReturnMapper()).create(returnAggregate, borrowItems, UUID.randomUUID());
+    }
+
+    @Test
+    void should_round_trip_both_events_with_type_id_header() {
+        RecordHeaders borrowHeaders = new RecordHeaders();
+        RecordHeaders returnHeaders = new RecordHeaders();
+
+        byte[] borrowBytes = serializer.serialize(EventType.BORROW_CREATED.getTopic(), borrowHeaders, borrowCreatedEvent);
+        byte[] returnBytes = serializer.serialize(EventType.RETURN_BORROW_CREATED.getTopic(), returnHeaders, returnCreatedEvent);
+
+        assertThat(borrowHeaders.lastHeader(BinaryEventSerializer.TYPE_ID_HEADER).value()).containsExactly(EventType.BORROW_CREATED.getTypeId());
+        assertThat(returnHeaders.lastHeader(BinaryEventSerializer.TYPE_ID_HEADER).value()).containsExactly(EventType.RETURN_BORROW_CREATED.getTypeId());
+        assertThat(deserializer.deserialize("any", borrowHeaders, borrowBytes)).isEqualTo(borrowCreatedEvent);
+        assertThat(deserializer.deserialize("any", returnHeaders, returnBytes)).isEqualTo(returnCreatedEvent);
+    }
+
+    @Test
+    void should_round_trip_on_time_return_without_items() {
+        for (String timestamp : List.of("2024-04-10T09:30", "2024-04-10T09:30:15", "2024-04-10T09:30:15.120", "2024-04-10T09:30:15.123456789")) {
+            Metadata metadata = new Metadata(timestamp, "library-app-borrow-v2", "RETURN_BORROW_CREATED", UUID.randomUUID());
+            ReturnCreatedEventData data = new ReturnCreatedEventData(UUID.randomUUID(), UUID.randomUUID(), "2024-04-01", "2024-04-15", "2024-04-10", false, 0L, BigDecimal.ZERO, List.of());
+            ReturnCreatedEvent event = new ReturnCreatedEvent(metadata, data);
+
+            assertThat(BinaryEventCodec.decode(EventType.RETURN_BORROW_CREATED, BinaryEventCodec.encode(event))).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void should_fall_back_to_topic_when_type_id_header_is_missing() {
+        byte[] bytes = serializer.serialize(EventType.RETURN_BORROW_CREATED.getTopic(), returnCreatedEvent);
+
+        assertThat(deserializer.deserialize(EventType.RETURN_BORROW_CREATED.getTopic(), new RecordHeaders(), bytes)).isEqualTo(returnCreatedEvent);
+    }
+
+    @Test
+    void should_pass_null_values_through() {
+        assertThat(serializer.serialize("any", null)).isNull();
+        assertThat(serializer.serialize("any", new RecordHeaders(), null)).isNull();
+        assertThat(deserializer.deserialize("any", null)).isNull();
+        assertThat(deserializer.deserialize("any", new RecordHeaders(), null)).isNull();
+    }
+
+    @Test
+    void should_ignore_trailing_fields_written_by_newer_versions() {
+        byte[] bytes = BinaryEventCodec.encode(borrowCreatedEvent);
+        byte[] newer = Arrays.copyOf(bytes, bytes.length + 4);
+        newer[0] = 2;
+
+        assertThat(BinaryEventCodec.decode(EventType.BORROW_CREATED, newer)).isEqualTo(borrowCreatedEvent);
+    }
+
+    @Test
+    void should_reject_unknown_versions_and_types() {
+        assertThrows(IllegalArgumentException.class, () -> BinaryEventCodec.decode(EventType.BORROW_CREATED, new byte[]{0}));
+        assertThrows(IllegalArgumentException.class, () -> BinaryEventCodec.encode("not an event"));
+        assertThrows(IllegalArgumentException.class, () -> EventType.fromTypeId((byte) 99));
+        assertThrows(IllegalArgumentException.class, () -> EventType.fromTopic("unknown"));
+    }
+
+    @Test
+    void should_be_smaller_than_json() throws Exception {
+        byte[] json = JacksonUtils.enhancedObjectMapper().writeValueAsBytes(borrowCreatedEvent);
+
+        assertThat(BinaryEventCodec.encode(borrowCreatedEvent).length).isLessThan(json.length / 2);
+    }
+}
@@ -1,22 +1,37 @@
 package com.example.demo.unit.service;
 
+import com.example.demo.cache.IdempotentRequestCache;
 import com.example.demo.controller.BorrowController;
 import com.example.demo.dto.BookPayload;
 import com.example.demo.dto.BorrowCreatedSummaryDTO;
+import com.example.demo.dto.BulkBorrowPayload;
+import com.example.demo.dto.BulkBorrowSummaryDTO;
+import com.example.demo.dto.BulkReturnPayload;
+import com.example.demo.dto.BulkReturnSummaryDTO;
+import com.example.demo.dto.LoanHistoryPageDTO;
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.dto.MemberBorrowRequest;
 import com.example.demo.dto.ReturnBorrowCreatedSummaryDTO;
+import com.example.demo.service.BulkLoanService;
+import com.example.demo.service.LoanHistoryService;
 import com.example.demo.service.LoanService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.instancio.Instancio;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,6 +48,15 @@ class BorrowControllerTest {
     @Mock
     private LoanService loanService;
 
+    @Mock
+    private BulkLoanService bulkLoanService;
+
+    @Mock
+    private LoanHistoryService loanHistoryService;
+
+    @Spy
+    private IdempotentRequestCache idempotentRequestCache = new IdempotentRequestCache(new SimpleMeterRegistry(), 100, 60);
+
     private UUID borrowUUID = UUID.randomUUID();
     private UUID memberCardUUID = UUID.randomUUID();
 
@@ -44,6 +68,13 @@ class BorrowControllerTest {
     @InjectMocks
     private BorrowController borrowController;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(borrowController, "maxBulkMembers", 2);
+        ReflectionTestUtils.setField(borrowController, "maxBulkReturns", 2);
+        ReflectionTestUtils.setField(borrowController, "maxHistoryLimit", 50);
+    }
+
     @Test
     @DisplayName("Should allow user to borrow books")
     void shouldBorrowBooksSuccessfully() {
@@ -51,7 +82,7 @@ class BorrowControllerTest {
         BorrowCreatedSummaryDTO expectedDto = new BorrowCreatedSummaryDTO(UUID.randomUUID(), memberCardUuid, LocalDate.now().toString(), LocalDate.now().plusWeeks(2).toString(), List.of());
         when(jwt.getClaimAsString("member_card_uuid")).thenReturn(memberCardUuid.toString());
         when(loanService.borrowBooks(memberCardUuid, bookPayload)).thenReturn(expectedDto);
-        ResponseEntity<BorrowCreatedSummaryDTO> response = borrowController.postBorrowBooks(bookPayload, jwt, memberCardUuid);
+        ResponseEntity<BorrowCreatedSummaryDTO> response = borrowController.postBorrowBooks(bookPayload, jwt, memberCardUuid, null);
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
         assertThat(response.getBody()).isEqualTo(expectedDto);
         verify(loanService).borrowBooks(memberCardUuid, bookPayload);
@@ -61,7 +92,7 @@ class BorrowControllerTest {
     @DisplayName("Should reject borrow request when member card UUID does not match JWT")
     void shouldRejectBorrowRequestWhenJwtDoesNotMatchMemberCard() {
         when(jwt.getClaimAsString("member_card_uuid")).thenReturn(String.valueOf(UUID.randomUUID()));
-        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> borrowController.postBorrowBooks(bookPayload, jwt, memberCardUUID));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> borrowController.postBorrowBooks(bookPayload, jwt, memberCardUUID, null));
         assertEquals(403, exception.getStatus().value());
         verify(loanService, never()).borrowBooks(any(), any());
 
@@ -71,7 +102,7 @@ class BorrowControllerTest {
     @DisplayName("Should reject return request when member card UUID does not match JWT")
     void shouldRejectReturnRequestWhenJwtDoesNotMatchMemberCard() {
         when(jwt.getClaimAsString("member_card_uuid")).thenReturn(String.valueOf(UUID.randomUUID()));
-        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> borrowController.returnBorrowBooks(memberCardUUID, borrowUUID, bookPayload, jwt));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> borrowController.returnBorrowBooks(memberCardUUID, borrowUUID, bookPayload, jwt, null));
         assertEquals(403, exception.getStatus().value());
         verify(loanService, never()).returnBorrowBooks(any(), any(), any());
     }
@@ -84,9 +115,122 @@ class BorrowControllerTest {
         when(jwt.getClaimAsString("member_card_uuid")).thenReturn(memberCardUuid.toString());
         ReturnBorrowCreatedSummaryDTO expected = Instancio.create(ReturnBorrowCreatedSummaryDTO.class);
         when(loanService.returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload)).thenReturn(expected);
-        ResponseEntity<?> response = borrowController.returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload, jwt);
+        ResponseEntity<?> response = borrowController.returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload, jwt, null);
         assertEquals(200, response.getStatusCode().value());
         assertEquals(expected, response.getBody());
         verify(loanService).returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should replay the first return result to a retry with the same Idempotency-Key")
+    void shouldReplayReturnForSameIdempotencyKey() {
+        UUID memberCardUuid = UUID.randomUUID();
+        UUID borrowUuid = UUID.randomUUID();
+        when(jwt.getClaimAsString("member_card_uuid")).thenReturn(memberCardUuid.toString());
+        ReturnBorrowCreatedSummaryDTO expected = Instancio.create(ReturnBorrowCreatedSummaryDTO.class);
+        when(loanService.returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload)).thenReturn(expected);
+        borrowController.returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload, jwt, "retry-1");
+        ResponseEntity<?> response = borrowController.returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload, jwt, "retry-1");
+        assertEquals(expected, response.getBody());
+        verify(loanService, times(1)).returnBorrowBooks(memberCardUuid, borrowUuid, bookPayload);
+    }
+
+    @Test
+    @DisplayName("Should return the member's loan history page")
+    void shouldReturnLoanHistory() {
+        when(jwt.getClaimAsString("member_card_uuid")).thenReturn(memberCardUUID.toString());
+        LoanHistoryPageDTO expected = new LoanHistoryPageDTO(List.of(), "next");
+        when(loanHistoryService.getLoanHistory(memberCardUUID, "cursor", 20)).thenReturn(expected);
+        ResponseEntity<LoanHistoryPageDTO> response = borrowController.getLoanHistory(memberCardUUID, "cursor", 20, jwt);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(expected, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should reject loan history request with a limit outside 1 to the maximum")
+    void shouldRejectLoanHistoryLimitOutsideRange() {
+        when(jwt.getClaimAsString("member_card_uuid")).thenReturn(memberCardUUID.toString());
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> borrowController.getLoanHistory(memberCardUUID, null, 51, jwt));
+        assertEquals(400, exception.getStatus().value());
+        assertThrows(ResponseStatusException.class, () -> borrowController.getLoanHistory(memberCardUUID, null, 0, jwt));
+        verifyNoInteractions(loanHistoryService);
+    }
+
+    @Test
+    @DisplayName("Should reject loan history request for another member")
+    void shouldRejectLoanHistoryOfAnotherMember() {
+        when(jwt.getClaimAsString("member_card_uuid")).thenReturn(UUID.randomUUID().toString());
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> borrowController.getLoanHistory(memberCardUUID, null, 20, jwt));
+        assertEquals(403, exception.getStatus().value());
+        verifyNoInteractions(loanHistoryService);
+    }
+
+    @Test
+    @DisplayName("Should borrow for several members when token has the bulk scope")
+    void shouldBulkBorrowBooksSuccessfully() {
+        BulkBorrowPayload payload = new BulkBorrowPayload(List.of(new MemberBorrowRequest(UUID.randomUUID(), List.of(new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID()))), new MemberBorrowRequest(UUID.randomUUID(), List.of(new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID())))));
+        BulkBorrowSummaryDTO expected = new BulkBorrowSummaryDTO(List.of());
+        when(jwt.getClaimAsString("scope")).thenReturn("openid " + BorrowController.BULK_BORROW_SCOPE);
+        when(bulkLoanService.borrowBooks(payload)).thenReturn(expected);
+        ResponseEntity<BulkBorrowSummaryDTO> response = borrowController.postBulkBorrowBooks(payload, jwt);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(expected, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should reject bulk borrow without the bulk scope")
+    void shouldRejectBulkBorrowWithoutScope() {
+        BulkBorrowPayload payload = new BulkBorrowPayload(List.of(new MemberBorrowRequest(UUID.randomUUID(), List.of())));
+        when(jwt.getClaimAsString("scope")).thenReturn(null, "openid");
+        assertEquals(403, assertThrows(ResponseStatusException.class, () -> borrowController.postBulkBorrowBooks(payload, jwt)).getStatus().value());
+        assertEquals(403, assertThrows(ResponseStatusException.class, () -> borrowController.postBulkBorrowBooks(payload, jwt)).getStatus().value());
+        verifyNoInteractions(bulkLoanService);
+    }
+
+    @Test
+    @DisplayName("Should reject bulk borrow with no members or too many members")
+    void shouldRejectBulkBorrowWithInvalidSize() {
+        MemberBorrowRequest request = new MemberBorrowRequest(UUID.randomUUID(), List.of());
+        when(jwt.getClaimAsString("scope")).thenReturn(BorrowController.BULK_BORROW_SCOPE);
+        for (BulkBorrowPayload payload : List.of(new BulkBorrowPayload(null), new BulkBorrowPayload(List.of()), new BulkBorrowPayload(List.of(request, request, request)))) {
+            assertEquals(400, assertThrows(ResponseStatusException.class, () -> borrowController.postBulkBorrowBooks(payload, jwt)).getStatus().value());
+        }
+        verifyNoInteractions(bulkLoanService);
+    }
+
+    @Test
+    @DisplayName("Should reject bulk borrow with an entry missing the member card or books")
+    void shouldRejectBulkBorrowWithInvalidEntry() {
+        LoanItemDetails book = new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID());
+        when(jwt.getClaimAsString("scope")).thenReturn(BorrowController.BULK_BORROW_SCOPE);
+        List<MemberBorrowRequest> invalidEntries = Arrays.asList(null, new MemberBorrowRequest(null, List.of(book)), new MemberBorrowRequest(UUID.randomUUID(), null),
+                new MemberBorrowRequest(UUID.randomUUID(), List.of()), new MemberBorrowRequest(UUID.randomUUID(), Arrays.asList(book, null)));
+        for (MemberBorrowRequest invalidEntry : invalidEntries) {
+            BulkBorrowPayload payload = new BulkBorrowPayload(Arrays.asList(new MemberBorrowRequest(UUID.randomUUID(), List.of(book)), invalidEntry));
+            assertEquals(400, assertThrows(ResponseStatusException.class, () -> borrowController.postBulkBorrowBooks(payload, jwt)).getStatus().value());
+        }
+        verifyNoInteractions(bulkLoanService);
+    }
+
+    @Test
+    @DisplayName("Should return several loans when token has the bulk scope")
+    void shouldBulkReturnBooksSuccessfully() {
+        BulkReturnPayload payload = new BulkReturnPayload(List.of(UUID.randomUUID()));
+        BulkReturnSummaryDTO expected = new BulkReturnSummaryDTO(List.of());
+        when(jwt.getClaimAsString("scope")).thenReturn(BorrowController.BULK_BORROW_SCOPE);
+        when(bulkLoanService.returnBorrowBooks(payload)).thenReturn(expected);
+        ResponseEntity<BulkReturnSummaryDTO> response = borrowController.postBulkReturnBooks(payload, jwt);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(expected, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should reject bulk return with no loans or too many loans")
+    void shouldRejectBulkReturnWithInvalidSize() {
+        when(jwt.getClaimAsString("scope")).thenReturn(BorrowController.BULK_BORROW_SCOPE);
+        for (BulkReturnPayload payload : List.of(new BulkReturnPayload(null), new BulkReturnPayload(List.of()), new BulkReturnPayload(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())))) {
+            assertEquals(400, assertThrows(ResponseStatusException.class, () -> borrowController.postBulkReturnBooks(payload, jwt)).getStatus().value());
+        }
+        verifyNoInteractions(bulkLoanService);
+    }
+}
@@ -6,7 +6,7 @@ import com.example.demo.dto.BorrowCreatedEvent;
 import com.example.demo.dto.BorrowCreatedEventData;
 import com.example.demo.factory.BorrowEventFactory;
 import com.example.demo.mapper.BorrowMapper;
-import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -54,11 +54,11 @@ class BorrowEventFactoryTest {
         // 2. Setup Entities
         UUID mockBookUuid = UUID.randomUUID();
         UUID mockChapterUuid = UUID.randomUUID();
-        Borrow mockBorrow = mock(Borrow.class);
-        when(mockBorrow.getBookUuid()).thenReturn(mockBookUuid);
-        when(mockBorrow.getChapterUuid()).thenReturn(mockChapterUuid);
+        BorrowItem mockItem = mock(BorrowItem.class);
+        when(mockItem.getBookUuid()).thenReturn(mockBookUuid);
+        when(mockItem.getChapterUuid()).thenReturn(mockChapterUuid);
 
-        List<Borrow> entities = List.of(mockBorrow);
+        List<BorrowItem> entities = List.of(mockItem);
 
         // 3. Instantiate the Real Record instead of a mock
         List<BookChapterReference> expectedRefs = List.of(new BookChapterReference(mockBookUuid, mockChapterUuid));
@@ -5,6 +5,7 @@ import com.example.demo.dto.BorrowCreatedSummaryDTO;
 import com.example.demo.dto.LoanItemDetails;
 import com.example.demo.mapper.BorrowMapper;
 import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,7 +27,7 @@ class BorrowMapperTest {
 
 
     @Test
-    void toEntities_should_map_aggregate_to_borrow_entities() {
+    void toEntity_and_toItems_should_map_aggregate_to_header_and_one_item_per_book() {
 
         UUID borrowUuid = UUID.randomUUID();
         UUID memberCardUuid = UUID.randomUUID();
@@ -35,19 +36,25 @@ class BorrowMapperTest {
 
         BorrowAggregate aggregate = new BorrowAggregate(borrowUuid, memberCardUuid, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 15), items);
 
-        List<Borrow> result = borrowMapper.toEntities(aggregate);
+        Borrow borrow = borrowMapper.toEntity(aggregate);
+
+        assertThat(borrow.getBorrowUuid()).isEqualTo(borrowUuid);
+
+        assertThat(borrow.getMemberCardUuid()).isEqualTo(memberCardUuid);
+
+        List<BorrowItem> result = borrowMapper.toItems(aggregate);
 
         assertThat(result).hasSize(1);
 
-        Borrow borrow = result.getFirst();
+        BorrowItem item = result.getFirst();
 
-        assertThat(borrow.getBorrowUuid()).isEqualTo(borrowUuid);
+        assertThat(item.getBorrowUuid()).isEqualTo(borrowUuid);
 
-        assertThat(borrow.getMemberCardUuid()).isEqualTo(memberCardUuid);
+        assertThat(item.getBorrowStartDate()).isEqualTo(aggregate.startDate());
 
-        assertThat(borrow.getBookUuid()).isEqualTo(items.getFirst().book_uuid());
+        assertThat(item.getBookUuid()).isEqualTo(items.getFirst().book_uuid());
 
-        assertThat(borrow.getChapterUuid()).isEqualTo(items.getFirst().chapter_uuid());
+        assertThat(item.getChapterUuid()).isEqualTo(items.getFirst().chapter_uuid());
     }
 
 
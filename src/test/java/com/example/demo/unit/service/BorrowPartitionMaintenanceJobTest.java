@@ -0,0 +1,106 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.partition.BorrowPartitionMaintenanceJob;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.BorrowRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * パーティションの作成と切り離しは DDL のため、テストのトランザクションは使わずに後片付けします。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"})
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BorrowPartitionMaintenanceJobTest {
+
+    private static final List<String> PARTITIONS = List.of("borrow_p201001", "borrow_p201002", "borrow_p201003");
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private BorrowItemRepository borrowItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BorrowPartitionMaintenanceJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new BorrowPartitionMaintenanceJob(jdbcTemplate, transactionManager, 2, 24);
+    }
+
+    @AfterEach
+    void tearDown() {
+        PARTITIONS.forEach(partition -> {
+            String itemPartition = partition.replace("borrow_p", "borrow_item_p");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition + ", " + itemPartition);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS borrow_archive." + partition + ", borrow_archive." + itemPartition);
+        });
+    }
+
+    @Test
+    void createPartitions_should_create_current_and_future_months_once_and_route_rows_to_them() {
+        assertThat(job.createPartitions(LocalDate.of(2010, 1, 20))).containsExactlyElementsOf(PARTITIONS);
+        assertThat(job.createPartitions(LocalDate.of(2010, 1, 20))).containsExactlyElementsOf(PARTITIONS);
+
+        UUID borrowUuid = UUID.randomUUID();
+        borrowRepository.saveAndFlush(borrow(borrowUuid, LocalDate.of(2010, 2, 28), null));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM borrow WHERE borrow_uuid = ?", String.class, borrowUuid)).isEqualTo("borrow_p201002");
+        jdbcTemplate.update("DELETE FROM borrow WHERE borrow_uuid = ?", borrowUuid);
+    }
+
+    @Test
+    void archivePartitions_should_detach_old_partitions_without_active_loans() {
+        job.createPartitions(LocalDate.of(2010, 1, 1));
+        UUID returnedLoan = UUID.randomUUID();
+        UUID activeLoan = UUID.randomUUID();
+        borrowRepository.saveAllAndFlush(List.of(borrow(returnedLoan, LocalDate.of(2010, 1, 5), LocalDate.of(2010, 1, 19)), borrow(activeLoan, LocalDate.of(2010, 2, 5), null)));
+        borrowItemRepository.saveAllAndFlush(List.of(item(returnedLoan, LocalDate.of(2010, 1, 5)), item(activeLoan, LocalDate.of(2010, 2, 5))));
+
+        assertThat(job.archivePartitions(LocalDate.of(2012, 3, 1))).containsExactly("borrow_p201001");
+        assertThat(job.archivePartitions(LocalDate.of(2012, 4, 1))).containsExactly("borrow_p201003");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrow WHERE borrow_uuid = ?", Long.class, returnedLoan)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrow_archive.borrow_p201001 WHERE borrow_uuid = ?", Long.class, returnedLoan)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrow_item WHERE borrow_uuid = ?", Long.class, returnedLoan)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrow_archive.borrow_item_p201001 WHERE borrow_uuid = ?", Long.class, returnedLoan)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM borrow_item WHERE borrow_uuid = ?", String.class, activeLoan)).isEqualTo("borrow_item_p201002");
+        assertThat(jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM borrow WHERE borrow_uuid = ?", String.class, activeLoan)).isEqualTo("borrow_p201002");
+    }
+
+    private static Borrow borrow(UUID borrowUuid, LocalDate startDate, LocalDate returnDate) {
+        return Borrow.builder().memberCardUuid(UUID.randomUUID()).borrowUuid(borrowUuid)
+                .borrowStartDate(startDate).borrowEndDate(startDate.plusWeeks(2)).borrowReturnDate(returnDate).build();
+    }
+
+    private static BorrowItem item(UUID borrowUuid, LocalDate startDate) {
+        return BorrowItem.builder().borrowUuid(borrowUuid).borrowStartDate(startDate).bookUuid(UUID.randomUUID()).chapterUuid(UUID.randomUUID()).build();
+    }
+}
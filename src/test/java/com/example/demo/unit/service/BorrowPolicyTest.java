@@ -1,5 +1,6 @@
 package com.example.demo.unit.service;
 
+import com.example.demo.dto.MemberEligibility;
 import com.example.demo.exception.DailyBorrowLimitExceededException;
 import com.example.demo.exception.UnreturnedBorrowExistsException;
 import com.example.demo.policy.BorrowPolicy;
@@ -8,8 +9,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 @ExtendWith(MockitoExtension.class)
 class BorrowPolicyTest {
@@ -31,6 +39,24 @@ class BorrowPolicyTest {
         assertThrows(UnreturnedBorrowExistsException.class, () -> borrowPolicy.validateNoActiveBorrow(true));
     }
 
+    @Test
+    void validateBorrowRecorded_should_not_read_summary_when_borrow_was_recorded() {
+        assertDoesNotThrow(() -> borrowPolicy.validateBorrowRecorded(1, UUID.randomUUID(), LocalDate.now(), uuid -> {
+            throw new AssertionError("must not read the summary");
+        }));
+    }
+
+    @Test
+    void validateBorrowRecorded_should_choose_reason_from_summary_read_after_record() {
+        UUID memberCardUuid = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        assertThrows(UnreturnedBorrowExistsException.class, () -> borrowPolicy.validateBorrowRecorded(0, memberCardUuid, today, uuid -> Optional.of(eligibility(true, true, today.minusDays(3)))));
+        assertThrows(DailyBorrowLimitExceededException.class, () -> borrowPolicy.validateBorrowRecorded(0, memberCardUuid, today, uuid -> Optional.of(eligibility(false, true, today))));
+        // 記録の後に並行した返却がコミットされた場合
+        assertThrows(UnreturnedBorrowExistsException.class, () -> borrowPolicy.validateBorrowRecorded(0, memberCardUuid, today, uuid -> Optional.of(eligibility(false, true, today.minusDays(3)))));
+        assertThrows(UnreturnedBorrowExistsException.class, () -> borrowPolicy.validateBorrowRecorded(0, memberCardUuid, today, uuid -> Optional.empty()));
+    }
+
     @Test
     void validateDailyLimit_should_not_throw_when_member_has_no_previous_borrow() {
         assertDoesNotThrow(() -> borrowPolicy.validateDailyLimit(false, false));
@@ -50,4 +76,37 @@ class BorrowPolicyTest {
     void validateDailyLimit_should_throw_when_daily_limit_reached() {
         assertThrows(DailyBorrowLimitExceededException.class, () -> borrowPolicy.validateDailyLimit(true, true));
     }
-}
\ No newline at end of file
+
+    @Test
+    void validateEligibility_should_not_throw_for_new_member() {
+        assertDoesNotThrow(() -> borrowPolicy.validateEligibility(eligibility(false, false, null), LocalDate.now()));
+    }
+
+    @Test
+    void validateEligibility_should_not_throw_when_last_borrow_was_before_today() {
+        LocalDate today = LocalDate.now();
+        assertDoesNotThrow(() -> borrowPolicy.validateEligibility(eligibility(false, true, today.minusDays(1)), today));
+    }
+
+    @Test
+    void validateEligibility_should_throw_when_active_loan_exists() {
+        LocalDate today = LocalDate.now();
+        MemberEligibility eligibility = eligibility(true, true, today.minusDays(3));
+        assertThrows(UnreturnedBorrowExistsException.class, () -> borrowPolicy.validateEligibility(eligibility, today));
+    }
+
+    @Test
+    void validateEligibility_should_throw_when_member_already_borrowed_today() {
+        LocalDate today = LocalDate.now();
+        MemberEligibility eligibility = eligibility(false, true, today);
+        assertThrows(DailyBorrowLimitExceededException.class, () -> borrowPolicy.validateEligibility(eligibility, today));
+    }
+
+    private static MemberEligibility eligibility(boolean hasActiveLoan, boolean hasHistory, LocalDate lastBorrowDate) {
+        MemberEligibility eligibility = mock(MemberEligibility.class, withSettings().lenient());
+        when(eligibility.getHasActiveLoan()).thenReturn(hasActiveLoan);
+        when(eligibility.getHasHistory()).thenReturn(hasHistory);
+        when(eligibility.getLastBorrowDate()).thenReturn(lastBorrowDate);
+        return eligibility;
+    }
+}
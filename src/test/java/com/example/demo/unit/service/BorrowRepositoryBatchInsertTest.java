@@ -0,0 +1,87 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.configuration.PersistenceConfig;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.BorrowRepository;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(PersistenceConfig.class)
+class BorrowRepositoryBatchInsertTest {
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private BorrowItemRepository borrowItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveAll_should_send_items_larger_than_one_batch_in_jdbc_batches() {
+        JdbcEventCounter jdbcEvents = new JdbcEventCounter();
+        entityManager.unwrap(Session.class).addEventListeners(jdbcEvents);
+        UUID borrowUuid = UUID.randomUUID();
+        borrowRepository.save(Borrow.builder().memberCardUuid(UUID.randomUUID()).borrowUuid(borrowUuid).borrowStartDate(LocalDate.now()).borrowEndDate(LocalDate.now().plusWeeks(2)).build());
+        int itemCount = PersistenceConfig.JDBC_BATCH_SIZE * 2 + 1;
+        List<BorrowItem> items = IntStream.range(0, itemCount).mapToObj(i -> BorrowItem.builder().borrowUuid(borrowUuid).borrowStartDate(LocalDate.now()).bookUuid(UUID.randomUUID()).chapterUuid(UUID.randomUUID()).build()).toList();
+        borrowItemRepository.saveAll(items);
+        int statementsBeforeFlush = jdbcEvents.statements;
+        entityManager.flush();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(itemCount + 1);
+        // ヘッダーの一回と、明細の 50 件・50 件・1 件の三回の executeBatch で送り、INSERT を一文ずつ実行しません
+        assertThat(jdbcEvents.batches).isEqualTo(4);
+        assertThat(jdbcEvents.statements).isEqualTo(statementsBeforeFlush);
+    }
+
+    /**
+     * セッションが JDBC に送ったバッチと、バッチを使わずに実行した文を数えます。
+     */
+    private static class JdbcEventCounter extends BaseSessionEventListener {
+
+        private int batches;
+
+        private int statements;
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batches++;
+        }
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            statements++;
+        }
+    }
+}
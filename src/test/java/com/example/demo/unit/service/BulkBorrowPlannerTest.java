@@ -0,0 +1,137 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.cache.ChapterAvailabilityIndex;
+import com.example.demo.dto.*;
+import com.example.demo.mapper.BorrowAssembler;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.policy.BorrowPolicy;
+import com.example.demo.policy.BulkBorrowPlanner;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.MemberSummaryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BulkBorrowPlannerTest {
+
+    private final BorrowItemRepository borrowItemRepository = mock(BorrowItemRepository.class);
+
+    private final MemberSummaryRepository memberSummaryRepository = mock(MemberSummaryRepository.class);
+
+    private final ChapterAvailabilityIndex chapterAvailabilityIndex = new ChapterAvailabilityIndex(borrowItemRepository, memberSummaryRepository, new SimpleMeterRegistry());
+
+    private final BulkBorrowPlanner bulkBorrowPlanner = new BulkBorrowPlanner(new BorrowPolicy(), new BorrowAssembler(), new BorrowMapper(), chapterAvailabilityIndex, memberSummaryRepository);
+
+    private final LocalDate today = LocalDate.of(2024, 4, 1);
+
+    @BeforeEach
+    void setUp() {
+        when(memberSummaryRepository.recordBorrow(any(), any(), any())).thenReturn(1);
+        when(borrowItemRepository.existsActiveChapter(any(), any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void plan_should_borrow_for_eligible_members_and_reject_others_in_request_order() {
+        UUID newMember = UUID.randomUUID();
+        UUID activeMember = UUID.randomUUID();
+        UUID borrowedToday = UUID.randomUUID();
+        UUID returnedMember = UUID.randomUUID();
+        Map<UUID, MemberLoanState> eligibilities = Map.of(
+                newMember, MemberLoanState.NONE,
+                activeMember, MemberLoanState.borrowed(today.minusDays(3)),
+                borrowedToday, new MemberLoanState(false, true, today),
+                returnedMember, new MemberLoanState(false, true, today.minusDays(10)));
+
+        BulkBorrowPlan plan = bulkBorrowPlanner.plan(List.of(request(newMember, 2), request(activeMember, 1), request(borrowedToday, 1), request(returnedMember, 3)), eligibilities, today);
+
+        assertThat(plan.results()).extracting(BulkBorrowResultDTO::memberCardUuid).containsExactly(newMember, activeMember, borrowedToday, returnedMember);
+        assertThat(plan.results()).extracting(BulkBorrowResultDTO::status).containsExactly(BulkBorrowStatus.BORROWED, BulkBorrowStatus.REJECTED, BulkBorrowStatus.REJECTED, BulkBorrowStatus.BORROWED);
+        assertThat(plan.results().get(1).reason()).isNotBlank();
+        assertThat(plan.memberCardUuids()).containsExactly(newMember, returnedMember);
+        assertThat(plan.headers()).hasSize(2).allSatisfy(borrow -> {
+            assertThat(borrow.getBorrowStartDate()).isEqualTo(today);
+            assertThat(borrow.getBorrowEndDate()).isEqualTo(today.plusWeeks(2));
+        });
+        assertThat(plan.items()).hasSize(5).allSatisfy(item -> assertThat(item.getBorrowStartDate()).isEqualTo(today));
+        BulkBorrowResultDTO borrowed = plan.results().get(0);
+        assertThat(borrowed.borrow().borrow_uuid()).isEqualTo(plan.borrows().get(0).aggregate().borrowUuid());
+        assertThat(borrowed.borrow().books()).hasSize(2);
+    }
+
+    @Test
+    void plan_should_reject_duplicate_member() {
+        UUID member = UUID.randomUUID();
+        UUID otherMember = UUID.randomUUID();
+        Map<UUID, MemberLoanState> eligibilities = Map.of(member, MemberLoanState.NONE, otherMember, MemberLoanState.NONE);
+
+        BulkBorrowPlan plan = bulkBorrowPlanner.plan(List.of(request(member, 1), request(member, 1), request(otherMember, 1)), eligibilities, today);
+
+        assertThat(plan.results()).extracting(BulkBorrowResultDTO::status).containsExactly(BulkBorrowStatus.BORROWED, BulkBorrowStatus.REJECTED, BulkBorrowStatus.BORROWED);
+        assertThat(plan.memberCardUuids()).containsExactly(member, otherMember);
+    }
+
+    @Test
+    void plan_should_reject_member_whose_chapter_is_already_lent() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        LoanItemDetails lentChapter = new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID());
+        LoanItemDetails freeChapter = new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID());
+        Map<UUID, MemberLoanState> eligibilities = Map.of(first, MemberLoanState.NONE, second, MemberLoanState.NONE);
+
+        BulkBorrowPlan plan = bulkBorrowPlanner.plan(List.of(new MemberBorrowRequest(first, List.of(lentChapter)), new MemberBorrowRequest(second, List.of(freeChapter, lentChapter))), eligibilities, today);
+
+        assertThat(plan.results()).extracting(BulkBorrowResultDTO::status).containsExactly(BulkBorrowStatus.BORROWED, BulkBorrowStatus.REJECTED);
+        assertThat(plan.items()).hasSize(1);
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(freeChapter))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void plan_should_reject_only_member_whose_loan_was_already_recorded_and_release_its_chapters() {
+        UUID staleMember = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        LoanItemDetails chapter = new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID());
+        Map<UUID, MemberLoanState> eligibilities = Map.of(staleMember, MemberLoanState.NONE, other, MemberLoanState.NONE);
+        when(memberSummaryRepository.recordBorrow(eq(staleMember), any(), any())).thenReturn(0);
+
+        BulkBorrowPlan plan = bulkBorrowPlanner.plan(List.of(new MemberBorrowRequest(staleMember, List.of(chapter)), request(other, 1)), eligibilities, today);
+
+        assertThat(plan.results()).extracting(BulkBorrowResultDTO::status).containsExactly(BulkBorrowStatus.REJECTED, BulkBorrowStatus.BORROWED);
+        assertThat(plan.memberCardUuids()).containsExactly(other);
+        verify(memberSummaryRepository).recordBorrow(other, today, today.plusWeeks(2));
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void plan_should_reject_member_who_already_borrowed_today_elsewhere_and_release_its_chapters() {
+        UUID member = UUID.randomUUID();
+        LoanItemDetails chapter = new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID());
+        when(memberSummaryRepository.recordBorrow(eq(member), any(), any())).thenReturn(0);
+        when(memberSummaryRepository.findEligibility(member)).thenReturn(Optional.of(MemberLoanState.borrowed(today).returned()));
+
+        BulkBorrowPlan plan = bulkBorrowPlanner.plan(List.of(new MemberBorrowRequest(member, List.of(chapter))), Map.of(member, MemberLoanState.NONE), today);
+
+        assertThat(plan.results()).singleElement().satisfies(result -> {
+            assertThat(result.status()).isEqualTo(BulkBorrowStatus.REJECTED);
+            assertThat(result.reason()).isEqualTo("一日の借入限度額に達しました。");
+        });
+        assertThat(plan.borrows()).isEmpty();
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+    }
+
+    private static MemberBorrowRequest request(UUID memberCardUuid, int books) {
+        return new MemberBorrowRequest(memberCardUuid, Stream.generate(() -> new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID())).limit(books).toList());
+    }
+}
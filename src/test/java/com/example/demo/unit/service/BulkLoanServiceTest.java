@@ -0,0 +1,117 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.cache.ChapterAvailabilityIndex;
+import com.example.demo.cache.MemberLoanStateCache;
+import com.example.demo.dto.*;
+import com.example.demo.event.publisher.BorrowEventPublisher;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.policy.BulkBorrowPlanner;
+import com.example.demo.policy.BulkReturnPlanner;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.BorrowRepository;
+import com.example.demo.repository.MemberSummaryRepository;
+import com.example.demo.service.BulkLoanService;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkLoanServiceTest {
+
+    @Mock
+    private BorrowRepository borrowRepository;
+
+    @Mock
+    private BulkBorrowPlanner bulkBorrowPlanner;
+
+    @Mock
+    private BulkReturnPlanner bulkReturnPlanner;
+
+    @Mock
+    private BorrowItemRepository borrowItemRepository;
+
+    @Mock
+    private BorrowEventPublisher borrowEventPublisher;
+
+    @Mock
+    private MemberLoanStateCache memberLoanStateCache;
+
+    @Mock
+    private MemberSummaryRepository memberSummaryRepository;
+
+    @Mock
+    private ChapterAvailabilityIndex chapterAvailabilityIndex;
+
+    @InjectMocks
+    private BulkLoanService bulkLoanService;
+
+    @Test
+    void borrowBooks_should_load_eligibility_once_save_in_one_batch_and_publish_per_member() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<MemberBorrowRequest> requests = List.of(new MemberBorrowRequest(first, List.of()), new MemberBorrowRequest(second, List.of()), new MemberBorrowRequest(first, List.of()));
+        Map<UUID, MemberLoanState> eligibilities = Map.of(first, MemberLoanState.NONE, second, MemberLoanState.NONE);
+        BorrowAggregate firstAggregate = Instancio.create(BorrowAggregate.class);
+        BorrowAggregate secondAggregate = Instancio.create(BorrowAggregate.class);
+        Borrow firstHeader = new Borrow();
+        Borrow secondHeader = new Borrow();
+        List<BorrowItem> firstEntities = List.of(new BorrowItem(), new BorrowItem());
+        List<BorrowItem> secondEntities = List.of(new BorrowItem());
+        List<BulkBorrowResultDTO> results = List.of(Instancio.create(BulkBorrowResultDTO.class));
+        BulkBorrowPlan plan = new BulkBorrowPlan(List.of(new BulkBorrowPlan.PlannedBorrow(firstAggregate, firstHeader, firstEntities), new BulkBorrowPlan.PlannedBorrow(secondAggregate, secondHeader, secondEntities)), results);
+        when(memberLoanStateCache.getAll(List.of(first, second))).thenReturn(eligibilities);
+        when(bulkBorrowPlanner.plan(eq(requests), eq(eligibilities), any(LocalDate.class))).thenReturn(plan);
+
+        BulkBorrowSummaryDTO summary = bulkLoanService.borrowBooks(new BulkBorrowPayload(requests));
+
+        assertThat(summary.results()).isEqualTo(results);
+        verify(memberLoanStateCache, times(1)).getAll(any());
+        verify(borrowRepository, times(1)).saveAll(List.of(firstHeader, secondHeader));
+        verify(borrowItemRepository, times(1)).saveAll(List.of(firstEntities.get(0), firstEntities.get(1), secondEntities.get(0)));
+        verify(memberLoanStateCache).recordBorrows(eq(List.of(firstAggregate.memberCardUuid(), secondAggregate.memberCardUuid())), any(LocalDate.class));
+        verifyNoInteractions(memberSummaryRepository);
+        verify(borrowEventPublisher).publishBorrowCreated(firstAggregate, firstEntities);
+        verify(borrowEventPublisher).publishBorrowCreated(secondAggregate, secondEntities);
+        verifyNoMoreInteractions(borrowEventPublisher);
+    }
+
+    @Test
+    void returnBorrowBooks_should_plan_only_loans_returned_by_the_update_and_publish_as_one_batch() {
+        UUID returnedHere = UUID.randomUUID();
+        UUID returnedElsewhere = UUID.randomUUID();
+        List<UUID> borrowUuids = List.of(returnedHere, returnedElsewhere);
+        List<Borrow> borrows = List.of(Borrow.builder().borrowUuid(returnedHere).build());
+        List<BorrowItem> borrowItems = List.of(new BorrowItem(), new BorrowItem());
+        ReturnBorrowAggregate aggregate = Instancio.create(ReturnBorrowAggregate.class);
+        List<BulkReturnPlan.PlannedReturn> returns = List.of(new BulkReturnPlan.PlannedReturn(aggregate, borrowItems));
+        List<BulkReturnResultDTO> results = List.of(Instancio.create(BulkReturnResultDTO.class));
+        LocalDate from = LocalDate.now().minusDays(30);
+        when(memberSummaryRepository.findActiveLoansFrom()).thenReturn(Optional.of(from));
+        when(borrowRepository.returnActiveBorrowsIn(eq(borrowUuids), eq(from), any(LocalDate.class))).thenReturn(borrows);
+        when(borrowItemRepository.findByBorrowUuidInAndBorrowStartDateGreaterThanEqual(List.of(returnedHere), from)).thenReturn(borrowItems);
+        when(bulkReturnPlanner.plan(eq(borrowUuids), eq(borrows), eq(borrowItems), any(LocalDate.class))).thenReturn(new BulkReturnPlan(returns, results));
+
+        BulkReturnSummaryDTO summary = bulkLoanService.returnBorrowBooks(new BulkReturnPayload(borrowUuids));
+
+        assertThat(summary.results()).isEqualTo(results);
+        verify(memberSummaryRepository).recordReturn(aggregate.memberCardUuid(), from);
+        verify(memberLoanStateCache).recordReturns(List.of(aggregate.memberCardUuid()));
+        verify(chapterAvailabilityIndex).release(borrowItems);
+        verify(borrowEventPublisher).publishReturnBorrowsCreated(returns);
+    }
+}
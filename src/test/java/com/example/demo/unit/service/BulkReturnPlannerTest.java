@@ -0,0 +1,59 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.BulkReturnPlan;
+import com.example.demo.dto.BulkReturnResultDTO;
+import com.example.demo.dto.BulkReturnStatus;
+import com.example.demo.mapper.ReturnBorrowAssembler;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.policy.BulkReturnPlanner;
+import com.example.demo.policy.ReturnBorrowPolicy;
+import com.example.demo.util.DateCalculationUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkReturnPlannerTest {
+
+    private final BulkReturnPlanner bulkReturnPlanner = new BulkReturnPlanner(new ReturnBorrowPolicy(DateCalculationUtil.DEFAULT_CALENDAR), new ReturnBorrowAssembler(), new ReturnMapper());
+
+    // 2024-04-16 は火曜日
+    private final LocalDate today = LocalDate.of(2024, 4, 16);
+
+    @Test
+    void plan_should_compute_lateness_per_loan_and_report_missing_loans_in_request_order() {
+        UUID member = UUID.randomUUID();
+        UUID lateLoan = UUID.randomUUID();
+        UUID onTimeLoan = UUID.randomUUID();
+        UUID missingLoan = UUID.randomUUID();
+        List<Borrow> borrows = List.of(borrow(lateLoan, member, today.minusDays(3)), borrow(onTimeLoan, member, today));
+        List<BorrowItem> items = List.of(item(lateLoan), item(onTimeLoan), item(lateLoan));
+
+        BulkReturnPlan plan = bulkReturnPlanner.plan(List.of(missingLoan, lateLoan, onTimeLoan, lateLoan), borrows, items, today);
+
+        assertThat(plan.results()).extracting(BulkReturnResultDTO::borrowUuid).containsExactly(missingLoan, lateLoan, onTimeLoan, lateLoan);
+        assertThat(plan.results()).extracting(BulkReturnResultDTO::status).containsExactly(BulkReturnStatus.NOT_FOUND, BulkReturnStatus.RETURNED, BulkReturnStatus.RETURNED, BulkReturnStatus.NOT_FOUND);
+        assertThat(plan.results().get(0).reason()).isNotBlank();
+        // 土曜日の期限から日曜・月曜の休館日を除いて火曜日の一日だけ延滞
+        assertThat(plan.results().get(1).returned().daysLate()).isEqualTo(1);
+        assertThat(plan.results().get(1).returned().fineAmount()).isEqualByComparingTo("500");
+        assertThat(plan.results().get(1).returned().items()).hasSize(2);
+        assertThat(plan.results().get(2).returned().isLate()).isFalse();
+        assertThat(plan.returns()).hasSize(2);
+        assertThat(plan.returns().get(0).items()).hasSize(2);
+        assertThat(plan.memberCardUuids()).containsExactly(member);
+    }
+
+    private static Borrow borrow(UUID borrowUuid, UUID memberCardUuid, LocalDate endDate) {
+        return Borrow.builder().memberCardUuid(memberCardUuid).borrowUuid(borrowUuid).borrowStartDate(endDate.minusWeeks(2)).borrowEndDate(endDate).build();
+    }
+
+    private static BorrowItem item(UUID borrowUuid) {
+        return BorrowItem.builder().borrowUuid(borrowUuid).bookUuid(UUID.randomUUID()).chapterUuid(UUID.randomUUID()).build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.model.Borrow;
+import com.example.demo.repository.BorrowRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 一括返却の UPDATE は別のトランザクションとの競合を確かめるため、テストのトランザクションは使わずに後片付けします。
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"})
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkReturnQueryTest {
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate today = LocalDate.now();
+
+    private final LocalDate startDate = today.minusDays(20);
+
+    private final List<UUID> loans = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        loans.forEach(loan -> jdbcTemplate.update("DELETE FROM borrow WHERE borrow_uuid = ?", loan));
+    }
+
+    @Test
+    void returnActiveBorrowsIn_should_update_and_return_only_active_loans_with_one_statement() {
+        UUID firstLoan = loan(null);
+        UUID secondLoan = loan(null);
+        UUID returnedLoan = loan(today.minusDays(1));
+        UUID otherLoan = loan(null);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Borrow> returned = new TransactionTemplate(transactionManager).execute(status -> borrowRepository.returnActiveBorrowsIn(List.of(firstLoan, secondLoan, returnedLoan, UUID.randomUUID()), startDate, today));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(returned).extracting(Borrow::getBorrowUuid).containsExactlyInAnyOrder(firstLoan, secondLoan);
+        assertThat(returned).extracting(Borrow::getBorrowReturnDate).containsOnly(today);
+        assertThat(returnDate(returnedLoan)).isEqualTo(today.minusDays(1));
+        assertThat(returnDate(otherLoan)).isNull();
+    }
+
+    @Test
+    void returnActiveBorrowsIn_should_skip_loan_returned_by_concurrent_transaction() throws Exception {
+        UUID contendedLoan = loan(null);
+        UUID otherLoan = loan(null);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch firstUpdated = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Borrow>> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                List<Borrow> returned = borrowRepository.returnActiveBorrowsIn(List.of(contendedLoan), startDate, today);
+                firstUpdated.countDown();
+                await(commitFirst);
+                return returned;
+            }));
+            firstUpdated.await(10, TimeUnit.SECONDS);
+            Future<List<Borrow>> second = executor.submit(() -> transactionTemplate.execute(status -> borrowRepository.returnActiveBorrowsIn(List.of(contendedLoan, otherLoan), startDate, today)));
+            waitForLockWait();
+            commitFirst.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).extracting(Borrow::getBorrowUuid).containsExactly(contendedLoan);
+            assertThat(second.get(10, TimeUnit.SECONDS)).extracting(Borrow::getBorrowUuid).containsExactly(otherLoan);
+        } finally {
+            commitFirst.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private UUID loan(LocalDate returnDate) {
+        UUID borrowUuid = UUID.randomUUID();
+        loans.add(borrowUuid);
+        borrowRepository.saveAndFlush(Borrow.builder().memberCardUuid(UUID.randomUUID()).borrowUuid(borrowUuid).borrowStartDate(startDate).borrowEndDate(startDate.plusWeeks(2)).borrowReturnDate(returnDate).build());
+        return borrowUuid;
+    }
+
+    private LocalDate returnDate(UUID borrowUuid) {
+        return jdbcTemplate.queryForObject("SELECT borrow_return_date FROM borrow WHERE borrow_uuid = ?", LocalDate.class, borrowUuid);
+    }
+
+    /**
+     * 二つ目の UPDATE が一つ目のトランザクションの行ロックを待ち始めるまで待ちます。
+     */
+    private void waitForLockWait() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            Long waiting = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND query LIKE 'UPDATE borrow%'", Long.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("second bulk return never waited for the row lock");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.cache.CachingJwtDecoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CachingJwtDecoder cachingJwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cachingJwtDecoder = new CachingJwtDecoder(delegate, meterRegistry, 100, 300);
+    }
+
+    @Test
+    void decode_should_verify_token_once_and_record_hit_and_miss() {
+        Jwt jwt = jwt("token", Instant.now().plusSeconds(600));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        assertThat(cachingJwtDecoder.decode("token")).isSameAs(jwt);
+        assertThat(cachingJwtDecoder.decode("token")).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("token");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "verifiedJwt").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "verifiedJwt").tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void decode_should_verify_again_after_token_expires() throws InterruptedException {
+        when(delegate.decode("token")).thenReturn(jwt("token", Instant.now().plusMillis(50)));
+
+        cachingJwtDecoder.decode("token");
+        Thread.sleep(100);
+        cachingJwtDecoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void decode_should_not_cache_token_without_expiry() {
+        when(delegate.decode("token")).thenReturn(jwt("token", null));
+
+        cachingJwtDecoder.decode("token");
+        cachingJwtDecoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void decode_should_not_cache_rejected_token() {
+        when(delegate.decode("forged")).thenThrow(new BadJwtException("invalid signature"));
+
+        assertThatThrownBy(() -> cachingJwtDecoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> cachingJwtDecoder.decode("forged")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("forged");
+    }
+
+    private Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token).header("alg", "RS256").claim("member_card_uuid", "member").expiresAt(expiresAt).build();
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.cache.ChapterAvailabilityIndex;
+import com.example.demo.dto.BookChapterReference;
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.exception.ChapterAlreadyLentException;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.MemberSummaryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChapterAvailabilityIndexTest {
+
+    @Mock
+    private BorrowItemRepository borrowItemRepository;
+
+    @Mock
+    private MemberSummaryRepository memberSummaryRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ChapterAvailabilityIndex chapterAvailabilityIndex;
+
+    private final LoanItemDetails chapter = new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID());
+
+    private final LoanItemDetails otherChapter = new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID());
+
+    private final LocalDate from = LocalDate.of(2024, 3, 18);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        chapterAvailabilityIndex = new ChapterAvailabilityIndex(borrowItemRepository, memberSummaryRepository, meterRegistry);
+        lenient().when(memberSummaryRepository.findActiveLoansFrom()).thenReturn(Optional.of(from));
+        lenient().when(borrowItemRepository.existsActiveChapter(any(), any(), any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void load_should_mark_chapters_of_active_loans_as_lent() {
+        when(borrowItemRepository.findActiveChapters(from)).thenReturn(List.of(new BookChapterReference(chapter.book_uuid(), chapter.chapter_uuid())));
+
+        chapterAvailabilityIndex.load();
+
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(chapter)));
+        assertThat(meterRegistry.get("borrow.lent.chapters").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void load_should_read_only_partitions_from_today_without_active_loans() {
+        when(memberSummaryRepository.findActiveLoansFrom()).thenReturn(Optional.empty());
+
+        chapterAvailabilityIndex.load();
+
+        verify(borrowItemRepository).findActiveChapters(LocalDate.now());
+    }
+
+    @Test
+    void reserve_should_take_over_chapter_returned_elsewhere_after_confirming_with_database() {
+        when(borrowItemRepository.findActiveChapters(from)).thenReturn(List.of(new BookChapterReference(chapter.book_uuid(), chapter.chapter_uuid())));
+        chapterAvailabilityIndex.load();
+        when(borrowItemRepository.existsActiveChapter(chapter.book_uuid(), chapter.chapter_uuid(), from)).thenReturn(false);
+
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+
+        assertThat(meterRegistry.get("borrow.lent.chapters").gauge().value()).isEqualTo(1.0);
+        when(borrowItemRepository.existsActiveChapter(chapter.book_uuid(), chapter.chapter_uuid(), from)).thenReturn(true);
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(chapter)));
+    }
+
+    @Test
+    void reserve_should_take_over_chapter_of_committed_borrow_returned_through_another_path() {
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+        when(borrowItemRepository.existsActiveChapter(chapter.book_uuid(), chapter.chapter_uuid(), from)).thenReturn(false);
+
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void reserve_should_retry_when_stale_chapter_is_released_while_confirming() {
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+        when(borrowItemRepository.existsActiveChapter(chapter.book_uuid(), chapter.chapter_uuid(), from)).thenAnswer(invocation -> {
+            chapterAvailabilityIndex.release(List.of(item(chapter)));
+            return false;
+        });
+
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+
+        assertThat(meterRegistry.get("borrow.lent.chapters").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reserve_should_reject_chapter_of_uncommitted_borrow_without_querying() {
+        TransactionSynchronizationManager.initSynchronization();
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(chapter)));
+
+        verify(borrowItemRepository, never()).existsActiveChapter(any(), any(), any());
+    }
+
+    @Test
+    void refresh_should_add_chapters_lent_elsewhere_and_keep_pending_reservations() {
+        TransactionSynchronizationManager.initSynchronization();
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+        when(borrowItemRepository.findActiveChapters(from)).thenReturn(List.of(new BookChapterReference(otherChapter.book_uuid(), otherChapter.chapter_uuid())));
+
+        chapterAvailabilityIndex.refresh();
+
+        assertThat(meterRegistry.get("borrow.lent.chapters").gauge().value()).isEqualTo(2.0);
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(chapter)));
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(otherChapter)));
+        verify(borrowItemRepository).existsActiveChapter(otherChapter.book_uuid(), otherChapter.chapter_uuid(), from);
+    }
+
+    @Test
+    void reserve_should_reject_whole_request_and_keep_other_chapters_available() {
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(otherChapter, chapter)));
+
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(otherChapter))).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("borrow.lent.chapters").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void reserve_should_reject_same_chapter_twice_in_one_request() {
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(chapter, chapter)));
+
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void reserve_should_be_undone_when_transaction_rolls_back() {
+        TransactionSynchronizationManager.initSynchronization();
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void reserve_should_be_kept_when_transaction_commits() {
+        TransactionSynchronizationManager.initSynchronization();
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(chapter)));
+    }
+
+    @Test
+    void cancel_should_release_only_chapters_still_held_by_the_reservation() {
+        ChapterAvailabilityIndex.Reservation reservation = chapterAvailabilityIndex.reserve(List.of(chapter, otherChapter));
+        chapterAvailabilityIndex.release(List.of(item(otherChapter)));
+        chapterAvailabilityIndex.reserve(List.of(otherChapter));
+
+        reservation.cancel();
+
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(otherChapter)));
+    }
+
+    @Test
+    void release_should_make_chapters_available_only_after_commit() {
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+        TransactionSynchronizationManager.initSynchronization();
+
+        chapterAvailabilityIndex.release(List.of(item(chapter)));
+
+        assertThrows(ChapterAlreadyLentException.class, () -> chapterAvailabilityIndex.reserve(List.of(chapter)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThatCode(() -> chapterAvailabilityIndex.reserve(List.of(chapter))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void release_without_transaction_should_apply_immediately() {
+        chapterAvailabilityIndex.reserve(List.of(chapter));
+
+        chapterAvailabilityIndex.release(List.of(item(chapter)));
+
+        assertThat(meterRegistry.get("borrow.lent.chapters").gauge().value()).isZero();
+    }
+
+    @Test
+    void concurrent_reservations_of_same_chapter_should_let_exactly_one_win() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                LoanItemDetails own = new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        chapterAvailabilityIndex.reserve(List.of(own, chapter));
+                        return true;
+                    } catch (ChapterAlreadyLentException ex) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int reserved = 0;
+            for (Future<Boolean> future : futures) {
+                reserved += future.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            assertThat(reserved).isEqualTo(1);
+            assertThat(meterRegistry.get("borrow.lent.chapters").gauge().value()).isEqualTo(2.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static BorrowItem item(LoanItemDetails details) {
+        return BorrowItem.builder().bookUuid(details.book_uuid()).chapterUuid(details.chapter_uuid()).build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.unit.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * H2 では再現できない PostgreSQL 専用の SQL を検証するため、組み込みの PostgreSQL を DataSource として提供します。
+ * {@code @AutoConfigureTestDatabase(replace = NONE)} と合わせて使い、スキーマは Flyway のマイグレーションで作成します
+ * （{@code spring.flyway.enabled=true}、{@code spring.jpa.hibernate.ddl-auto=none}）。
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class EmbeddedPostgresConfig {
+
+    @Bean(destroyMethod = "close")
+    EmbeddedPostgres embeddedPostgres() throws IOException {
+        return EmbeddedPostgres.start();
+    }
+
+    @Bean
+    DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+        return embeddedPostgres.getPostgresDatabase();
+    }
+}
@@ -48,6 +48,11 @@ class GlobalExceptionHandlerTest {
         mockMvc.perform(get("/test/conflict")).andExpect(status().isConflict());
     }
 
+    @Test
+    void should_return_conflict_status_when_chapter_already_lent() throws Exception {
+        mockMvc.perform(get("/test/lent")).andExpect(status().isConflict());
+    }
+
     @Test
     void should_return_forbidden_status_when_limit_exceeded() throws Exception {
         mockMvc.perform(get("/test/forbidden")).andExpect(status().isForbidden());
@@ -57,4 +62,14 @@ class GlobalExceptionHandlerTest {
     void should_return_not_found_status_when_borrow_not_found() throws Exception {
         mockMvc.perform(get("/test/notfound")).andExpect(status().isNotFound());
     }
+
+    @Test
+    void should_return_service_unavailable_status_when_event_publish_rejected() throws Exception {
+        mockMvc.perform(get("/test/unavailable")).andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void should_return_bad_request_status_when_cursor_is_invalid() throws Exception {
+        mockMvc.perform(get("/test/badcursor")).andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
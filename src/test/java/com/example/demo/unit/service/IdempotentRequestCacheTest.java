@@ -0,0 +1,130 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.cache.IdempotentRequestCache;
+import com.example.demo.exception.UnreturnedBorrowExistsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentRequestCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotentRequestCache idempotentRequestCache;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotentRequestCache = new IdempotentRequestCache(meterRegistry, 100, 600);
+    }
+
+    @Test
+    void execute_should_run_every_request_without_key() {
+        idempotentRequestCache.execute(memberCardUuid, null, "request", executions::incrementAndGet);
+        idempotentRequestCache.execute(memberCardUuid, null, "request", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void execute_should_replay_first_result_for_same_key() {
+        Integer first = idempotentRequestCache.execute(memberCardUuid, "key", "request", executions::incrementAndGet);
+        Integer retry = idempotentRequestCache.execute(memberCardUuid, "key", "request", executions::incrementAndGet);
+
+        assertThat(retry).isEqualTo(first).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "idempotentRequest").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void execute_should_scope_keys_by_member_card() {
+        idempotentRequestCache.execute(memberCardUuid, "key", "request", executions::incrementAndGet);
+        idempotentRequestCache.execute(UUID.randomUUID(), "key", "request", executions::incrementAndGet);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void execute_should_reject_key_reused_for_different_request() {
+        idempotentRequestCache.execute(memberCardUuid, "key", "request", executions::incrementAndGet);
+
+        assertThatThrownBy(() -> idempotentRequestCache.execute(memberCardUuid, "key", "other", executions::incrementAndGet))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatus().value()).isEqualTo(422));
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_should_not_keep_failed_result() {
+        assertThatThrownBy(() -> idempotentRequestCache.execute(memberCardUuid, "key", "request", () -> {
+            throw new UnreturnedBorrowExistsException("conflict");
+        })).isInstanceOf(UnreturnedBorrowExistsException.class);
+
+        assertThat(idempotentRequestCache.execute(memberCardUuid, "key", "request", executions::incrementAndGet)).isEqualTo(1);
+    }
+
+    @Test
+    void execute_should_make_concurrent_duplicate_wait_for_first_result() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> idempotentRequestCache.execute(memberCardUuid, "key", "request", () -> {
+            started.countDown();
+            await(release);
+            return executions.incrementAndGet();
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Integer> duplicate = CompletableFuture.supplyAsync(() -> idempotentRequestCache.execute(memberCardUuid, "key", "request", executions::incrementAndGet));
+
+        awaitCacheHit();
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_should_propagate_failure_to_concurrent_duplicate() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> idempotentRequestCache.execute(memberCardUuid, "key", "request", () -> {
+            started.countDown();
+            await(release);
+            throw new UnreturnedBorrowExistsException("conflict");
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Integer> duplicate = CompletableFuture.supplyAsync(() -> idempotentRequestCache.execute(memberCardUuid, "key", "request", executions::incrementAndGet));
+        awaitCacheHit();
+        release.countDown();
+
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(UnreturnedBorrowExistsException.class);
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(UnreturnedBorrowExistsException.class);
+    }
+
+    private void awaitCacheHit() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.event.publisher.KafkaEventSender;
+import com.example.demo.exception.EventPublishRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaEventSenderTest {
+
+    private static final String TOPIC = "library.borrow.v1";
+
+    @Mock
+    private KafkaTemplate<UUID, Object> kafkaTemplate;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<UUID, Object>> recordCaptor;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private KafkaEventSender kafkaEventSender;
+
+    private final UUID key = UUID.randomUUID();
+
+    private final UUID eventId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaEventSender = new KafkaEventSender(kafkaTemplate, meterRegistry, 1, 10);
+    }
+
+    @Test
+    void send_should_complete_when_broker_acknowledges_and_record_latency() {
+        SettableListenableFuture<SendResult<UUID, Object>> ack = new SettableListenableFuture<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(ack);
+
+        CompletableFuture<SendResult<UUID, Object>> delivery = kafkaEventSender.send(TOPIC, key, eventId, "payload");
+
+        assertThat(delivery).isNotDone();
+        assertThat(inFlight()).isEqualTo(1.0);
+        ack.set(null);
+        delivery.join();
+        assertThat(inFlight()).isZero();
+        assertThat(meterRegistry.get("borrow.events.send").tag("topic", TOPIC).tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void send_should_key_record_and_carry_event_id_in_header() {
+        when(kafkaTemplate.send(recordCaptor.capture())).thenReturn(completed());
+
+        kafkaEventSender.send(TOPIC, key, eventId, "payload").join();
+
+        ProducerRecord<UUID, Object> record = recordCaptor.getValue();
+        assertThat(record.topic()).isEqualTo(TOPIC);
+        assertThat(record.key()).isEqualTo(key);
+        assertThat(record.value()).isEqualTo("payload");
+        assertThat(new String(record.headers().lastHeader(KafkaEventSender.EVENT_ID_HEADER).value(), StandardCharsets.UTF_8)).isEqualTo(eventId.toString());
+    }
+
+    @Test
+    void send_should_fail_without_resending_when_producer_gives_up() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failed(new KafkaException("send failed", new TimeoutException("delivery timeout"))));
+
+        CompletableFuture<SendResult<UUID, Object>> delivery = kafkaEventSender.send(TOPIC, key, eventId, "payload");
+
+        assertThrows(CompletionException.class, delivery::join);
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        assertThat(meterRegistry.get("borrow.events.send.failures").tag("topic", TOPIC).counter().count()).isEqualTo(1.0);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void send_should_fail_on_permanent_failures() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(failed(new RecordTooLargeException("too large")));
+
+        assertThrows(CompletionException.class, () -> kafkaEventSender.send(TOPIC, key, eventId, "payload").join());
+
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        assertThat(meterRegistry.get("borrow.events.send").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void send_should_track_synchronous_send_errors() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenThrow(new KafkaException("serialization failed"));
+
+        assertThrows(CompletionException.class, () -> kafkaEventSender.send(TOPIC, key, eventId, "payload").join());
+
+        assertThat(meterRegistry.get("borrow.events.send.failures").tag("topic", TOPIC).counter().count()).isEqualTo(1.0);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void send_should_reject_when_in_flight_limit_is_reached() {
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new SettableListenableFuture<>());
+        kafkaEventSender.send(TOPIC, key, eventId, "payload");
+
+        assertThrows(EventPublishRejectedException.class, () -> kafkaEventSender.send(TOPIC, key, eventId, "payload"));
+
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        assertThat(meterRegistry.get("borrow.events.send.rejected").tag("topic", TOPIC).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void send_should_reject_when_interrupted_while_waiting() {
+        Thread.currentThread().interrupt();
+
+        assertThrows(EventPublishRejectedException.class, () -> kafkaEventSender.send(TOPIC, key, eventId, "payload"));
+
+        assertThat(Thread.interrupted()).isTrue();
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("borrow.events.in.flight").gauge().value();
+    }
+
+    private static SettableListenableFuture<SendResult<UUID, Object>> completed() {
+        SettableListenableFuture<SendResult<UUID, Object>> future = new SettableListenableFuture<>();
+        future.set(null);
+        return future;
+    }
+
+    private static SettableListenableFuture<SendResult<UUID, Object>> failed(Throwable ex) {
+        SettableListenableFuture<SendResult<UUID, Object>> future = new SettableListenableFuture<>();
+        future.setException(ex);
+        return future;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.configuration.KafkaProducerConfig;
+import com.example.demo.event.codec.BinaryEventSerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaProducerConfigTest {
+
+    private final KafkaProducerConfig kafkaProducerConfig = new KafkaProducerConfig();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(kafkaProducerConfig, "bootstrapServers", "localhost:9092");
+        ReflectionTestUtils.setField(kafkaProducerConfig, "encoding", "json");
+    }
+
+    @Test
+    void producerConfigs_should_configure_an_idempotent_producer() {
+        ProducerConfig config = new ProducerConfig(kafkaProducerConfig.producerConfigs());
+
+        assertThat(config.getString(ProducerConfig.ACKS_CONFIG)).isEqualTo("-1");
+        assertThat(config.getBoolean(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG)).isTrue();
+        assertThat(config.getInt(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION)).isEqualTo(5);
+        assertThat(config.getInt(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG)).isEqualTo(120_000);
+        assertThat(config.getClass(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG)).isEqualTo(JsonSerializer.class);
+    }
+
+    @Test
+    void producerConfigs_should_keep_idempotence_with_binary_encoding() {
+        ReflectionTestUtils.setField(kafkaProducerConfig, "encoding", "binary");
+
+        Map<String, Object> props = kafkaProducerConfig.producerConfigs();
+
+        assertThat(props).containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true).containsEntry(ProducerConfig.ACKS_CONFIG, "all")
+                .containsEntry(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BinaryEventSerializer.class);
+    }
+}
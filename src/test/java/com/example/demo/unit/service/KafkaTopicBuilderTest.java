@@ -10,7 +10,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 class KafkaTopicBuilderTest {
 
-    private final KafkaTopicBuilder kafkaTopicBuilder = new KafkaTopicBuilder();
+    private final KafkaTopicBuilder kafkaTopicBuilder = new KafkaTopicBuilder(12);
 
     @Test
     @DisplayName("Should create Kafka topic for borrow events")
@@ -18,6 +18,7 @@ class KafkaTopicBuilderTest {
         NewTopic topic = kafkaTopicBuilder.borrowTopic();
         assertNotNull(topic);
         assertEquals("library.borrow.v1", topic.name());
+        assertEquals(12, topic.numPartitions());
     }
 
     @Test
@@ -26,5 +27,6 @@ class KafkaTopicBuilderTest {
         NewTopic topic = kafkaTopicBuilder.returnTopic();
         assertNotNull(topic);
         assertEquals("library.return.v1", topic.name());
+        assertEquals(12, topic.numPartitions());
     }
 }
\ No newline at end of file
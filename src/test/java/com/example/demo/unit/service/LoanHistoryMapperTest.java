@@ -0,0 +1,80 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.LoanHistoryCursor;
+import com.example.demo.dto.LoanHistoryPageDTO;
+import com.example.demo.dto.LoanHistoryRow;
+import com.example.demo.exception.InvalidCursorException;
+import com.example.demo.mapper.LoanHistoryMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoanHistoryMapperTest {
+
+    private final LoanHistoryMapper loanHistoryMapper = new LoanHistoryMapper();
+
+    private final UUID newestLoan = UUID.randomUUID();
+
+    private final UUID olderLoan = UUID.randomUUID();
+
+    private final LocalDate newestStart = LocalDate.of(2024, 5, 1);
+
+    private final LocalDate olderStart = LocalDate.of(2024, 4, 1);
+
+    @Test
+    void toPage_should_group_rows_by_loan_in_order_without_next_cursor_on_last_page() {
+        List<Row> rows = List.of(row(12, newestLoan, newestStart, null), row(11, newestLoan, newestStart, null), row(5, olderLoan, olderStart, olderStart.plusDays(10)));
+
+        LoanHistoryPageDTO page = loanHistoryMapper.toPage(rows, 3);
+
+        assertThat(page.nextCursor()).isNull();
+        assertThat(page.loans()).hasSize(2);
+        assertThat(page.loans().get(0).borrow_uuid()).isEqualTo(newestLoan);
+        assertThat(page.loans().get(0).books()).hasSize(2);
+        assertThat(page.loans().get(0).borrowReturnDate()).isNull();
+        assertThat(page.loans().get(1).borrowStartDate()).isEqualTo("2024-04-01");
+        assertThat(page.loans().get(1).borrowEndDate()).isEqualTo("2024-04-15");
+        assertThat(page.loans().get(1).borrowReturnDate()).isEqualTo("2024-04-11");
+    }
+
+    @Test
+    void toPage_should_move_loan_continuing_past_the_page_to_the_next_page() {
+        List<Row> rows = List.of(row(12, newestLoan, newestStart, null), row(6, olderLoan, olderStart, null), row(5, olderLoan, olderStart, null));
+
+        LoanHistoryPageDTO page = loanHistoryMapper.toPage(rows, 2);
+
+        assertThat(page.loans()).extracting(entry -> entry.borrow_uuid()).containsExactly(newestLoan);
+        assertThat(loanHistoryMapper.parseCursor(page.nextCursor())).isEqualTo(new LoanHistoryCursor(newestStart, 2, 12));
+    }
+
+    @Test
+    void toPage_should_split_loan_larger_than_the_page() {
+        List<Row> rows = List.of(row(13, newestLoan, newestStart, null), row(12, newestLoan, newestStart, null), row(11, newestLoan, newestStart, null));
+
+        LoanHistoryPageDTO page = loanHistoryMapper.toPage(rows, 2);
+
+        assertThat(page.loans()).singleElement().satisfies(entry -> assertThat(entry.books()).hasSize(2));
+        assertThat(loanHistoryMapper.parseCursor(page.nextCursor())).isEqualTo(new LoanHistoryCursor(newestStart, 2, 12));
+    }
+
+    @Test
+    void parseCursor_should_reject_malformed_cursor() {
+        assertThatThrownBy(() -> loanHistoryMapper.parseCursor("not a cursor")).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> loanHistoryMapper.parseCursor("MjAyNC0wNS0wMQ")).isInstanceOf(InvalidCursorException.class);
+        // 明細の id だけの位置は、同じ日の貸出の順序を決められないため受け付けません
+        assertThatThrownBy(() -> loanHistoryMapper.parseCursor("MjAyNC0wNS0wMToxMg")).isInstanceOf(InvalidCursorException.class);
+    }
+
+    private Row row(int id, UUID borrowUuid, LocalDate startDate, LocalDate returnDate) {
+        return new Row(id, borrowUuid.equals(newestLoan) ? 2 : 1, borrowUuid, UUID.randomUUID(), UUID.randomUUID(), startDate, startDate.plusWeeks(2), returnDate);
+    }
+
+    private record Row(int getId, int getBorrowId, UUID getBorrowUuid, UUID getBookUuid, UUID getChapterUuid, LocalDate getBorrowStartDate,
+                       LocalDate getBorrowEndDate, LocalDate getBorrowReturnDate) implements LoanHistoryRow {
+    }
+}
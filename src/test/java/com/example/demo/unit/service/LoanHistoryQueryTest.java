@@ -0,0 +1,107 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.LoanHistoryRow;
+import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.BorrowRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class LoanHistoryQueryTest {
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private BorrowItemRepository borrowItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void should_page_member_history_newest_first_by_seeking_past_the_last_row() {
+        UUID newestLoan = UUID.randomUUID();
+        UUID middleLoan = UUID.randomUUID();
+        UUID oldestLoan = UUID.randomUUID();
+        borrow(memberCardUuid, oldestLoan, today.minusDays(60), 1);
+        borrow(memberCardUuid, middleLoan, today.minusDays(30), 2);
+        borrow(memberCardUuid, newestLoan, today, 1);
+        borrow(UUID.randomUUID(), UUID.randomUUID(), today, 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<LoanHistoryRow> first = borrowRepository.findLoanHistory(memberCardUuid, PageRequest.of(0, 2));
+        LoanHistoryRow last = first.getLast();
+        List<LoanHistoryRow> second = borrowRepository.findLoanHistoryBefore(memberCardUuid, last.getBorrowStartDate(), last.getBorrowId(), last.getId(), PageRequest.of(0, 2));
+        LoanHistoryRow secondLast = second.getLast();
+        List<LoanHistoryRow> third = borrowRepository.findLoanHistoryBefore(memberCardUuid, secondLast.getBorrowStartDate(), secondLast.getBorrowId(), secondLast.getId(), PageRequest.of(0, 2));
+
+        assertThat(first).extracting(LoanHistoryRow::getBorrowUuid).containsExactly(newestLoan, middleLoan);
+        assertThat(second).extracting(LoanHistoryRow::getBorrowUuid).containsExactly(middleLoan, oldestLoan);
+        assertThat(third).isEmpty();
+        assertThat(first.get(1).getId()).isGreaterThan(second.get(0).getId());
+    }
+
+    @Test
+    void should_order_loans_of_the_same_day_by_loan_and_resume_inside_a_split_loan() {
+        UUID firstLoan = UUID.randomUUID();
+        UUID secondLoan = UUID.randomUUID();
+        borrow(memberCardUuid, firstLoan, today, 2);
+        borrow(memberCardUuid, secondLoan, today, 3);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<LoanHistoryRow> first = borrowRepository.findLoanHistory(memberCardUuid, PageRequest.of(0, 2));
+        LoanHistoryRow last = first.getLast();
+        List<LoanHistoryRow> rest = borrowRepository.findLoanHistoryBefore(memberCardUuid, last.getBorrowStartDate(), last.getBorrowId(), last.getId(), PageRequest.of(0, 10));
+
+        assertThat(first).extracting(LoanHistoryRow::getBorrowUuid).containsExactly(secondLoan, secondLoan);
+        assertThat(rest).extracting(LoanHistoryRow::getBorrowUuid).containsExactly(secondLoan, firstLoan, firstLoan);
+        assertThat(rest.getFirst().getId()).isLessThan(last.getId());
+    }
+
+    @Test
+    void should_read_projection_without_loading_entities() {
+        borrow(memberCardUuid, UUID.randomUUID(), today, 1);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<LoanHistoryRow> rows = borrowRepository.findLoanHistory(memberCardUuid, PageRequest.of(0, 10));
+
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.getBorrowStartDate()).isEqualTo(today);
+            assertThat(row.getBorrowReturnDate()).isNull();
+        });
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void borrow(UUID memberCardUuid, UUID borrowUuid, LocalDate startDate, int books) {
+        borrowRepository.save(Borrow.builder().memberCardUuid(memberCardUuid).borrowUuid(borrowUuid).borrowStartDate(startDate).borrowEndDate(startDate.plusWeeks(2)).build());
+        borrowItemRepository.saveAll(IntStream.range(0, books).mapToObj(i -> BorrowItem.builder().borrowUuid(borrowUuid).borrowStartDate(startDate).bookUuid(UUID.randomUUID()).chapterUuid(UUID.randomUUID()).build()).toList());
+    }
+}
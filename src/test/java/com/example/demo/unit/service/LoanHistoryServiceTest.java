@@ -0,0 +1,60 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.LoanHistoryCursor;
+import com.example.demo.dto.LoanHistoryPageDTO;
+import com.example.demo.dto.LoanHistoryRow;
+import com.example.demo.mapper.LoanHistoryMapper;
+import com.example.demo.repository.BorrowRepository;
+import com.example.demo.service.LoanHistoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanHistoryServiceTest {
+
+    @Mock
+    private BorrowRepository borrowRepository;
+
+    @Mock
+    private LoanHistoryMapper loanHistoryMapper;
+
+    @InjectMocks
+    private LoanHistoryService loanHistoryService;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    private final List<LoanHistoryRow> rows = List.of(mock(LoanHistoryRow.class));
+
+    private final LoanHistoryPageDTO page = new LoanHistoryPageDTO(List.of(), null);
+
+    @Test
+    void getLoanHistory_should_read_first_page_with_one_extra_row() {
+        when(borrowRepository.findLoanHistory(memberCardUuid, PageRequest.of(0, 21))).thenReturn(rows);
+        when(loanHistoryMapper.toPage(rows, 20)).thenReturn(page);
+
+        assertThat(loanHistoryService.getLoanHistory(memberCardUuid, null, 20)).isSameAs(page);
+        verify(borrowRepository, never()).findLoanHistoryBefore(any(), any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void getLoanHistory_should_seek_past_cursor_position() {
+        LocalDate startDate = LocalDate.of(2024, 4, 1);
+        when(loanHistoryMapper.parseCursor("cursor")).thenReturn(new LoanHistoryCursor(startDate, 7, 42));
+        when(borrowRepository.findLoanHistoryBefore(memberCardUuid, startDate, 7, 42, PageRequest.of(0, 11))).thenReturn(rows);
+        when(loanHistoryMapper.toPage(rows, 10)).thenReturn(page);
+
+        assertThat(loanHistoryService.getLoanHistory(memberCardUuid, "cursor", 10)).isSameAs(page);
+        verify(borrowRepository, never()).findLoanHistory(any(), any());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.exception.UnreturnedBorrowExistsException;
+import com.example.demo.metrics.LoanMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoanMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final LoanMetrics loanMetrics = new LoanMetrics(meterRegistry);
+
+    @Test
+    void succeeded_should_record_every_phase_and_request_as_success() {
+        LoanMetrics.Recording recording = loanMetrics.start(LoanMetrics.BORROW, "eligibility");
+        recording.phase("save");
+        recording.items(3);
+        recording.succeeded();
+
+        assertThat(meterRegistry.get("borrow.loan.phase").tag("phase", "eligibility").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("borrow.loan.phase").tag("phase", "save").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("borrow.loan.requests").tag("operation", "borrow").tag("outcome", "success").tag("reason", "none").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("borrow.loan.items").tag("operation", "borrow").summary().totalAmount()).isEqualTo(3.0);
+        assertThat(meterRegistry.find("borrow.loan.failures").counter()).isNull();
+    }
+
+    @Test
+    void failed_should_tag_business_rejection_with_phase_and_reason() {
+        LoanMetrics.Recording recording = loanMetrics.start(LoanMetrics.RETURN, "lookup");
+        recording.failed(new UnreturnedBorrowExistsException("active"));
+
+        assertThat(meterRegistry.get("borrow.loan.phase").tag("phase", "lookup").tag("outcome", "rejected").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("borrow.loan.requests").tag("operation", "return").tag("outcome", "rejected").tag("reason", "UnreturnedBorrowExistsException").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("borrow.loan.failures").tag("operation", "return").tag("phase", "lookup").tag("outcome", "rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void failed_should_record_unexpected_exception_as_error() {
+        LoanMetrics.Recording recording = loanMetrics.start(LoanMetrics.BORROW, "eligibility");
+        recording.phase("publish");
+        recording.failed(new IllegalStateException("broker down"));
+
+        assertThat(meterRegistry.get("borrow.loan.failures").tag("phase", "publish").tag("outcome", "error").tag("reason", "IllegalStateException").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("borrow.loan.requests").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void daysLate_should_record_distribution() {
+        LoanMetrics.Recording recording = loanMetrics.start(LoanMetrics.RETURN, "lookup");
+        recording.daysLate(0);
+        recording.daysLate(4);
+
+        assertThat(meterRegistry.get("borrow.loan.days.late").summary().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("borrow.loan.days.late").summary().max()).isEqualTo(4.0);
+    }
+}
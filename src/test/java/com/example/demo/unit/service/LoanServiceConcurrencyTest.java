@@ -0,0 +1,185 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.cache.ChapterAvailabilityIndex;
+import com.example.demo.cache.MemberLoanStateCache;
+import com.example.demo.dto.BookPayload;
+import com.example.demo.dto.LoanItemDetails;
+import com.example.demo.dto.MemberLoanState;
+import com.example.demo.event.publisher.BorrowEventPublisher;
+import com.example.demo.exception.DailyBorrowLimitExceededException;
+import com.example.demo.exception.UnreturnedBorrowExistsException;
+import com.example.demo.mapper.BorrowAssembler;
+import com.example.demo.mapper.BorrowMapper;
+import com.example.demo.mapper.ReturnBorrowAssembler;
+import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.metrics.LoanMetrics;
+import com.example.demo.policy.BorrowPolicy;
+import com.example.demo.policy.ReturnBorrowPolicy;
+import com.example.demo.repository.BorrowItemRepository;
+import com.example.demo.repository.BorrowRepository;
+import com.example.demo.repository.MemberSummaryRepository;
+import com.example.demo.service.LoanService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 同じ会員の貸出を同時に送り、未返却の貸出が一件だけ作られ、その日に返却した会員には二件目が作られないことを確かめます。
+ * キャッシュは常に貸出できると答えるようにし、チェックを通った後の競合を再現します。各リクエストは自分のトランザクションでコミットするため、テストのトランザクションは使いません。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"})
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoanServiceConcurrencyTest {
+
+    private static final int ROUNDS = 10;
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private BorrowItemRepository borrowItemRepository;
+
+    @Autowired
+    private MemberSummaryRepository memberSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<UUID> members = new ArrayList<>();
+
+    private LoanService loanService;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MemberLoanStateCache memberLoanStateCache = mock(MemberLoanStateCache.class);
+        when(memberLoanStateCache.get(any())).thenReturn(MemberLoanState.NONE);
+        loanService = new LoanService(borrowRepository, borrowItemRepository, new BorrowMapper(), mock(ReturnMapper.class), mock(ReturnBorrowPolicy.class), new BorrowPolicy(),
+                mock(BorrowEventPublisher.class), mock(ReturnBorrowAssembler.class), new BorrowAssembler(), memberLoanStateCache, memberSummaryRepository, mock(ChapterAvailabilityIndex.class), new LoanMetrics(new SimpleMeterRegistry()));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        members.forEach(member -> {
+            jdbcTemplate.update("DELETE FROM borrow_item WHERE borrow_uuid IN (SELECT borrow_uuid FROM borrow WHERE member_card_uuid = ?)", member);
+            jdbcTemplate.update("DELETE FROM borrow WHERE member_card_uuid = ?", member);
+            jdbcTemplate.update("DELETE FROM member_summary WHERE member_card_uuid = ?", member);
+        });
+    }
+
+    @Test
+    void concurrent_borrows_of_same_member_should_create_exactly_one_active_loan() throws Exception {
+        BookPayload payload = new BookPayload(List.of(new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID()), new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID())));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                UUID member = UUID.randomUUID();
+                members.add(member);
+                AtomicInteger borrowed = new AtomicInteger();
+                AtomicInteger rejected = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> loanService.borrowBooks(member, payload));
+                            borrowed.incrementAndGet();
+                        } catch (UnreturnedBorrowExistsException ex) {
+                            rejected.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+
+                assertThat(borrowed).hasValue(1);
+                assertThat(rejected).hasValue(THREADS - 1);
+                assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrow WHERE member_card_uuid = ? AND borrow_return_date IS NULL", Long.class, member)).isEqualTo(1);
+                assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrow_item i JOIN borrow b ON b.borrow_uuid = i.borrow_uuid WHERE b.member_card_uuid = ?", Long.class, member)).isEqualTo(2);
+                assertThat(jdbcTemplate.queryForObject("SELECT active_loan_count FROM member_summary WHERE member_card_uuid = ?", Integer.class, member)).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void borrows_after_a_return_elsewhere_on_the_same_day_should_hit_the_daily_limit_despite_a_stale_cache() throws Exception {
+        BookPayload payload = new BookPayload(List.of(new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID())));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                UUID member = UUID.randomUUID();
+                members.add(member);
+                UUID borrowUuid = transactionTemplate.execute(status -> loanService.borrowBooks(member, payload)).borrow_uuid();
+                // 別のインスタンスでの返却です。このインスタンスのキャッシュは更新されません
+                transactionTemplate.executeWithoutResult(status -> {
+                    LocalDate from = memberSummaryRepository.findActiveLoansFrom(member).orElseThrow();
+                    borrowRepository.returnActiveBorrows(borrowUuid, member, from, LocalDate.now());
+                    memberSummaryRepository.recordReturn(member, from);
+                });
+                AtomicInteger limited = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> loanService.borrowBooks(member, payload));
+                        } catch (DailyBorrowLimitExceededException ex) {
+                            limited.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+
+                assertThat(limited).hasValue(THREADS);
+                assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM borrow WHERE member_card_uuid = ?", Long.class, member)).isEqualTo(1);
+                assertThat(jdbcTemplate.queryForObject("SELECT active_loan_count FROM member_summary WHERE member_card_uuid = ?", Integer.class, member)).isZero();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
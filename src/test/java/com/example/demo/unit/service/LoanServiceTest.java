@@ -1,18 +1,26 @@
 package com.example.demo.unit.service;
 
+import com.example.demo.cache.ChapterAvailabilityIndex;
+import com.example.demo.cache.MemberLoanStateCache;
 import com.example.demo.dto.*;
 import com.example.demo.event.publisher.KafkaBorrowEventPublisher;
+import com.example.demo.exception.ChapterAlreadyLentException;
 import com.example.demo.exception.DailyBorrowLimitExceededException;
 import com.example.demo.exception.UnreturnedBorrowExistsException;
 import com.example.demo.mapper.BorrowAssembler;
 import com.example.demo.mapper.BorrowMapper;
 import com.example.demo.mapper.ReturnBorrowAssembler;
 import com.example.demo.mapper.ReturnMapper;
+import com.example.demo.metrics.LoanMetrics;
 import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import com.example.demo.policy.BorrowPolicy;
 import com.example.demo.policy.ReturnBorrowPolicy;
+import com.example.demo.repository.BorrowItemRepository;
 import com.example.demo.repository.BorrowRepository;
+import com.example.demo.repository.MemberSummaryRepository;
 import com.example.demo.service.LoanService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -22,12 +30,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,6 +51,9 @@ class LoanServiceTest {
     @Mock
     private BorrowRepository borrowRepository;
 
+    @Mock
+    private BorrowItemRepository borrowItemRepository;
+
     @Mock
     private KafkaTemplate<UUID, Object> kafkaTemplate;
 
@@ -65,6 +78,20 @@ class LoanServiceTest {
     @Mock
     private KafkaBorrowEventPublisher borrowEventPublisher;
 
+    @Mock
+    private MemberLoanStateCache memberLoanStateCache;
+
+    @Mock
+    private MemberSummaryRepository memberSummaryRepository;
+
+    @Mock
+    private ChapterAvailabilityIndex chapterAvailabilityIndex;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private LoanMetrics loanMetrics = new LoanMetrics(meterRegistry);
+
     @InjectMocks
     private LoanService loanService;
 
@@ -97,52 +124,78 @@ class LoanServiceTest {
         LocalDate expectedStartDate = LocalDate.now();
         LocalDate expectedEndDate = expectedStartDate.plusWeeks(2);
         BorrowAggregate aggregate = new BorrowAggregate(mockBorrowUUID, memberCardUUID, expectedStartDate, expectedEndDate, items);
-        List<Borrow> entities = List.of(mock(Borrow.class));
+        Borrow header = mock(Borrow.class);
+        List<BorrowItem> entities = List.of(mock(BorrowItem.class));
         BorrowCreatedSummaryDTO expectedDto = new BorrowCreatedSummaryDTO(mockBorrowUUID, memberCardUUID, expectedStartDate.toString(), expectedEndDate.toString(), items);
-        when(borrowRepository.getBookMemberCardByBook(memberCardUUID)).thenReturn(false);
-        when(borrowRepository.existsByMemberCardUuid(memberCardUUID)).thenReturn(false);
-        when(borrowRepository.checkLatestBorrowDate(memberCardUUID)).thenReturn(false);
+        MemberEligibility eligibility = mock(MemberEligibility.class);
+        when(memberLoanStateCache.get(memberCardUUID)).thenReturn(eligibility);
         doReturn(aggregate).when(borrowAssembler).toAggregate(any(UUID.class), eq(memberCardUUID), any(LocalDate.class), any(LocalDate.class), eq(items));
-        when(borrowMapper.toEntities(aggregate)).thenReturn(entities);
+        when(borrowMapper.toEntity(aggregate)).thenReturn(header);
+        when(borrowMapper.toItems(aggregate)).thenReturn(entities);
         when(borrowMapper.toSummaryDTO(aggregate)).thenReturn(expectedDto);
+        when(memberSummaryRepository.recordBorrow(memberCardUUID, expectedStartDate, expectedEndDate)).thenReturn(1);
         BorrowCreatedSummaryDTO result = loanService.borrowBooks(memberCardUUID, payload);
         assertEquals(expectedDto, result);
-        verify(borrowPolicy).validateNoActiveBorrow(false);
-        verify(borrowPolicy).validateDailyLimit(false, false);
+        verify(borrowPolicy).validateEligibility(eligibility, expectedStartDate);
         verify(borrowMapper).toSummaryDTO(aggregate);
-        verify(borrowMapper).toEntities(aggregate);
-        verify(borrowRepository).saveAll(entities);
+        verify(borrowRepository).save(header);
+        verify(borrowItemRepository).saveAll(entities);
+        verify(borrowPolicy).validateBorrowRecorded(eq(1), eq(memberCardUUID), eq(expectedStartDate), any());
+        verify(chapterAvailabilityIndex).reserve(items);
+        verify(memberLoanStateCache).recordBorrow(memberCardUUID, expectedStartDate);
         verify(borrowEventPublisher).publishBorrowCreated(aggregate, entities);
         verify(borrowAssembler).toAggregate(uuidCaptor.capture(), eq(memberCardUUID), startDateCaptor.capture(), endDateCaptor.capture(), eq(items));
         assertNotNull(uuidCaptor.getValue(), "Generated Borrow UUID should not be null");
         assertEquals(expectedStartDate, startDateCaptor.getValue(), "Start date should be today");
         assertEquals(expectedEndDate, endDateCaptor.getValue(), "End date should be exactly 2 weeks from today");
+        assertThat(meterRegistry.get("borrow.loan.phase").tag("operation", "borrow").tag("outcome", "success").timers()).hasSize(4);
+        assertThat(meterRegistry.get("borrow.loan.requests").tag("operation", "borrow").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("borrow.loan.items").tag("operation", "borrow").summary().totalAmount()).isEqualTo(1.0);
     }
 
 
     @Test
     void borrowBooks_should_throw_when_daily_limit_reached() {
         UUID uuid = UUID.randomUUID();
-        when(borrowRepository.getBookMemberCardByBook(uuid)).thenReturn(false);
-        when(borrowRepository.existsByMemberCardUuid(uuid)).thenReturn(true);
-        when(borrowRepository.checkLatestBorrowDate(uuid)).thenReturn(true);
-        doThrow(new DailyBorrowLimitExceededException("一日の借入限度額に達しました。")).when(borrowPolicy).validateDailyLimit(true, true);
+        MemberEligibility eligibility = mock(MemberEligibility.class);
+        when(memberLoanStateCache.get(uuid)).thenReturn(eligibility);
+        doThrow(new DailyBorrowLimitExceededException("一日の借入限度額に達しました。")).when(borrowPolicy).validateEligibility(eq(eligibility), any(LocalDate.class));
         DailyBorrowLimitExceededException exception = assertThrows(DailyBorrowLimitExceededException.class, () -> loanService.borrowBooks(uuid, bookPayload));
-        verify(borrowRepository).existsByMemberCardUuid(uuid);
-        verify(borrowRepository).checkLatestBorrowDate(uuid);
+        verify(memberLoanStateCache).get(uuid);
+        verify(borrowRepository, never()).saveAll(any());
+        verify(memberLoanStateCache, never()).recordBorrow(any(), any());
+        verifyNoInteractions(memberSummaryRepository);
         assertThat(exception.getMessage()).isEqualTo("一日の借入限度額に達しました。");
+        assertThat(meterRegistry.get("borrow.loan.failures").tag("phase", "eligibility").tag("outcome", "rejected").tag("reason", "DailyBorrowLimitExceededException").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("borrow.loan.requests").tag("outcome", "rejected").tag("reason", "DailyBorrowLimitExceededException").timer().count()).isEqualTo(1);
     }
 
     @Test
     void borrowBooks_should_throw_when_active_borrow_exists() {
         UUID uuid = UUID.randomUUID();
-        when(borrowRepository.getBookMemberCardByBook(uuid)).thenReturn(true);
-        doThrow(new UnreturnedBorrowExistsException("まだ貸出返却されていないの貸し出しがあります。")).when(borrowPolicy).validateNoActiveBorrow(true);
+        MemberEligibility eligibility = mock(MemberEligibility.class);
+        when(memberLoanStateCache.get(uuid)).thenReturn(eligibility);
+        doThrow(new UnreturnedBorrowExistsException("まだ貸出返却されていないの貸し出しがあります。")).when(borrowPolicy).validateEligibility(eq(eligibility), any(LocalDate.class));
         UnreturnedBorrowExistsException exception = assertThrows(UnreturnedBorrowExistsException.class, () -> loanService.borrowBooks(uuid, bookPayload));
-        verify(borrowRepository).getBookMemberCardByBook(uuid);
+        verify(memberLoanStateCache).get(uuid);
         assertThat(exception.getMessage()).isEqualTo("まだ貸出返却されていないの貸し出しがあります。");
     }
 
+    @Test
+    void borrowBooks_should_throw_when_chapter_is_already_lent() {
+        UUID uuid = UUID.randomUUID();
+        when(memberLoanStateCache.get(uuid)).thenReturn(mock(MemberEligibility.class));
+        when(memberSummaryRepository.recordBorrow(eq(uuid), any(LocalDate.class), any(LocalDate.class))).thenReturn(1);
+        doThrow(new ChapterAlreadyLentException("本のチャプターはすでに貸し出されています。")).when(chapterAvailabilityIndex).reserve(bookPayload.data());
+        assertThrows(ChapterAlreadyLentException.class, () -> loanService.borrowBooks(uuid, bookPayload));
+        verify(borrowRepository, never()).save(any());
+        verify(borrowItemRepository, never()).saveAll(any());
+        verify(memberLoanStateCache, never()).recordBorrow(any(), any());
+        verify(borrowEventPublisher, never()).publishBorrowCreated(any(), any());
+        assertThat(meterRegistry.get("borrow.loan.phase").tag("phase", "eligibility").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("borrow.loan.failures").tag("phase", "record").tag("reason", "ChapterAlreadyLentException").counter().count()).isEqualTo(1.0);
+    }
+
 
     @Test
     void returnBorrowBooks_should_return_borrow_without_late_fee() {
@@ -152,16 +205,17 @@ class LoanServiceTest {
         when(returnBorrowAssembler.toAggregate(any(), any(), any(), any(), anyBoolean(), anyLong(), any(), anyList())).thenReturn(aggregate);
         Borrow borrow = Instancio.of(Borrow.class).set(field(Borrow::getBorrowStartDate), LocalDate.now()).set(field(Borrow::getBorrowEndDate), LocalDate.now().plusWeeks(2)).create();
         List<Borrow> borrows = List.of(borrow);
-        when(borrowRepository.getBorrowsByBorrowUuidAndMemberCardUuidAndBorrowReturnDateIsNull(borrowUuid, memberCardUUID)).thenReturn(borrows);
+        when(borrowRepository.returnActiveBorrows(eq(borrowUuid), eq(memberCardUUID), any(LocalDate.class), any(LocalDate.class))).thenReturn(borrows);
         when(returnBorrowPolicy.validateAndGetBorrow(borrows)).thenReturn(borrow);
+        List<BorrowItem> borrowItems = List.of(BorrowItem.builder().borrowUuid(borrowUuid).borrowStartDate(borrow.getBorrowStartDate()).build());
+        when(borrowItemRepository.findByBorrowUuidAndBorrowStartDate(borrowUuid, borrow.getBorrowStartDate())).thenReturn(borrowItems);
         when(returnBorrowPolicy.calculateDaysLate(any(), any())).thenReturn(0L);
         when(returnBorrowPolicy.isLate(0L)).thenReturn(false);
         when(returnBorrowPolicy.calculateFine(eq(0L), any())).thenReturn(BigDecimal.ZERO);
         ReturnBorrowCreatedSummaryDTO expected = new ReturnBorrowCreatedSummaryDTO(borrowUuid, memberCardUUID, borrow.getBorrowStartDate().toString(), borrow.getBorrowEndDate().toString(), LocalDate.now().toString(), false, 0L, BigDecimal.ZERO, List.of());
         when(returnMapper.toSummaryDTO(any(ReturnBorrowAggregate.class))).thenReturn(expected);
         ReturnBorrowCreatedSummaryDTO response = loanService.returnBorrowBooks(memberCardUUID, borrowUuid, bookPayload);
-        verify(borrowRepository).setReturnDateForBorrows(eq(borrows), any(LocalDate.class));
-        verify(borrowEventPublisher).publishReturnBorrowCreated(any(ReturnBorrowAggregate.class), eq(borrows));
+        verify(borrowEventPublisher).publishReturnBorrowCreated(any(ReturnBorrowAggregate.class), eq(borrowItems));
         assertThat(response).isEqualTo(expected);
     }
 
@@ -170,23 +224,31 @@ class LoanServiceTest {
         UUID borrowUuid = UUID.randomUUID();
         UUID memberCardUUID = UUID.randomUUID();
         LocalDate currentDate = LocalDate.now();
+        LocalDate from = currentDate.minusDays(20);
+        when(memberSummaryRepository.findActiveLoansFrom(memberCardUUID)).thenReturn(Optional.of(from));
         Borrow borrow = Instancio.create(Borrow.class);
         List<Borrow> borrows = List.of(borrow);
         List<LoanItemDetails> items = List.of(new LoanItemDetails(UUID.randomUUID(), UUID.randomUUID()));
         ReturnBorrowAggregate aggregate = new ReturnBorrowAggregate(borrowUuid, memberCardUUID, borrow.getBorrowStartDate().toString(), borrow.getBorrowEndDate().toString(), currentDate.toString(), true, 5L, BigDecimal.valueOf(500), items);
         ReturnBorrowCreatedSummaryDTO expectedDto = new ReturnBorrowCreatedSummaryDTO(borrowUuid, memberCardUUID, borrow.getBorrowStartDate().toString(), borrow.getBorrowEndDate().toString(), currentDate.toString(), true, 5L, BigDecimal.valueOf(500), items);
-        when(borrowRepository.getBorrowsByBorrowUuidAndMemberCardUuidAndBorrowReturnDateIsNull(borrowUuid, memberCardUUID)).thenReturn(borrows);
+        when(borrowRepository.returnActiveBorrows(eq(borrowUuid), eq(memberCardUUID), any(LocalDate.class), any(LocalDate.class))).thenReturn(borrows);
         when(returnBorrowPolicy.validateAndGetBorrow(borrows)).thenReturn(borrow);
+        List<BorrowItem> borrowItems = List.of(BorrowItem.builder().borrowUuid(borrowUuid).borrowStartDate(borrow.getBorrowStartDate()).build());
+        when(borrowItemRepository.findByBorrowUuidAndBorrowStartDate(borrowUuid, borrow.getBorrowStartDate())).thenReturn(borrowItems);
         when(returnBorrowPolicy.calculateDaysLate(any(), any())).thenReturn(5L);
         when(returnBorrowPolicy.isLate(5L)).thenReturn(true);
         when(returnBorrowPolicy.calculateFine(eq(5L), any())).thenReturn(BigDecimal.valueOf(500));
         when(returnBorrowAssembler.toAggregate(eq(borrow), eq(borrowUuid), eq(memberCardUUID), any(LocalDate.class), eq(true), eq(5L), eq(BigDecimal.valueOf(500)), anyList())).thenReturn(aggregate);
         when(returnMapper.toSummaryDTO(aggregate)).thenReturn(expectedDto);
         ReturnBorrowCreatedSummaryDTO result = loanService.returnBorrowBooks(memberCardUUID, borrowUuid, bookPayload);
-        verify(borrowRepository).getBorrowsByBorrowUuidAndMemberCardUuidAndBorrowReturnDateIsNull(borrowUuid, memberCardUUID);
-        verify(borrowRepository).setReturnDateForBorrows(eq(borrows), any(LocalDate.class));
-        verify(borrowEventPublisher).publishReturnBorrowCreated(aggregate, borrows);
+        verify(borrowRepository).returnActiveBorrows(borrowUuid, memberCardUUID, from, currentDate);
+        verify(memberSummaryRepository).recordReturn(memberCardUUID, from);
+        verify(memberLoanStateCache).recordReturn(memberCardUUID);
+        verify(chapterAvailabilityIndex).release(borrowItems);
+        verify(borrowEventPublisher).publishReturnBorrowCreated(aggregate, borrowItems);
         assertThat(result).isEqualTo(expectedDto);
+        assertThat(meterRegistry.get("borrow.loan.phase").tag("operation", "return").tag("outcome", "success").timers()).hasSize(3);
+        assertThat(meterRegistry.get("borrow.loan.days.late").summary().totalAmount()).isEqualTo(5.0);
     }
 
 
@@ -194,10 +256,14 @@ class LoanServiceTest {
     void returnBorrowBooks_should_throw_exception_when_borrow_not_found() {
         UUID borrowUuid = UUID.randomUUID();
         UUID memberCardUUID = UUID.randomUUID();
-        when(borrowRepository.getBorrowsByBorrowUuidAndMemberCardUuidAndBorrowReturnDateIsNull(borrowUuid, memberCardUUID)).thenReturn(List.of());
+        when(borrowRepository.returnActiveBorrows(eq(borrowUuid), eq(memberCardUUID), any(LocalDate.class), any(LocalDate.class))).thenReturn(List.of());
         when(returnBorrowPolicy.validateAndGetBorrow(anyList())).thenThrow(new UnreturnedBorrowExistsException("まだ貸出返却されていないの貸し出しがあります。"));
         assertThrows(UnreturnedBorrowExistsException.class, () -> loanService.returnBorrowBooks(memberCardUUID, borrowUuid, bookPayload));
-        verify(borrowRepository, never()).setReturnDateForBorrows(any(), any());
+        verify(borrowRepository).returnActiveBorrows(borrowUuid, memberCardUUID, LocalDate.now(), LocalDate.now());
+        verify(memberLoanStateCache, never()).recordReturn(any());
+        verify(memberSummaryRepository, never()).recordReturn(any(), any());
+        verifyNoInteractions(chapterAvailabilityIndex);
         verify(borrowEventPublisher, never()).publishReturnBorrowCreated(any(), any());
+        assertThat(meterRegistry.get("borrow.loan.failures").tag("operation", "return").tag("phase", "lookup").tag("reason", "UnreturnedBorrowExistsException").counter().count()).isEqualTo(1.0);
     }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.cache.MemberLoanStateCache;
+import com.example.demo.dto.MemberEligibility;
+import com.example.demo.dto.MemberLoanState;
+import com.example.demo.model.MemberSummary;
+import com.example.demo.repository.MemberSummaryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberLoanStateCacheTest {
+
+    @Mock
+    private MemberSummaryRepository memberSummaryRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MemberLoanStateCache memberLoanStateCache;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        memberLoanStateCache = new MemberLoanStateCache(memberSummaryRepository, meterRegistry, 100, 600);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_should_load_from_repository_once_and_record_hit_and_miss() {
+        LocalDate lastBorrowDate = LocalDate.of(2024, 1, 10);
+        when(memberSummaryRepository.findById(memberCardUuid)).thenReturn(Optional.of(new MemberSummary(memberCardUuid, 1, lastBorrowDate, lastBorrowDate.plusWeeks(2))));
+
+        MemberEligibility first = memberLoanStateCache.get(memberCardUuid);
+        MemberEligibility second = memberLoanStateCache.get(memberCardUuid);
+
+        assertThat(first.getHasActiveLoan()).isTrue();
+        assertThat(first.getHasHistory()).isTrue();
+        assertThat(first.getLastBorrowDate()).isEqualTo(lastBorrowDate);
+        assertThat(second).isEqualTo(first);
+        verify(memberSummaryRepository, times(1)).findById(memberCardUuid);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "memberLoanState").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "memberLoanState").tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_should_treat_member_without_summary_as_new_member() {
+        when(memberSummaryRepository.findById(memberCardUuid)).thenReturn(Optional.empty());
+
+        assertThat(memberLoanStateCache.get(memberCardUuid)).isEqualTo(MemberLoanState.NONE);
+    }
+
+    @Test
+    void recordBorrow_should_write_through_without_reloading() {
+        LocalDate today = LocalDate.now();
+
+        memberLoanStateCache.recordBorrow(memberCardUuid, today);
+
+        assertThat(memberLoanStateCache.get(memberCardUuid)).isEqualTo(MemberLoanState.borrowed(today));
+        verifyNoInteractions(memberSummaryRepository);
+    }
+
+    @Test
+    void recordBorrow_should_apply_only_after_commit() {
+        LocalDate today = LocalDate.now();
+        when(memberSummaryRepository.findById(memberCardUuid)).thenReturn(Optional.empty());
+        memberLoanStateCache.get(memberCardUuid);
+        TransactionSynchronizationManager.initSynchronization();
+
+        memberLoanStateCache.recordBorrow(memberCardUuid, today);
+
+        assertThat(memberLoanStateCache.get(memberCardUuid).getHasActiveLoan()).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(memberLoanStateCache.get(memberCardUuid)).isEqualTo(MemberLoanState.borrowed(today));
+    }
+
+    @Test
+    void recordReturn_should_clear_active_loan_and_keep_last_borrow_date() {
+        LocalDate borrowDate = LocalDate.of(2024, 1, 10);
+        memberLoanStateCache.recordBorrow(memberCardUuid, borrowDate);
+
+        memberLoanStateCache.recordReturn(memberCardUuid);
+
+        assertThat(memberLoanStateCache.get(memberCardUuid)).isEqualTo(new MemberLoanState(false, true, borrowDate));
+        verifyNoInteractions(memberSummaryRepository);
+    }
+
+    @Test
+    void recordReturn_should_not_populate_absent_member() {
+        when(memberSummaryRepository.findById(memberCardUuid)).thenReturn(Optional.of(new MemberSummary(memberCardUuid, 0, LocalDate.of(2024, 1, 10), null)));
+
+        memberLoanStateCache.recordReturn(memberCardUuid);
+        memberLoanStateCache.get(memberCardUuid);
+
+        verify(memberSummaryRepository).findById(memberCardUuid);
+    }
+
+    @Test
+    void getAll_should_load_only_missing_members_in_one_query() {
+        UUID cached = UUID.randomUUID();
+        UUID returning = UUID.randomUUID();
+        LocalDate lastBorrowDate = LocalDate.of(2024, 1, 10);
+        memberLoanStateCache.recordBorrow(cached, lastBorrowDate);
+        when(memberSummaryRepository.findAllById(anyIterable())).thenReturn(List.of(new MemberSummary(returning, 0, lastBorrowDate, null)));
+
+        Map<UUID, MemberLoanState> states = memberLoanStateCache.getAll(List.of(cached, returning, memberCardUuid));
+
+        assertThat(states).containsEntry(cached, MemberLoanState.borrowed(lastBorrowDate))
+                .containsEntry(returning, new MemberLoanState(false, true, lastBorrowDate))
+                .containsEntry(memberCardUuid, MemberLoanState.NONE);
+        verify(memberSummaryRepository).findAllById(argThat(uuids -> uuids instanceof List<UUID> list && list.size() == 2 && list.containsAll(List.of(returning, memberCardUuid))));
+        assertThat(memberLoanStateCache.get(memberCardUuid)).isEqualTo(MemberLoanState.NONE);
+        verifyNoMoreInteractions(memberSummaryRepository);
+    }
+
+    @Test
+    void recordBorrows_should_write_through_every_member_after_commit() {
+        UUID other = UUID.randomUUID();
+        LocalDate today = LocalDate.now();
+        TransactionSynchronizationManager.initSynchronization();
+
+        memberLoanStateCache.recordBorrows(List.of(memberCardUuid, other), today);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(memberLoanStateCache.get(memberCardUuid)).isEqualTo(MemberLoanState.borrowed(today));
+        assertThat(memberLoanStateCache.get(other)).isEqualTo(MemberLoanState.borrowed(today));
+        verifyNoInteractions(memberSummaryRepository);
+    }
+
+    @Test
+    void recordReturns_should_clear_active_loan_of_cached_members_after_commit() {
+        UUID other = UUID.randomUUID();
+        LocalDate borrowDate = LocalDate.of(2024, 1, 10);
+        memberLoanStateCache.recordBorrow(memberCardUuid, borrowDate);
+        TransactionSynchronizationManager.initSynchronization();
+
+        memberLoanStateCache.recordReturns(List.of(memberCardUuid, other));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(memberLoanStateCache.get(memberCardUuid)).isEqualTo(new MemberLoanState(false, true, borrowDate));
+        verifyNoInteractions(memberSummaryRepository);
+    }
+}
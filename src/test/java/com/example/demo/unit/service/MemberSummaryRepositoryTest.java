@@ -0,0 +1,164 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.model.Borrow;
+import com.example.demo.model.MemberSummary;
+import com.example.demo.repository.BorrowRepository;
+import com.example.demo.repository.MemberSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"})
+@Import(EmbeddedPostgresConfig.class)
+class MemberSummaryRepositoryTest {
+
+    @Autowired
+    private MemberSummaryRepository memberSummaryRepository;
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    private final LocalDate startDate = LocalDate.of(2024, 4, 1);
+
+    @Test
+    void recordBorrow_should_create_summary_and_refuse_second_active_loan() {
+        assertThat(memberSummaryRepository.recordBorrow(memberCardUuid, startDate, startDate.plusWeeks(2))).isEqualTo(1);
+        assertThat(memberSummaryRepository.recordBorrow(memberCardUuid, startDate.plusDays(3), startDate.plusDays(3).plusWeeks(2))).isZero();
+
+        MemberSummary summary = summary();
+        assertThat(summary.getActiveLoanCount()).isEqualTo(1);
+        assertThat(summary.getLastBorrowDate()).isEqualTo(startDate);
+        assertThat(summary.getEarliestDueDate()).isEqualTo(startDate.plusWeeks(2));
+        assertThat(summary.hasOverdueLoan(startDate.plusWeeks(2))).isFalse();
+        assertThat(summary.hasOverdueLoan(startDate.plusWeeks(2).plusDays(1))).isTrue();
+    }
+
+    @Test
+    void recordReturn_should_recount_active_loans_and_allow_next_borrow() {
+        UUID firstLoan = UUID.randomUUID();
+        borrowRepository.saveAll(List.of(borrow(firstLoan, startDate)));
+        memberSummaryRepository.recordBorrow(memberCardUuid, startDate, startDate.plusWeeks(2));
+
+        assertThat(memberSummaryRepository.findActiveLoansFrom(memberCardUuid)).hasValue(startDate);
+
+        assertThat(borrowRepository.returnActiveBorrows(firstLoan, memberCardUuid, startDate, startDate.plusDays(5))).hasSize(1);
+        memberSummaryRepository.recordReturn(memberCardUuid, startDate);
+
+        MemberSummary summary = summary();
+        assertThat(summary.getActiveLoanCount()).isZero();
+        assertThat(summary.getEarliestDueDate()).isNull();
+        assertThat(summary.getLastBorrowDate()).isEqualTo(startDate);
+        assertThat(summary.hasOverdueLoan(startDate.plusYears(1))).isFalse();
+        assertThat(memberSummaryRepository.findActiveLoansFrom(memberCardUuid)).isEmpty();
+
+        assertThat(memberSummaryRepository.recordBorrow(memberCardUuid, startDate.plusDays(6), startDate.plusDays(6).plusWeeks(2))).isEqualTo(1);
+
+        summary = summary();
+        assertThat(summary.getActiveLoanCount()).isEqualTo(1);
+        assertThat(summary.getLastBorrowDate()).isEqualTo(startDate.plusDays(6));
+        assertThat(summary.getEarliestDueDate()).isEqualTo(startDate.plusDays(6).plusWeeks(2));
+    }
+
+    @Test
+    void recordBorrow_should_refuse_second_loan_on_same_day_after_return() {
+        UUID firstLoan = UUID.randomUUID();
+        borrowRepository.saveAll(List.of(borrow(firstLoan, startDate)));
+        memberSummaryRepository.recordBorrow(memberCardUuid, startDate, startDate.plusWeeks(2));
+        summary();
+        borrowRepository.returnActiveBorrows(firstLoan, memberCardUuid, startDate, startDate);
+        memberSummaryRepository.recordReturn(memberCardUuid, startDate);
+
+        assertThat(memberSummaryRepository.recordBorrow(memberCardUuid, startDate, startDate.plusWeeks(2))).isZero();
+        // 先に読み込んだエンティティではなく、記録の時点の集計を読み直します
+        assertThat(memberSummaryRepository.findById(memberCardUuid)).hasValueSatisfying(loaded -> assertThat(loaded.getActiveLoanCount()).isEqualTo(1));
+        assertThat(memberSummaryRepository.findEligibility(memberCardUuid)).hasValueSatisfying(eligibility -> {
+            assertThat(eligibility.getHasActiveLoan()).isFalse();
+            assertThat(eligibility.getHasHistory()).isTrue();
+            assertThat(eligibility.getLastBorrowDate()).isEqualTo(startDate);
+        });
+        assertThat(memberSummaryRepository.recordBorrow(memberCardUuid, startDate.plusDays(1), startDate.plusDays(1).plusWeeks(2))).isEqualTo(1);
+        assertThat(memberSummaryRepository.findEligibility(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void findActiveLoansFrom_should_reach_back_to_the_start_of_overdue_loans() {
+        UUID otherMember = UUID.randomUUID();
+        memberSummaryRepository.recordBorrow(memberCardUuid, startDate, startDate.plusWeeks(2));
+        memberSummaryRepository.recordBorrow(otherMember, startDate.plusDays(10), startDate.plusDays(10).plusWeeks(2));
+
+        assertThat(memberSummaryRepository.findActiveLoansFrom(otherMember)).hasValue(startDate.plusDays(10));
+        assertThat(memberSummaryRepository.findActiveLoansFrom()).hasValueSatisfying(from -> assertThat(from).isBeforeOrEqualTo(startDate));
+        assertThat(memberSummaryRepository.findActiveLoansFrom(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void recordReturn_should_not_read_partitions_before_the_lower_bound() {
+        LocalDate from = LocalDate.now().withDayOfMonth(1);
+        jdbcTemplate.queryForObject("SELECT create_borrow_partition(?)", String.class, from.minusMonths(1));
+        jdbcTemplate.queryForObject("SELECT create_borrow_partition(?)", String.class, from);
+
+        List<String> plan = namedParameterJdbcTemplate.queryForList("EXPLAIN " + MemberSummaryRepository.RECORD_RETURN, Map.of("memberCardUuid", memberCardUuid, "from", from), String.class);
+
+        assertThat(String.join("\n", plan)).contains(partition(from)).doesNotContain(partition(from.minusMonths(1)));
+    }
+
+    @Test
+    void rebuild_should_recompute_every_member_from_borrow_in_one_statement() {
+        UUID otherMember = UUID.randomUUID();
+        Borrow returned = borrow(UUID.randomUUID(), startDate);
+        returned.setBorrowReturnDate(startDate.plusDays(1));
+        Borrow otherMembersLoan = borrow(UUID.randomUUID(), startDate.plusDays(2));
+        otherMembersLoan.setMemberCardUuid(otherMember);
+        borrowRepository.saveAll(List.of(returned, borrow(UUID.randomUUID(), startDate.plusDays(7)), otherMembersLoan));
+        memberSummaryRepository.saveAndFlush(new MemberSummary(memberCardUuid, 5, startDate, startDate));
+
+        assertThat(memberSummaryRepository.rebuild()).isEqualTo(2);
+
+        MemberSummary summary = summary();
+        assertThat(summary.getActiveLoanCount()).isEqualTo(1);
+        assertThat(summary.getLastBorrowDate()).isEqualTo(startDate.plusDays(7));
+        assertThat(summary.getEarliestDueDate()).isEqualTo(startDate.plusDays(7).plusWeeks(2));
+        assertThat(memberSummaryRepository.findById(otherMember)).hasValueSatisfying(other -> assertThat(other.getActiveLoanCount()).isEqualTo(1));
+    }
+
+    private static String partition(LocalDate month) {
+        return "borrow_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM")) + " ";
+    }
+
+    private MemberSummary summary() {
+        entityManager.clear();
+        return memberSummaryRepository.findById(memberCardUuid).orElseThrow();
+    }
+
+    private Borrow borrow(UUID borrowUuid, LocalDate borrowDate) {
+        return Borrow.builder().memberCardUuid(memberCardUuid).borrowUuid(borrowUuid)
+                .borrowStartDate(borrowDate).borrowEndDate(borrowDate.plusWeeks(2)).build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.*;
+import com.example.demo.event.EventType;
+import com.example.demo.event.publisher.OutboxBorrowEventPublisher;
+import com.example.demo.factory.BorrowEventFactory;
+import com.example.demo.factory.ReturnBorrowEventFactory;
+import com.example.demo.mapper.OutboxEventMapper;
+import com.example.demo.model.BorrowItem;
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.repository.OutboxEventRepository;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxBorrowEventPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxEventMapper outboxEventMapper;
+
+    @Mock
+    private BorrowEventFactory borrowEventFactory;
+
+    @Mock
+    private ReturnBorrowEventFactory returnBorrowEventFactory;
+
+    @InjectMocks
+    private OutboxBorrowEventPublisher publisher;
+
+    @Test
+    void should_queue_borrow_created_event_in_outbox() {
+        BorrowAggregate aggregate = Instancio.create(BorrowAggregate.class);
+        List<BorrowItem> entities = List.of(Instancio.create(BorrowItem.class));
+        BorrowCreatedEvent event = Instancio.create(BorrowCreatedEvent.class);
+        OutboxEvent outboxEvent = new OutboxEvent();
+        when(borrowEventFactory.create(eq(aggregate), eq(entities), any(UUID.class))).thenReturn(event);
+        when(outboxEventMapper.toOutboxEvent(eq(EventType.BORROW_CREATED), any(UUID.class), any(UUID.class), eq(event))).thenReturn(outboxEvent);
+        publisher.publishBorrowCreated(aggregate, entities);
+        ArgumentCaptor<UUID> eventIdCaptor = ArgumentCaptor.forClass(UUID.class);
+        verify(borrowEventFactory).create(eq(aggregate), eq(entities), eventIdCaptor.capture());
+        verify(outboxEventMapper).toOutboxEvent(EventType.BORROW_CREATED, eventIdCaptor.getValue(), aggregate.memberCardUuid(), event);
+        verify(outboxEventRepository).save(outboxEvent);
+    }
+
+    @Test
+    void should_queue_return_borrow_created_event_in_outbox() {
+        ReturnBorrowAggregate aggregate = Instancio.create(ReturnBorrowAggregate.class);
+        List<BorrowItem> entities = List.of(Instancio.create(BorrowItem.class));
+        ReturnCreatedEvent event = Instancio.create(ReturnCreatedEvent.class);
+        OutboxEvent outboxEvent = new OutboxEvent();
+        when(returnBorrowEventFactory.create(eq(aggregate), eq(entities), any(UUID.class))).thenReturn(event);
+        when(outboxEventMapper.toOutboxEvent(eq(EventType.RETURN_BORROW_CREATED), any(UUID.class), any(UUID.class), eq(event))).thenReturn(outboxEvent);
+        publisher.publishReturnBorrowCreated(aggregate, entities);
+        ArgumentCaptor<UUID> eventIdCaptor = ArgumentCaptor.forClass(UUID.class);
+        verify(returnBorrowEventFactory).create(eq(aggregate), eq(entities), eventIdCaptor.capture());
+        assertThat(eventIdCaptor.getValue()).isNotNull();
+        verify(outboxEventMapper).toOutboxEvent(EventType.RETURN_BORROW_CREATED, eventIdCaptor.getValue(), aggregate.memberCardUuid(), event);
+        verify(outboxEventRepository).save(outboxEvent);
+    }
+
+    @Test
+    void should_queue_bulk_return_events_with_one_save_all() {
+        ReturnBorrowAggregate first = Instancio.create(ReturnBorrowAggregate.class);
+        ReturnBorrowAggregate second = Instancio.create(ReturnBorrowAggregate.class);
+        List<BorrowItem> entities = List.of(Instancio.create(BorrowItem.class));
+        ReturnCreatedEvent event = Instancio.create(ReturnCreatedEvent.class);
+        OutboxEvent outboxEvent = new OutboxEvent();
+        when(returnBorrowEventFactory.create(any(ReturnBorrowAggregate.class), eq(entities), any(UUID.class))).thenReturn(event);
+        when(outboxEventMapper.toOutboxEvent(eq(EventType.RETURN_BORROW_CREATED), any(UUID.class), any(UUID.class), eq(event))).thenReturn(outboxEvent);
+        publisher.publishReturnBorrowsCreated(List.of(new BulkReturnPlan.PlannedReturn(first, entities), new BulkReturnPlan.PlannedReturn(second, entities)));
+        verify(outboxEventMapper).toOutboxEvent(eq(EventType.RETURN_BORROW_CREATED), any(UUID.class), eq(first.memberCardUuid()), eq(event));
+        verify(outboxEventMapper).toOutboxEvent(eq(EventType.RETURN_BORROW_CREATED), any(UUID.class), eq(second.memberCardUuid()), eq(event));
+        verify(outboxEventRepository).saveAll(List.of(outboxEvent, outboxEvent));
+        verify(outboxEventRepository, never()).save(any());
+    }
+}
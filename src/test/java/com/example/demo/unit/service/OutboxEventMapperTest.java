@@ -0,0 +1,45 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.dto.BorrowCreatedEvent;
+import com.example.demo.dto.ReturnCreatedEvent;
+import com.example.demo.event.EventType;
+import com.example.demo.mapper.OutboxEventMapper;
+import com.example.demo.model.OutboxEvent;
+import org.instancio.Instancio;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutboxEventMapperTest {
+
+    private final OutboxEventMapper outboxEventMapper = new OutboxEventMapper();
+
+    @Test
+    void toOutboxEvent_should_keep_identifiers_and_serialize_payload() {
+        UUID eventId = UUID.randomUUID();
+        UUID messageKey = UUID.randomUUID();
+        BorrowCreatedEvent event = Instancio.create(BorrowCreatedEvent.class);
+        OutboxEvent result = outboxEventMapper.toOutboxEvent(EventType.BORROW_CREATED, eventId, messageKey, event);
+        assertThat(result.getEventType()).isEqualTo(EventType.BORROW_CREATED);
+        assertThat(result.getEventId()).isEqualTo(eventId);
+        assertThat(result.getMessageKey()).isEqualTo(messageKey);
+        assertThat(result.getCreatedAt()).isNotNull();
+        assertThat(result.getPayload()).contains(event.data().borrow_uuid().toString());
+    }
+
+    @Test
+    void toEvent_should_restore_the_original_payload() {
+        ReturnCreatedEvent event = Instancio.create(ReturnCreatedEvent.class);
+        OutboxEvent outboxEvent = outboxEventMapper.toOutboxEvent(EventType.RETURN_BORROW_CREATED, UUID.randomUUID(), UUID.randomUUID(), event);
+        assertThat(outboxEventMapper.toEvent(outboxEvent)).isEqualTo(event);
+    }
+
+    @Test
+    void toEvent_should_throw_when_payload_is_corrupted() {
+        OutboxEvent outboxEvent = OutboxEvent.builder().eventType(EventType.BORROW_CREATED).eventId(UUID.randomUUID()).payload("{").build();
+        assertThrows(IllegalStateException.class, () -> outboxEventMapper.toEvent(outboxEvent));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.event.EventType;
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"})
+@Import(EmbeddedPostgresConfig.class)
+class OutboxEventSequenceTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void should_take_each_outbox_id_from_the_sequence_so_ids_follow_the_order_across_instances() {
+        assertThat(jdbcTemplate.queryForObject("SELECT increment_by FROM pg_sequences WHERE sequencename = 'outbox_event_sequence'", Long.class)).isEqualTo(1L);
+        OutboxEvent borrowed = outboxEventRepository.save(outboxEvent(EventType.BORROW_CREATED));
+        entityManager.flush();
+        // 別のインスタンスがその間に採番した id です。
+        long otherInstanceId = jdbcTemplate.queryForObject("SELECT nextval('outbox_event_sequence')", Long.class);
+
+        OutboxEvent returned = outboxEventRepository.save(outboxEvent(EventType.RETURN_BORROW_CREATED));
+        entityManager.flush();
+
+        assertThat(otherInstanceId).isGreaterThan(borrowed.getId());
+        assertThat(returned.getId()).isGreaterThan(otherInstanceId);
+    }
+
+    private static OutboxEvent outboxEvent(EventType eventType) {
+        return OutboxEvent.builder().eventType(eventType).eventId(UUID.randomUUID()).messageKey(UUID.randomUUID()).payload("{}").createdAt(LocalDateTime.now()).build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.event.EventType;
+import com.example.demo.event.outbox.OutboxRelay;
+import com.example.demo.event.publisher.KafkaEventSender;
+import com.example.demo.mapper.OutboxEventMapper;
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxEventMapper outboxEventMapper;
+
+    @Mock
+    private KafkaEventSender kafkaEventSender;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMs", 1000L);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void relay_should_send_batches_in_order_and_delete_them() {
+        OutboxEvent first = outboxEvent(1L, EventType.BORROW_CREATED);
+        OutboxEvent second = outboxEvent(2L, EventType.RETURN_BORROW_CREATED);
+        OutboxEvent third = outboxEvent(3L, EventType.BORROW_CREATED);
+        when(outboxEventRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(first, second), List.of(third));
+        when(outboxEventMapper.toEvent(any())).thenReturn("payload");
+        when(kafkaEventSender.send(anyString(), any(UUID.class), any(UUID.class), any())).thenAnswer(invocation -> completed());
+        outboxRelay.relay();
+        var inOrder = inOrder(kafkaEventSender, outboxEventRepository);
+        inOrder.verify(kafkaEventSender).send("library.borrow.v1", first.getMessageKey(), first.getEventId(), "payload");
+        inOrder.verify(kafkaEventSender).send("library.return.v1", second.getMessageKey(), second.getEventId(), "payload");
+        inOrder.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        inOrder.verify(kafkaEventSender).send("library.borrow.v1", third.getMessageKey(), third.getEventId(), "payload");
+        inOrder.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    void relay_should_do_nothing_when_outbox_is_empty() {
+        when(outboxEventRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+        outboxRelay.relay();
+        verifyNoInteractions(kafkaEventSender);
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void relay_should_keep_events_when_a_send_fails() {
+        OutboxEvent event = outboxEvent(1L, EventType.BORROW_CREATED);
+        CompletableFuture<SendResult<UUID, Object>> failed = CompletableFuture.failedFuture(new IllegalStateException("broker unavailable"));
+        when(outboxEventRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(event));
+        when(kafkaEventSender.send(anyString(), any(UUID.class), any(UUID.class), any())).thenReturn(failed);
+        assertThrows(CompletionException.class, () -> outboxRelay.relay());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    private static OutboxEvent outboxEvent(long id, EventType eventType) {
+        return OutboxEvent.builder().id(id).eventType(eventType).eventId(UUID.randomUUID()).messageKey(UUID.randomUUID()).payload("{}").build();
+    }
+
+    private static CompletableFuture<SendResult<UUID, Object>> completed() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
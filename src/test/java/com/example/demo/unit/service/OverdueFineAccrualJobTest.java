@@ -0,0 +1,102 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.fine.OverdueFineAccrualJob;
+import com.example.demo.model.Borrow;
+import com.example.demo.policy.ReturnBorrowPolicy;
+import com.example.demo.repository.BorrowRepository;
+import com.example.demo.util.WorkingDayCalendar;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ジョブはバッチごとに別のトランザクションでコミットするため、テストのトランザクションは使いません。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"})
+@Import(EmbeddedPostgresConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OverdueFineAccrualJobTest {
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final UUID memberCardUuid = UUID.randomUUID();
+
+    private final LocalDate endDate = LocalDate.of(2024, 4, 15);
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM accrued_fine");
+        jdbcTemplate.update("DELETE FROM borrow");
+    }
+
+    @Test
+    void accrue_should_add_only_days_since_last_run_and_skip_loans_already_accrued() {
+        UUID overdueLoan = UUID.randomUUID();
+        borrowRepository.saveAll(List.of(borrow(overdueLoan, endDate, null),
+                borrow(UUID.randomUUID(), endDate.plusDays(30), null), borrow(UUID.randomUUID(), endDate, endDate.plusDays(2))));
+        OverdueFineAccrualJob job = job(1000);
+
+        assertThat(job.accrue(endDate.plusDays(4))).isEqualTo(1);
+        assertThat(job.accrue(endDate.plusDays(4))).isZero();
+        assertThat(accruedFine(overdueLoan)).containsEntry("days_late", 4L).containsEntry("accrued_through", java.sql.Date.valueOf(endDate.plusDays(4)));
+        assertThat((BigDecimal) accruedFine(overdueLoan).get("fine_amount")).isEqualByComparingTo("2000");
+
+        assertThat(job.accrue(endDate.plusDays(7))).isEqualTo(1);
+        assertThat(accruedFine(overdueLoan)).containsEntry("days_late", 7L);
+        assertThat((BigDecimal) accruedFine(overdueLoan).get("fine_amount")).isEqualByComparingTo("3500");
+    }
+
+    @Test
+    void accrue_should_write_in_batches_and_remove_returned_loans() {
+        List<UUID> loans = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        borrowRepository.saveAll(loans.stream().map(loan -> borrow(loan, endDate, null)).toList());
+        OverdueFineAccrualJob job = job(2);
+
+        assertThat(job.accrue(endDate.plusDays(1))).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM accrued_fine", Long.class)).isEqualTo(5);
+
+        jdbcTemplate.update("UPDATE borrow SET borrow_return_date = ? WHERE borrow_uuid = ?", endDate.plusDays(2), loans.getFirst());
+        assertThat(job.accrue(endDate.plusDays(3))).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForList("SELECT borrow_uuid FROM accrued_fine", UUID.class)).containsExactlyInAnyOrderElementsOf(loans.subList(1, 5));
+    }
+
+    private OverdueFineAccrualJob job(int batchSize) {
+        ReturnBorrowPolicy returnBorrowPolicy = new ReturnBorrowPolicy(new WorkingDayCalendar(Set.of(), List.of()));
+        return new OverdueFineAccrualJob(borrowRepository, returnBorrowPolicy, jdbcTemplate, transactionManager, batchSize);
+    }
+
+    private Map<String, Object> accruedFine(UUID borrowUuid) {
+        return jdbcTemplate.queryForMap("SELECT days_late, fine_amount, accrued_through FROM accrued_fine WHERE borrow_uuid = ?", borrowUuid);
+    }
+
+    private Borrow borrow(UUID borrowUuid, LocalDate endDate, LocalDate returnDate) {
+        return Borrow.builder().memberCardUuid(memberCardUuid).borrowUuid(borrowUuid)
+                .borrowStartDate(endDate.minusWeeks(2)).borrowEndDate(endDate).borrowReturnDate(returnDate).build();
+    }
+}
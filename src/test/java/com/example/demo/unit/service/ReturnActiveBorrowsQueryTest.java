@@ -0,0 +1,90 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.model.Borrow;
+import com.example.demo.repository.BorrowRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none", "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect"})
+@Import(EmbeddedPostgresConfig.class)
+class ReturnActiveBorrowsQueryTest {
+
+    @Autowired
+    private BorrowRepository borrowRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDate today = LocalDate.now();
+
+    private final LocalDate startDate = today.minusDays(20);
+
+    @Test
+    void should_set_return_date_on_the_loan_header_and_return_it_with_one_statement() {
+        UUID memberCardUuid = UUID.randomUUID();
+        UUID borrowUuid = UUID.randomUUID();
+        Borrow otherLoan = borrow(UUID.randomUUID(), UUID.randomUUID());
+        borrowRepository.saveAll(List.of(borrow(memberCardUuid, borrowUuid), otherLoan));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Borrow> returned = borrowRepository.returnActiveBorrows(borrowUuid, memberCardUuid, startDate, today);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(returned).singleElement().satisfies(borrow -> {
+            assertThat(borrow.getBorrowUuid()).isEqualTo(borrowUuid);
+            assertThat(borrow.getBorrowEndDate()).isEqualTo(today.minusDays(6));
+            assertThat(borrow.getBorrowReturnDate()).isEqualTo(today);
+        });
+        entityManager.clear();
+        assertThat(borrowRepository.findById(otherLoan.getId())).get().extracting(Borrow::getBorrowReturnDate).isNull();
+    }
+
+    @Test
+    void should_return_nothing_for_loan_already_returned_or_of_other_member() {
+        UUID memberCardUuid = UUID.randomUUID();
+        UUID borrowUuid = UUID.randomUUID();
+        borrowRepository.saveAll(List.of(borrow(memberCardUuid, borrowUuid)));
+        entityManager.flush();
+
+        assertThat(borrowRepository.returnActiveBorrows(borrowUuid, UUID.randomUUID(), startDate, today)).isEmpty();
+        assertThat(borrowRepository.returnActiveBorrows(borrowUuid, memberCardUuid, startDate, today)).hasSize(1);
+        assertThat(borrowRepository.returnActiveBorrows(borrowUuid, memberCardUuid, startDate, today)).isEmpty();
+    }
+
+    @Test
+    void should_not_touch_loans_started_before_the_lower_bound() {
+        UUID memberCardUuid = UUID.randomUUID();
+        UUID borrowUuid = UUID.randomUUID();
+        borrowRepository.saveAll(List.of(borrow(memberCardUuid, borrowUuid)));
+        entityManager.flush();
+
+        assertThat(borrowRepository.returnActiveBorrows(borrowUuid, memberCardUuid, startDate.plusDays(1), today)).isEmpty();
+        assertThat(borrowRepository.returnActiveBorrows(borrowUuid, memberCardUuid, startDate, today)).hasSize(1);
+    }
+
+    private Borrow borrow(UUID memberCardUuid, UUID borrowUuid) {
+        return Borrow.builder().memberCardUuid(memberCardUuid).borrowUuid(borrowUuid).borrowStartDate(startDate).borrowEndDate(startDate.plusWeeks(2)).build();
+    }
+}
@@ -6,7 +6,7 @@ import com.example.demo.dto.ReturnCreatedEvent;
 import com.example.demo.dto.ReturnCreatedEventData;
 import com.example.demo.factory.ReturnBorrowEventFactory;
 import com.example.demo.mapper.ReturnMapper;
-import com.example.demo.model.Borrow;
+import com.example.demo.model.BorrowItem;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -35,7 +35,7 @@ class ReturnBorrowEventFactoryTest {
     void shouldCreateReturnEventSuccessfully() {
         UUID eventId = UUID.randomUUID();
         ReturnBorrowAggregate aggregate = createSampleAggregate();
-        List<Borrow> entities = List.of(mock(Borrow.class));
+        List<BorrowItem> entities = List.of(mock(BorrowItem.class));
         List<BookToDecrement> decs = List.of(new BookToDecrement(UUID.randomUUID(), UUID.randomUUID()));
         ReturnCreatedEventData expectedData = new ReturnCreatedEventData(aggregate.memberCardUuid(), aggregate.borrowUuid(), aggregate.startDate(), aggregate.endDate(), aggregate.returnDate(), aggregate.isLate(), aggregate.daysLate(), aggregate.fineAmount(), decs);
         when(returnMapper.toBookToDecrement(entities)).thenReturn(decs);
@@ -3,6 +3,7 @@ package com.example.demo.unit.service;
 import com.example.demo.exception.UnreturnedBorrowExistsException;
 import com.example.demo.model.Borrow;
 import com.example.demo.policy.ReturnBorrowPolicy;
+import com.example.demo.util.DateCalculationUtil;
 import org.instancio.Instancio;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +24,7 @@ class ReturnBorrowPolicyTest {
 
     @BeforeEach
     void setUp() {
-        returnBorrowPolicy = new ReturnBorrowPolicy();
+        returnBorrowPolicy = new ReturnBorrowPolicy(DateCalculationUtil.DEFAULT_CALENDAR);
     }
 
     @Test
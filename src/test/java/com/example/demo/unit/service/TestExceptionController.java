@@ -1,7 +1,10 @@
 package com.example.demo.unit.service;
 
 import com.example.demo.exception.BorrowNotFoundException;
+import com.example.demo.exception.ChapterAlreadyLentException;
 import com.example.demo.exception.DailyBorrowLimitExceededException;
+import com.example.demo.exception.EventPublishRejectedException;
+import com.example.demo.exception.InvalidCursorException;
 import com.example.demo.exception.UnreturnedBorrowExistsException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -14,6 +17,11 @@ class TestExceptionController {
         throw new UnreturnedBorrowExistsException("Conflict error");
     }
 
+    @GetMapping("/test/lent")
+    void lent() {
+        throw new ChapterAlreadyLentException("Chapter already lent");
+    }
+
     @GetMapping("/test/forbidden")
     void forbidden() {
         throw new DailyBorrowLimitExceededException("Limit exceeded");
@@ -23,4 +31,14 @@ class TestExceptionController {
     void notFound() {
         throw new BorrowNotFoundException("Not found");
     }
+
+    @GetMapping("/test/unavailable")
+    void unavailable() {
+        throw new EventPublishRejectedException("Too many events in flight");
+    }
+
+    @GetMapping("/test/badcursor")
+    void badCursor() {
+        throw new InvalidCursorException("cursor is invalid");
+    }
 }
\ No newline at end of file
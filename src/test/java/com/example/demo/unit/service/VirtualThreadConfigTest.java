@@ -0,0 +1,25 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.configuration.VirtualThreadConfig;
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadConfigTest {
+
+    @Test
+    void customizer_should_run_requests_on_virtual_threads() {
+        Http11NioProtocol protocol = new Http11NioProtocol();
+
+        new VirtualThreadConfig().virtualThreadProtocolHandlerCustomizer().customize(protocol);
+
+        Executor executor = protocol.getExecutor();
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).join();
+        assertThat(thread.isVirtual()).isTrue();
+        assertThat(thread.getName()).startsWith("http-virtual-");
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.unit.service;
+
+import com.example.demo.util.DateCalculationUtil;
+import com.example.demo.util.WorkingDayCalendar;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkingDayCalendarTest {
+
+    private static final Set<DayOfWeek> CLOSED_DAYS = Set.of(DayOfWeek.MONDAY, DayOfWeek.SUNDAY);
+
+    @Test
+    void countWorkingDays_should_return_zero_when_start_is_after_end() {
+        assertThat(DateCalculationUtil.calculateWorkingDays(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 9))).isZero();
+    }
+
+    @Test
+    void countWorkingDays_should_skip_closed_weekdays() {
+        // 2024-01-01 は月曜日、2024-01-14 は日曜日
+        assertThat(DateCalculationUtil.calculateWorkingDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 14))).isEqualTo(10);
+        assertThat(DateCalculationUtil.calculateWorkingDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1))).isZero();
+        assertThat(DateCalculationUtil.calculateWorkingDays(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 6))).isEqualTo(5);
+    }
+
+    @Test
+    void countWorkingDays_should_skip_holidays_but_not_count_closed_days_twice() {
+        // 2024-01-03 は水曜日、2024-01-07 は日曜日
+        WorkingDayCalendar calendar = new WorkingDayCalendar(CLOSED_DAYS, List.of(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 7)));
+
+        assertThat(calendar.countWorkingDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 14))).isEqualTo(9);
+    }
+
+    @Test
+    void countWorkingDays_should_count_holidays_across_years() {
+        List<LocalDate> holidays = List.of(LocalDate.of(2023, 3, 15), LocalDate.of(2023, 12, 29), LocalDate.of(2024, 1, 4), LocalDate.of(2024, 12, 31), LocalDate.of(2025, 6, 3));
+        WorkingDayCalendar calendar = new WorkingDayCalendar(CLOSED_DAYS, holidays);
+        LocalDate start = LocalDate.of(2023, 12, 1);
+        LocalDate end = LocalDate.of(2025, 1, 31);
+
+        assertThat(calendar.countWorkingDays(start, end)).isEqualTo(DateCalculationUtil.calculateWorkingDays(start, end) - 3);
+    }
+
+    @Test
+    void countWorkingDays_should_match_day_by_day_count() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Set<DayOfWeek> closedDays = EnumSet.noneOf(DayOfWeek.class);
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (random.nextInt(4) == 0) {
+                    closedDays.add(day);
+                }
+            }
+            List<LocalDate> holidays = random.ints(20, 0, 1200).mapToObj(LocalDate.of(2023, 1, 1)::plusDays).toList();
+            WorkingDayCalendar calendar = new WorkingDayCalendar(closedDays, holidays);
+            LocalDate start = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(1000));
+            LocalDate end = start.plusDays(random.nextInt(400));
+
+            long expected = start.datesUntil(end.plusDays(1)).filter(date -> !closedDays.contains(date.getDayOfWeek()) && !holidays.contains(date)).count();
+
+            assertThat(calendar.countWorkingDays(start, end)).as("%s..%s closed=%s", start, end, closedDays).isEqualTo(expected);
+        }
+    }
+}